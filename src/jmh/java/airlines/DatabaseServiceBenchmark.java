@@ -0,0 +1,153 @@
+package airlines;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the in-memory DatabaseService hot paths at 1, 4, 16 and 64 threads.
+ *
+ * Each nested class (T1, T4, T16, T64) runs the same benchmarks with that many threads against
+ * one shared service. Persistence is stubbed out by GROUP_COMMIT with a window and batch size
+ * that never fire during a run, so updateSeat/addFlight measure locking and bookkeeping only.
+ * hotFlights is how many flights the threads pick from: 1 puts every thread on the same flight
+ * (same lock stripe), 256 spreads them out. updateSeatGlobalLock is the striped updateSeat
+ * funnelled through one shared monitor, the way every booking was serialized before striping.
+ * Run e.g.:
+ *   mvn -Pbenchmarks verify -Djmh.args="DatabaseServiceBenchmark -rf json -rff target/db-hot-paths.json"
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class DatabaseServiceBenchmark {
+
+    static final int FLIGHTS = 256;
+    static final char[] LETTERS = "ABCDEFGHJK".toCharArray();
+    static final int ROWS = 30;
+    private static final Passenger PAX = new Passenger("Bench", "Mark", "1990-01-01");
+
+    @Param({"1", "256"})
+    int hotFlights;
+
+    private final Object global = new Object();
+
+    DatabaseService db;
+    String[] flightIds;
+    Flight[] flights;
+    private Path dir;
+    private QuietLogs quietLogs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        quietLogs = new QuietLogs(); // no INFO line per load/save in the output
+        dir = Files.createTempDirectory("nua-jmh");
+        db = new DatabaseService(dir.resolve("db.txt").toString(), PersistenceMode.GROUP_COMMIT);
+        db.setGroupCommitWindow(TimeUnit.HOURS.toMillis(1));
+        db.setGroupCommitMaxPending(Integer.MAX_VALUE);
+        flightIds = new String[FLIGHTS];
+        for (int i = 0; i < FLIGHTS; i++) {
+            flightIds[i] = String.format("B%04d", i);
+            db.addFlight(flightIds[i], "NU" + (1000 + i), 1, ROWS, LETTERS);
+        }
+        List<Flight> all = db.getFlights(); // added flights are appended after the defaults
+        flights = all.subList(all.size() - FLIGHTS, all.size()).toArray(new Flight[0]);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        db.close();
+        quietLogs.close();
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    /** Per-thread random picks, and a flight id of its own for add/delete. */
+    @State(Scope.Thread)
+    public static class Picks {
+        SplittableRandom random;
+        String ownFlight;
+        int added;
+
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams thread) {
+            random = new SplittableRandom(thread.getThreadIndex());
+            ownFlight = String.format("T%03d", thread.getThreadIndex());
+        }
+
+        int flight(DatabaseServiceBenchmark b) {
+            return random.nextInt(b.hotFlights);
+        }
+
+        String seat() {
+            return (1 + random.nextInt(ROWS)) + String.valueOf(LETTERS[random.nextInt(LETTERS.length)]);
+        }
+    }
+
+    /** Flight lookup by id (findFlight behind DatabaseService.hasFlight). */
+    @Benchmark
+    public boolean findFlight(Picks p) {
+        return db.hasFlight(flightIds[p.flight(this)]);
+    }
+
+    /** Seat lookup on a Flight, without the service's locks. */
+    @Benchmark
+    public Seat flightGetSeat(Picks p) {
+        return flights[p.flight(this)].getSeat(p.seat());
+    }
+
+    /** Book or release a random seat (alternating by coin flip); persistence deferred. */
+    @Benchmark
+    public boolean updateSeat(Picks p) {
+        return db.updateSeat(flightIds[p.flight(this)], p.seat(), p.random.nextBoolean() ? PAX : null);
+    }
+
+    /** updateSeat under a single service-wide monitor: the baseline striping is measured against. */
+    @Benchmark
+    public boolean updateSeatGlobalLock(Picks p) {
+        String flight = flightIds[p.flight(this)];
+        String seat = p.seat();
+        Passenger pax = p.random.nextBoolean() ? PAX : null;
+        synchronized (global) {
+            return db.updateSeat(flight, seat, pax);
+        }
+    }
+
+    @Benchmark
+    public List<Seat> getSeats(Picks p) {
+        return db.getSeats(flightIds[p.flight(this)]);
+    }
+
+    /**
+     * addFlight (generateSeats: ROWS x LETTERS seats) followed by deleteFlight of the same
+     * thread-owned id, so the directory does not grow during the run.
+     */
+    @Benchmark
+    public boolean addFlight(Picks p) {
+        boolean added = db.addFlight(p.ownFlight, "NU9" + (p.added++ % 1000), 1, ROWS, LETTERS);
+        db.deleteFlight(p.ownFlight);
+        return added;
+    }
+
+    @Threads(1)
+    public static class T1 extends DatabaseServiceBenchmark {}
+
+    @Threads(4)
+    public static class T4 extends DatabaseServiceBenchmark {}
+
+    @Threads(16)
+    public static class T16 extends DatabaseServiceBenchmark {}
+
+    @Threads(64)
+    public static class T64 extends DatabaseServiceBenchmark {}
+}
@@ -0,0 +1,85 @@
+package airlines;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for FileStorage.read and FileStorage.write on synthetic v1 files.
+ *
+ * Run through the benchmarks profile (see pom.xml), e.g.:
+ *   mvn -Pbenchmarks verify -Djmh.args="FileStorageBenchmark -p seats=1000000 -prof gc"
+ * read/write report whole-file operations per second (multiply by seats for rows/s);
+ * -prof gc adds the allocation rate (gc.alloc.rate.norm = bytes per load or save).
+ * timeToFirstFlight is a single cold load per fresh JVM, i.e. how long startup waits before
+ * the first flight can be listed; FileStorage has no streaming read, so that is the full parse.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FileStorageBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    long seats;
+
+    @Param({"0.3"})
+    double bookedRatio;
+
+    @Param({"NONE", "LEGACY"})
+    SyntheticDatabase.Quirks quirks;
+
+    private Path dir;
+    private Path source;
+    private Path target;
+    private List<Flight> flights;
+    private QuietLogs quietLogs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        quietLogs = new QuietLogs(); // no INFO line per load/save in the output
+        dir = Files.createTempDirectory("nua-jmh");
+        source = dir.resolve("db.txt");
+        target = dir.resolve("out.txt");
+        long bytes = SyntheticDatabase.write(source, seats, bookedRatio, quirks);
+        flights = FileStorage.read(source.toString());
+        System.err.printf("[FileStorageBenchmark] %d seats, %d flights, %d bytes (%s)%n",
+                seats, flights.size(), bytes, quirks);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        quietLogs.close();
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(target);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public List<Flight> read() {
+        return FileStorage.read(source.toString());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public void write() throws IOException {
+        FileStorage.write(target.toString(), flights);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Fork(value = 3, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    public Flight timeToFirstFlight() {
+        return FileStorage.read(source.toString()).get(0);
+    }
+}
@@ -0,0 +1,106 @@
+package airlines;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the two seat layouts: Flight (one Seat object per seat) and CompactFlight
+ * (packed primitives, Seat views on demand).
+ *
+ * Run through the benchmarks profile (see pom.xml), e.g.:
+ *   mvn -Pbenchmarks verify -Djmh.args="FlightMemoryBenchmark -p seats=1000000"
+ * The heap the flights retain (bytes per seat, measured after GC) is printed once per trial;
+ * getSeat and scanSeats show what the smaller layout costs on access. Booked seats share a
+ * small passenger pool, so the footprint is that of seat storage itself.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FlightMemoryBenchmark {
+
+    private static final char[] LETTERS = "ABCDEFGHJK".toCharArray();
+    private static final int ROWS = 200;
+
+    @Param({"1000000"})
+    long seats;
+
+    @Param({"true", "false"})
+    boolean compact;
+
+    @Param({"true", "false"})
+    boolean withBookings;
+
+    private Flight[] flights;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Passenger> pool = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) pool.add(new Passenger("Pax" + i, "Test", "1990-01-01"));
+
+        long base = usedAfterGc();
+        List<Flight> built = build(seats, withBookings ? pool : null);
+        if (compact) built.replaceAll(CompactFlight::of);
+        flights = built.toArray(new Flight[0]);
+        long bytes = usedAfterGc() - base;
+        random = new SplittableRandom(seats);
+        System.err.printf("[FlightMemoryBenchmark] %d seats, %s, %s: %.1f bytes/seat%n", seats,
+                compact ? "CompactFlight" : "Flight", withBookings ? "1/3 booked" : "none booked",
+                bytes / (double) seats);
+    }
+
+    /** Seat lookup by number on a random flight. */
+    @Benchmark
+    public Seat getSeat() {
+        Flight f = flights[random.nextInt(flights.length)];
+        return f.getSeat((1 + random.nextInt(ROWS)) + String.valueOf(LETTERS[random.nextInt(LETTERS.length)]));
+    }
+
+    /** Walks a random flight's seat list the way the seat table does. */
+    @Benchmark
+    public int scanSeats() {
+        int booked = 0;
+        for (Seat s : flights[random.nextInt(flights.length)].getSeats()) {
+            if (s.isBooked()) booked++;
+        }
+        return booked;
+    }
+
+    // Flights of 200 rows x 10 letters; every third seat booked when pool is given.
+    private static List<Flight> build(long seats, List<Passenger> pool) {
+        List<Flight> flights = new ArrayList<>();
+        long made = 0;
+        for (int n = 1; made < seats; n++) {
+            Flight f = new Flight(String.format("F%05d", n), "NU" + n);
+            for (int row = 1; row <= ROWS && made < seats; row++) {
+                for (int i = 0; i < LETTERS.length && made < seats; i++, made++) {
+                    Seat s = new Seat(row + String.valueOf(LETTERS[i]));
+                    if (pool != null && made % 3 == 0) s.setPassenger(pool.get((int) (made % pool.size())));
+                    f.addSeat(s);
+                }
+            }
+            flights.add(f);
+        }
+        return flights;
+    }
+
+    private static long usedAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,24 @@
+package airlines;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * QuietLogs - raises the "airlines" java.util.logging logger to WARNING for a benchmark trial,
+ * so the INFO lines FileStorage and DatabaseService write for every load and save stay out of
+ * the JMH output (and the measurement); warnings still show. close() restores the old level.
+ */
+final class QuietLogs implements AutoCloseable {
+    private final Logger logger = Logger.getLogger("airlines"); // held: JUL keeps loggers weakly
+    private final Level previous = logger.getLevel();
+
+    QuietLogs() {
+        logger.setLevel(Level.WARNING);
+    }
+
+    @Override
+    public void close() {
+        Log.flush(); // anything still queued is written at the level it was logged at
+        logger.setLevel(previous);
+    }
+}
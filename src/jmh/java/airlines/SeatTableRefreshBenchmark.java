@@ -0,0 +1,94 @@
+package airlines;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableModel;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for refreshing the seat table of a 5,000-seat flight (the addFlight cap), half
+ * booked, with a sorting JTable attached to each model (painting is not included):
+ *   - defaultModelRebuild: the old SeatsFrame refresh, clearing a DefaultTableModel and adding
+ *     an Object[] row per seat
+ *   - reload:      SeatTableModel.reload() (Refresh button)
+ *   - seatChanged: SeatTableModel.seatChanged() (what a booking now costs)
+ *
+ * Run through the benchmarks profile (see pom.xml), e.g.:
+ *   mvn -Pbenchmarks verify -Djmh.args="SeatTableRefreshBenchmark"
+ * The tables are never shown, so the models are driven from the benchmark thread instead of
+ * the event thread; nothing else touches them.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SeatTableRefreshBenchmark {
+
+    private Path dir;
+    private DatabaseService db;
+    private DefaultTableModel old;
+    private SeatTableModel model;
+    private String[] seatNumbers;
+    private int next;
+    private QuietLogs quietLogs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        quietLogs = new QuietLogs(); // no INFO line per save in the output
+        dir = Files.createTempDirectory("nua-jmh");
+        db = new DatabaseService(dir.resolve("db.txt").toString(), PersistenceMode.GROUP_COMMIT);
+        db.addFlight("T1", "NU1", 1, 500, "ABCDEFGHJK".toCharArray());
+        List<Seat> seats = db.getSeats("T1");
+        seatNumbers = new String[seats.size()];
+        for (int i = 0; i < seats.size(); i++) {
+            seatNumbers[i] = seats.get(i).getSeatNumber();
+            if (i % 2 == 0) db.bookSeat("T1", seatNumbers[i], new Passenger("Bench", "Pax" + i, "1990-01-01"));
+        }
+
+        old = new DefaultTableModel(new Object[]{"Seat", "Status", "Passenger", "DOB"}, 0);
+        new JTable(old).setAutoCreateRowSorter(true);
+        model = new SeatTableModel(db, "T1");
+        new JTable(model).setAutoCreateRowSorter(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        db.close();
+        quietLogs.close();
+        try (var files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted((a, b) -> b.compareTo(a))::iterator) Files.deleteIfExists(p);
+        }
+    }
+
+    /** The refresh SeatsFrame used to run after every edit. */
+    @Benchmark
+    public int defaultModelRebuild() {
+        old.setRowCount(0);
+        for (Seat s : db.getSeats("T1")) {
+            String name = s.getPassenger() == null ? "" : s.getPassenger().getFullName();
+            String dob = s.getPassenger() == null ? "" : s.getPassenger().getDateOfBirth();
+            old.addRow(new Object[]{s.getSeatNumber(), s.getStatus().name(), name, dob});
+        }
+        return old.getRowCount();
+    }
+
+    @Benchmark
+    public int reload() {
+        model.reload();
+        return model.getRowCount();
+    }
+
+    @Benchmark
+    public boolean seatChanged() {
+        String seat = seatNumbers[next];
+        next = (next + 1) % seatNumbers.length;
+        return model.seatChanged(seat);
+    }
+}
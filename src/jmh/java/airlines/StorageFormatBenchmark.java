@@ -0,0 +1,71 @@
+package airlines;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks comparing FileStorage.read and FileStorage.write for the v1 CSV and v2 binary
+ * formats on the same synthetic database.
+ *
+ * Run through the benchmarks profile (see pom.xml), e.g.:
+ *   mvn -Pbenchmarks verify -Djmh.args="StorageFormatBenchmark -p seats=1000000 -prof gc"
+ * read/write report whole-file operations per second; the file size of each format is printed
+ * once per trial.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StorageFormatBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    long seats;
+
+    @Param({"V1_CSV", "V2_BINARY"})
+    StorageFormat format;
+
+    private Path dir;
+    private Path source;
+    private Path target;
+    private List<Flight> flights;
+    private QuietLogs quietLogs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        quietLogs = new QuietLogs(); // no INFO line per load/save in the output
+        dir = Files.createTempDirectory("nua-jmh");
+        Path csv = dir.resolve("seed.txt");
+        SyntheticDatabase.write(csv, seats, 0.3, SyntheticDatabase.Quirks.NONE);
+        flights = FileStorage.read(csv.toString());
+        source = dir.resolve("db-" + format);
+        target = dir.resolve("out-" + format);
+        FileStorage.write(source.toString(), flights, format);
+        Files.delete(csv);
+        System.err.printf("[StorageFormatBenchmark] %d seats, %s: %d bytes%n", seats, format, Files.size(source));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        quietLogs.close();
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(target);
+        Files.deleteIfExists(dir);
+    }
+
+    @Benchmark
+    public List<Flight> read() {
+        return FileStorage.read(source.toString());
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        FileStorage.write(target.toString(), flights, format);
+    }
+}
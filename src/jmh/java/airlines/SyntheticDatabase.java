@@ -0,0 +1,82 @@
+package airlines;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * SyntheticDatabase - writes v1 database files of a given size for the JMH benchmarks.
+ *
+ * Flights are 200 rows x 10 letters (the ValidationUtils limits); the last flight is cut short
+ * to hit the seat count exactly. Booked seats are picked by a fixed-seed random, so the same
+ * (seats, bookedRatio, quirks) always gives the same bytes. Quirks reproduce legacy files that
+ * FileStorage still has to accept.
+ */
+final class SyntheticDatabase {
+
+    enum Quirks {
+        NONE,        // canonical v1: v1 header, LF
+        BOM,         // UTF-8 byte order mark before the header
+        CRLF,        // Windows line endings
+        OLD_HEADER,  // pre-v1 "# flightId,..." header
+        LEGACY       // all of the above
+    }
+
+    private static final String V1_HEADER =
+            "# NUA-DB v1 | flightId,flightNumber,seatNumber,status,firstName,lastName,dateOfBirth";
+    private static final String OLD_HEADER =
+            "# flightId,flightNumber,seatNumber,status,firstName,lastName,dateOfBirth";
+    private static final char[] LETTERS = "ABCDEFGHJK".toCharArray();
+    private static final int ROWS = 200;
+
+    private SyntheticDatabase() {}
+
+    /**
+     * Writes seats rows to file.
+     * @return the file size in bytes
+     */
+    static long write(Path file, long seats, double bookedRatio, Quirks quirks) throws IOException {
+        boolean bom = quirks == Quirks.BOM || quirks == Quirks.LEGACY;
+        boolean crlf = quirks == Quirks.CRLF || quirks == Quirks.LEGACY;
+        boolean oldHeader = quirks == Quirks.OLD_HEADER || quirks == Quirks.LEGACY;
+        String eol = crlf ? "\r\n" : "\n";
+        SplittableRandom random = new SplittableRandom(seats);
+
+        try (OutputStream out = Files.newOutputStream(file)) {
+            if (bom) out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+            BufferedWriter w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            w.write(oldHeader ? OLD_HEADER : V1_HEADER);
+            w.write(eol);
+            long made = 0;
+            for (int n = 1; made < seats; n++) {
+                String id = String.format("F%06d", n);
+                String number = "NU" + n;
+                for (int row = 1; row <= ROWS && made < seats; row++) {
+                    for (int i = 0; i < LETTERS.length && made < seats; i++, made++) {
+                        w.write(id);
+                        w.write(',');
+                        w.write(number);
+                        w.write(',');
+                        w.write(Integer.toString(row));
+                        w.write(LETTERS[i]);
+                        if (random.nextDouble() < bookedRatio) {
+                            w.write(",BOOKED,Pax");
+                            w.write(Long.toString(made % 10_000));
+                            w.write(",Test,1990-01-01");
+                        } else {
+                            w.write(",AVAILABLE,,,");
+                        }
+                        w.write(eol);
+                    }
+                }
+            }
+            w.flush();
+        }
+        return Files.size(file);
+    }
+}
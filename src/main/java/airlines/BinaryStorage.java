@@ -0,0 +1,212 @@
+package airlines;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BinaryStorage - "NUA-DB v2" binary snapshot format.
+ *
+ * Layout (big-endian, strings as DataOutput UTF):
+ *   magic         8 bytes: 0x89 'N' 'U' 'A' 'D' 'B' '2' '\n'
+ *   dictionary    int count, then count seat numbers (each distinct number stored once)
+ *   flightCount   int
+ *   per flight:
+ *     id, flightNumber      UTF
+ *     seatCount             int
+ *     seats                 seatCount varints, index into the dictionary
+ *     status bitmap         ceil(seatCount / 8) bytes, bit i (LSB first) set = BOOKED
+ *     passengers            firstName, lastName, dateOfBirth (UTF) for each BOOKED seat, in seat order
+ *
+ * AVAILABLE seats cost one varint and one bit. A BOOKED seat without a passenger is stored
+ * with empty names, the same as v1 does, so v1 <-> v2 conversion is lossless.
+ *
+ * Every count is checked against the bytes left in the file before anything is allocated for
+ * it, so a damaged count is an IOException rather than an OutOfMemoryError.
+ */
+final class BinaryStorage {
+
+    static final byte[] MAGIC = {(byte) 0x89, 'N', 'U', 'A', 'D', 'B', '2', '\n'};
+
+    private static final int BUFFER = 1 << 16;
+
+    // Fewest bytes one counted element can take: a UTF seat number (length + 1 char), a flight
+    // header (two UTF lengths + seatCount), a seat (one varint byte).
+    private static final int MIN_ENTRY_BYTES = 3;
+    private static final int MIN_FLIGHT_BYTES = 8;
+    private static final int MIN_SEAT_BYTES = 1;
+
+    private BinaryStorage() {}
+
+    /** True when the file starts with the v2 magic. */
+    static boolean isBinary(Path p) throws IOException {
+        try (InputStream in = Files.newInputStream(p)) {
+            byte[] head = in.readNBytes(MAGIC.length);
+            return Arrays.equals(head, MAGIC);
+        }
+    }
+
+    static void write(Path p, List<Flight> flights) throws IOException {
+        // Pass 1: seat-number dictionary in first-seen order
+        Map<String, Integer> dict = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        for (Flight f : flights) {
+            for (Seat s : f.getSeats()) {
+                if (dict.putIfAbsent(s.getSeatNumber(), entries.size()) == null) {
+                    entries.add(s.getSeatNumber());
+                }
+            }
+        }
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(p), BUFFER))) {
+            out.write(MAGIC);
+            out.writeInt(entries.size());
+            for (String e : entries) out.writeUTF(e);
+
+            out.writeInt(flights.size());
+            for (Flight f : flights) {
+                List<Seat> seats = f.getSeats();
+                out.writeUTF(f.getId());
+                out.writeUTF(f.getFlightNumber());
+                out.writeInt(seats.size());
+
+                byte[] bitmap = new byte[(seats.size() + 7) >>> 3];
+                for (int i = 0; i < seats.size(); i++) {
+                    Seat s = seats.get(i);
+                    writeVarInt(out, dict.get(s.getSeatNumber()));
+                    if (s.isBooked()) bitmap[i >>> 3] |= (byte) (1 << (i & 7));
+                }
+                out.write(bitmap);
+
+                for (Seat s : seats) {
+                    if (!s.isBooked()) continue;
+                    Passenger pax = s.getPassenger();
+                    out.writeUTF(pax != null ? pax.getFirstName() : "");
+                    out.writeUTF(pax != null ? pax.getLastName() : "");
+                    out.writeUTF(pax != null ? pax.getDateOfBirth() : "");
+                }
+            }
+        }
+    }
+
+    /** Reads a v2 file; flights keep file order. Throws IOException on a truncated/corrupt file. */
+    static LinkedHashMap<String, Flight> read(Path p) throws IOException {
+        LinkedHashMap<String, Flight> flights = new LinkedHashMap<>();
+        long size = Files.size(p);
+        try (CountingInputStream counter = new CountingInputStream(
+                     new BufferedInputStream(Files.newInputStream(p), BUFFER));
+             DataInputStream in = new DataInputStream(counter)) {
+            byte[] head = in.readNBytes(MAGIC.length);
+            if (!Arrays.equals(head, MAGIC)) throw new IOException("Not a NUA-DB v2 file: " + p);
+
+            String[] dict = new String[checkCount(in.readInt(), MIN_ENTRY_BYTES, size - counter.count)];
+            for (int i = 0; i < dict.length; i++) dict[i] = in.readUTF();
+
+            int flightCount = checkCount(in.readInt(), MIN_FLIGHT_BYTES, size - counter.count);
+            for (int n = 0; n < flightCount; n++) {
+                Flight flight = new Flight(in.readUTF(), in.readUTF());
+                int seatCount = checkCount(in.readInt(), MIN_SEAT_BYTES, size - counter.count);
+
+                int[] numbers = new int[seatCount];
+                for (int i = 0; i < seatCount; i++) {
+                    int idx = readVarInt(in);
+                    if (idx < 0 || idx >= dict.length) throw new IOException("Bad seat index " + idx);
+                    numbers[i] = idx;
+                }
+                byte[] bitmap = new byte[(seatCount + 7) >>> 3];
+                in.readFully(bitmap);
+
+                for (int i = 0; i < seatCount; i++) {
+                    boolean booked = (bitmap[i >>> 3] & (1 << (i & 7))) != 0;
+                    flight.addSeat(booked
+                            ? new Seat(dict[numbers[i]], new Passenger(in.readUTF(), in.readUTF(), in.readUTF()))
+                            : new Seat(dict[numbers[i]]));
+                }
+                Flight existing = flights.putIfAbsent(flight.getId(), flight);
+                if (existing != null) {
+                    for (Seat s : flight.getSeats()) existing.addSeat(s);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // blank id/number/seat from a damaged file
+            throw new IOException("Corrupt NUA-DB v2 file: " + e.getMessage(), e);
+        }
+        return flights;
+    }
+
+    // ---------- helpers ----------
+    // A count of n elements of at least minBytes each must fit in the bytes left.
+    private static int checkCount(int n, int minBytes, long bytesLeft) throws IOException {
+        if (n < 0) throw new IOException("Negative count in NUA-DB v2 file");
+        if (n > bytesLeft / minBytes) {
+            throw new IOException("Count " + n + " does not fit in the " + bytesLeft + " bytes left of the NUA-DB v2 file");
+        }
+        return n;
+    }
+
+    /** Bytes read so far (the position in the file). */
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int v = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("Malformed varint");
+    }
+}
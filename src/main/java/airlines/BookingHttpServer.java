@@ -0,0 +1,383 @@
+package airlines;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * BookingHttpServer - local HTTP/JSON booking API over DatabaseService, for kiosks and scripts.
+ *
+ * Built on the JDK's com.sun.net.httpserver with one virtual thread per request, so thousands
+ * of open connections are cheap and a handler may simply block (on a save, a seat lock) without
+ * holding a platform thread. Binds to the loopback address only.
+ *
+ *   GET    /flights                     [{"id","flightNumber"}, ...]
+ *   POST   /flights                     {"id","flightNumber","startRow","endRow","seatLetters"} -> 201
+ *   GET    /flights/{id}                {"id","flightNumber","available","booked","held"}
+ *   DELETE /flights/{id}                -> 204
+ *   GET    /flights/{id}/seats          [{"seat","status","passenger"}, ...]
+ *   PUT    /flights/{id}/seats/{seat}   {"firstName","lastName","dateOfBirth"} -> books if AVAILABLE, else 409
+ *   DELETE /flights/{id}/seats/{seat}   {"firstName","lastName","dateOfBirth"} -> releases if BOOKED for that
+ *                                       passenger, else 409 (so a client cannot cancel someone else's booking)
+ *
+ * Changes are answered once they are on disk (DatabaseService.whenDurable()), so with
+ * GROUP_COMMIT concurrent requests share one save; a change whose save failed answers 500,
+ * also where the service method reported it as false. Errors are {"error": "..."}.
+ */
+public class BookingHttpServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8080;
+    /** Pending connections the OS queues for us; bursts of clients connect at once. */
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private static final Log LOG = Log.get(BookingHttpServer.class);
+
+    private final DatabaseService db;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /** Binds localhost:port (0 picks a free port, see getPort()); call start() to serve. */
+    public BookingHttpServer(DatabaseService db, int port) throws IOException {
+        this.db = db;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.createContext("/flights", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        LOG.info(() -> "Listening on http://localhost:" + getPort() + "/flights");
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Stops accepting requests and waits for the running ones to finish. */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+
+    // ---------- routing ----------
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            List<String> path = new ArrayList<>();
+            for (String part : ex.getRequestURI().getPath().split("/")) {
+                if (!part.isEmpty()) path.add(part);
+            }
+            String method = ex.getRequestMethod();
+            try {
+                if (path.isEmpty() || !path.get(0).equals("flights")) {
+                    error(ex, 404, "Not found");
+                } else if (path.size() == 1) {
+                    if (method.equals("GET")) listFlights(ex);
+                    else if (method.equals("POST")) addFlight(ex);
+                    else error(ex, 405, "Use GET or POST");
+                } else if (path.size() == 2) {
+                    if (method.equals("GET")) getFlight(ex, path.get(1));
+                    else if (method.equals("DELETE")) deleteFlight(ex, path.get(1));
+                    else error(ex, 405, "Use GET or DELETE");
+                } else if (path.size() == 3 && path.get(2).equals("seats")) {
+                    if (method.equals("GET")) getSeats(ex, path.get(1));
+                    else error(ex, 405, "Use GET");
+                } else if (path.size() == 4 && path.get(2).equals("seats")) {
+                    if (method.equals("PUT")) bookSeat(ex, path.get(1), path.get(3));
+                    else if (method.equals("DELETE")) releaseSeat(ex, path.get(1), path.get(3));
+                    else error(ex, 405, "Use PUT or DELETE");
+                } else {
+                    error(ex, 404, "Not found");
+                }
+            } catch (IllegalArgumentException e) {
+                error(ex, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                LOG.error(method + " " + ex.getRequestURI() + " failed", e);
+                error(ex, 500, "Internal error");
+            }
+        }
+    }
+
+    // ---------- endpoints ----------
+
+    private void listFlights(HttpExchange ex) throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (Flight f : db.getFlights()) {
+            if (json.length() > 1) json.append(',');
+            json.append("{\"id\":").append(quote(f.getId()))
+                .append(",\"flightNumber\":").append(quote(f.getFlightNumber())).append('}');
+        }
+        send(ex, 200, json.append(']').toString());
+    }
+
+    private void getFlight(HttpExchange ex, String flightId) throws IOException {
+        Flight f = db.getFlight(flightId);
+        if (f == null) {
+            error(ex, 404, "No flight " + flightId);
+            return;
+        }
+        send(ex, 200, "{\"id\":" + quote(f.getId()) + ",\"flightNumber\":" + quote(f.getFlightNumber())
+                + ",\"available\":" + db.availableCount(flightId) + ",\"booked\":" + db.bookedCount(flightId)
+                + ",\"held\":" + db.heldCount(flightId) + "}");
+    }
+
+    private void getSeats(HttpExchange ex, String flightId) throws IOException {
+        if (!db.hasFlight(flightId)) {
+            error(ex, 404, "No flight " + flightId);
+            return;
+        }
+        StringBuilder json = new StringBuilder("[");
+        for (Seat s : db.getSeats(flightId)) {
+            if (json.length() > 1) json.append(',');
+            Passenger p = s.getPassenger();
+            json.append("{\"seat\":").append(quote(s.getSeatNumber()))
+                .append(",\"status\":").append(quote(s.getStatus().name()))
+                .append(",\"passenger\":");
+            if (p == null) {
+                json.append("null");
+            } else {
+                json.append("{\"firstName\":").append(quote(p.getFirstName()))
+                    .append(",\"lastName\":").append(quote(p.getLastName()))
+                    .append(",\"dateOfBirth\":").append(quote(p.getDateOfBirth())).append('}');
+            }
+            json.append('}');
+        }
+        send(ex, 200, json.append(']').toString());
+    }
+
+    private void addFlight(HttpExchange ex) throws IOException {
+        Map<String, String> body = readObject(ex);
+        String id = body.get("id");
+        String number = body.get("flightNumber");
+        if (!ValidationUtils.isValidFlightId(id)) throw new IllegalArgumentException("Invalid id");
+        if (!ValidationUtils.isValidFlightNumber(number)) throw new IllegalArgumentException("Invalid flightNumber (NU + digits)");
+        int startRow = intField(body, "startRow");
+        int endRow = intField(body, "endRow");
+        if (!ValidationUtils.isValidRowRange(startRow, endRow)) throw new IllegalArgumentException("Invalid row range");
+        Set<Character> letters = ValidationUtils.parseSeatLettersUnique(body.get("seatLetters"));
+        if (letters.isEmpty()) throw new IllegalArgumentException("Invalid seatLetters (1-10 unique letters)");
+        char[] seatLetters = new char[letters.size()];
+        int i = 0;
+        for (char c : letters) seatLetters[i++] = c;
+
+        id = id.trim();
+        boolean existed = db.hasFlight(id);
+        if (!db.addFlight(id, number.trim(), startRow, endRow, seatLetters)) {
+            // WRITE_THROUGH/JOURNALED save right away and answer false if that fails
+            if (!existed && db.hasFlight(id) && !durable(ex)) return;
+            error(ex, 409, "Flight " + id + " already exists");
+            return;
+        }
+        if (!durable(ex)) return;
+        send(ex, 201, "{\"id\":" + quote(id) + "}");
+    }
+
+    private void deleteFlight(HttpExchange ex, String flightId) throws IOException {
+        boolean existed = db.hasFlight(flightId);
+        if (!db.deleteFlight(flightId)) {
+            if (existed && !db.hasFlight(flightId) && !durable(ex)) return; // removed, but the save failed
+            error(ex, 404, "No flight " + flightId);
+            return;
+        }
+        if (durable(ex)) send(ex, 204, null);
+    }
+
+    private void bookSeat(HttpExchange ex, String flightId, String seatNumber) throws IOException {
+        if (!db.tryBook(flightId, seatNumber, readPassenger(ex))) {
+            Seat seat = db.getSeat(flightId, seatNumber);
+            if (seat == null) error(ex, 404, "No seat " + seatNumber + " on flight " + flightId);
+            else error(ex, 409, "Seat " + seatNumber + " is " + seat.getStatus());
+            return;
+        }
+        if (durable(ex)) send(ex, 200, "{\"seat\":" + quote(seatNumber) + ",\"status\":\"BOOKED\"}");
+    }
+
+    private void releaseSeat(HttpExchange ex, String flightId, String seatNumber) throws IOException {
+        if (!db.tryRelease(flightId, seatNumber, readPassenger(ex))) {
+            Seat seat = db.getSeat(flightId, seatNumber);
+            if (seat == null) error(ex, 404, "No seat " + seatNumber + " on flight " + flightId);
+            else if (seat.isBooked()) error(ex, 409, "Seat " + seatNumber + " is booked by someone else");
+            else error(ex, 409, "Seat " + seatNumber + " is " + seat.getStatus());
+            return;
+        }
+        if (durable(ex)) send(ex, 204, null);
+    }
+
+    // ---------- helpers ----------
+
+    private static Passenger readPassenger(HttpExchange ex) throws IOException {
+        Map<String, String> body = readObject(ex);
+        String first = body.get("firstName");
+        String last = body.get("lastName");
+        String dob = body.get("dateOfBirth");
+        if (!ValidationUtils.isValidName(first)) throw new IllegalArgumentException("Invalid firstName");
+        if (!ValidationUtils.isValidName(last)) throw new IllegalArgumentException("Invalid lastName");
+        if (!ValidationUtils.isValidDobIso(dob)) throw new IllegalArgumentException("Invalid dateOfBirth (yyyy-MM-dd, not in the future)");
+        return new Passenger(first, last, dob);
+    }
+
+    // Blocks this (virtual) thread until the change is saved; answers 500 if the save failed.
+    private boolean durable(HttpExchange ex) throws IOException {
+        if (db.whenDurable().join()) return true;
+        error(ex, 500, "Change made but not saved");
+        return false;
+    }
+
+    private static void send(HttpExchange ex, int status, String json) throws IOException {
+        if (json == null) {
+            ex.sendResponseHeaders(status, -1);
+            return;
+        }
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void error(HttpExchange ex, int status, String message) throws IOException {
+        send(ex, status, "{\"error\":" + quote(message) + "}");
+    }
+
+    private static int intField(Map<String, String> body, String name) {
+        try {
+            return Integer.parseInt(body.get(name));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name);
+        }
+    }
+
+    private static Map<String, String> readObject(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) throw new IllegalArgumentException("Request body too large");
+            return parseObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Parses a flat JSON object whose values are strings, numbers, booleans or null (all the
+     * API takes) into name -> text; numbers and booleans keep their JSON spelling, null is null.
+     * @throws IllegalArgumentException if the text is not such an object
+     */
+    static Map<String, String> parseObject(String json) {
+        Map<String, String> out = new HashMap<>();
+        int[] pos = {skipSpace(json, 0)};
+        expect(json, pos, '{');
+        if (peek(json, pos) == '}') {
+            pos[0]++;
+        } else {
+            while (true) {
+                if (peek(json, pos) != '"') throw new IllegalArgumentException("Expected a field name");
+                String name = readString(json, pos);
+                expect(json, pos, ':');
+                out.put(name, readValue(json, pos));
+                char c = peek(json, pos);
+                pos[0]++;
+                if (c == '}') break;
+                if (c != ',') throw new IllegalArgumentException("Expected , or }");
+            }
+        }
+        if (skipSpace(json, pos[0]) != json.length()) throw new IllegalArgumentException("Trailing data after JSON object");
+        return out;
+    }
+
+    private static String readValue(String json, int[] pos) {
+        char c = peek(json, pos);
+        if (c == '"') return readString(json, pos);
+        int start = pos[0];
+        while (pos[0] < json.length() && "{}[],: \t\r\n\"".indexOf(json.charAt(pos[0])) < 0) pos[0]++;
+        String literal = json.substring(start, pos[0]);
+        if (literal.equals("null")) return null;
+        if (literal.equals("true") || literal.equals("false") || literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) return literal;
+        throw new IllegalArgumentException("Unsupported JSON value at " + start);
+    }
+
+    private static String readString(String json, int[] pos) {
+        StringBuilder sb = new StringBuilder();
+        int i = pos[0] + 1; // past the opening quote
+        while (true) {
+            if (i >= json.length()) throw new IllegalArgumentException("Unterminated string");
+            char c = json.charAt(i++);
+            if (c == '"') break;
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (i >= json.length()) throw new IllegalArgumentException("Unterminated string");
+            char e = json.charAt(i++);
+            switch (e) {
+                case '"', '\\', '/' -> sb.append(e);
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'u' -> {
+                    if (i + 4 > json.length()) throw new IllegalArgumentException("Bad \\u escape");
+                    try {
+                        sb.append((char) Integer.parseInt(json.substring(i, i + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw new IllegalArgumentException("Bad \\u escape");
+                    }
+                    i += 4;
+                }
+                default -> throw new IllegalArgumentException("Bad escape \\" + e);
+            }
+        }
+        pos[0] = i;
+        return sb.toString();
+    }
+
+    private static void expect(String json, int[] pos, char c) {
+        if (peek(json, pos) != c) throw new IllegalArgumentException("Expected " + c);
+        pos[0]++;
+    }
+
+    // Skips whitespace and returns the next char (0 at the end).
+    private static char peek(String json, int[] pos) {
+        pos[0] = skipSpace(json, pos[0]);
+        return pos[0] < json.length() ? json.charAt(pos[0]) : 0;
+    }
+
+    private static int skipSpace(String json, int i) {
+        while (i < json.length() && Character.isWhitespace(json.charAt(i))) i++;
+        return i;
+    }
+}
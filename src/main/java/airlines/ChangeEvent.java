@@ -0,0 +1,20 @@
+package airlines;
+
+/**
+ * ChangeEvent - one change published by DatabaseService.changes().
+ *
+ * sequence numbers are consecutive per service, so a subscriber that sees a gap has missed
+ * events (it fell a full buffer behind) and should re-read whatever it shows. SEAT events
+ * carry the seat's state just after the change, and the last event for a seat always matches
+ * the seat. flightId is null for RELOADED; seatNumber, status and passenger only apply to SEAT.
+ */
+public record ChangeEvent(long sequence, Kind kind, String flightId, String seatNumber,
+                          SeatStatus status, Passenger passenger) {
+
+    public enum Kind {
+        SEAT,           // status or passenger changed (booked, released, held, hold ended)
+        FLIGHT_ADDED,
+        FLIGHT_DELETED,
+        RELOADED        // load() replaced everything: re-read
+    }
+}
@@ -0,0 +1,452 @@
+package airlines;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * CompactFlight - Flight that keeps its seats in primitive arrays instead of one Seat object each.
+ *
+ * Per seat: row number in an int[], seat letter in a byte[], BOOKED in a long[] bitset.
+ * Passengers sit in a sparse map keyed by seat index (BOOKED seats only), as do HELD marks. Seat numbers that
+ * are not "<row><letter>" (e.g. "01A", "EXIT") are kept as strings in a second sparse map.
+ *
+ * getSeats()/getSeat() hand out lightweight Seat views that read and write these arrays, so
+ * code written against Seat (UI, journal, storage) works unchanged. Views are created per
+ * call: compare them with equals(), not ==, and don't keep them across removeSeat/replaceSeats.
+ * The packed arrays cannot be compare-and-set, so a view's tryBook/tryRelease/tryHold is a plain
+ * check-then-set: callers serialize them like any other change (DatabaseService locks the flight).
+ */
+public class CompactFlight extends Flight {
+
+    private static final int ODD = -1; // rows[i] when the seat number lives in oddNumbers
+
+    private int size;
+    private int[] rows = new int[0];
+    private byte[] letters = new byte[0];
+    private long[] booked = new long[0];
+    private int bookedSeats;
+    private SparseMap<Passenger> passengers = new SparseMap<>();
+    private SparseMap<String> oddNumbers = new SparseMap<>();
+    private SparseMap<Boolean> held = new SparseMap<>();  // HELD seats (few at a time)
+    private int[] slots = new int[0]; // (index + 1) of the first seat per regular number; 0 = empty
+
+    public CompactFlight(String id, String flightNumber) {
+        super(id, flightNumber);
+    }
+
+    /** Compact copy of a flight; seats keep their order, passengers are shared. */
+    public static CompactFlight of(Flight f) {
+        if (f instanceof CompactFlight c) return c.copy();
+        CompactFlight c = new CompactFlight(f.getId(), f.getFlightNumber());
+        c.replaceSeats(f.getSeats());
+        return c;
+    }
+
+    /** Unmodifiable list of views over the packed seats. */
+    @Override
+    public List<Seat> getSeats() {
+        return new Seats();
+    }
+
+    @Override
+    public void addSeat(Seat seat) {
+        if (seat == null) return;
+        if (size == rows.length) grow(Math.max(8, size + (size >> 1)));
+        int i = size++;
+        String number = seat.getSeatNumber();
+        int row = parseRow(number);
+        rows[i] = row;
+        if (row == ODD) {
+            oddNumbers.put(i, number);
+        } else {
+            letters[i] = (byte) number.charAt(number.length() - 1);
+            if ((size << 1) > slots.length) rehash(); else indexSeat(i);
+        }
+        setBooked(i, seat.isBooked());
+        if (seat.getPassenger() != null) passengers.put(i, seat.getPassenger());
+        if (seat.getStatus() == SeatStatus.HELD) held.put(i, Boolean.TRUE);
+    }
+
+    @Override
+    public boolean removeSeat(Seat seat) {
+        int i = seat == null ? -1 : indexOf(seat.getSeatNumber());
+        if (i < 0) return false;
+        int last = size - 1;
+        System.arraycopy(rows, i + 1, rows, i, last - i);
+        System.arraycopy(letters, i + 1, letters, i, last - i);
+        for (int j = i; j < last; j++) setBooked(j, bookedAt(j + 1));
+        setBooked(last, false);
+        passengers = passengers.withoutIndex(i);
+        oddNumbers = oddNumbers.withoutIndex(i);
+        held = held.withoutIndex(i);
+        size = last;
+        rehash();
+        return true;
+    }
+
+    @Override
+    public Seat getSeat(String seatNumber) {
+        int i = indexOf(seatNumber);
+        return i < 0 ? null : new View(i);
+    }
+
+    @Override
+    void replaceSeats(List<Seat> newSeats) {
+        if (newSeats instanceof CompactFlight.Seats) {
+            // Views read this flight's arrays, which are about to be replaced
+            List<Seat> detached = new ArrayList<>(newSeats.size());
+            for (Seat s : newSeats) detached.add(s.copy());
+            newSeats = detached;
+        }
+        int n = newSeats.size();
+        size = 0;
+        rows = new int[n];
+        letters = new byte[n];
+        booked = new long[(n + 63) >>> 6];
+        bookedSeats = 0;
+        passengers = new SparseMap<>();
+        oddNumbers = new SparseMap<>();
+        held = new SparseMap<>();
+        slots = new int[0];
+        for (Seat s : newSeats) addSeat(s);
+    }
+
+    @Override
+    CompactFlight copy() {
+        CompactFlight c = new CompactFlight(getId(), getFlightNumber());
+        c.size = size;
+        c.rows = Arrays.copyOf(rows, size);
+        c.letters = Arrays.copyOf(letters, size);
+        c.booked = Arrays.copyOf(booked, (size + 63) >>> 6);
+        c.bookedSeats = bookedSeats;
+        c.passengers = passengers.copy();
+        c.oddNumbers = oddNumbers.copy();
+        c.held = held.copy();
+        c.rehash();
+        return c;
+    }
+
+    // The BOOKED bitset doubles as the availability bitmap: a clear bit below size is a free
+    // seat unless it is in the (small) held map
+    @Override
+    public int availableCount() {
+        return size - bookedSeats - held.size();
+    }
+
+    @Override
+    public int heldCount() {
+        return held.size();
+    }
+
+    @Override
+    public int bookedCount() {
+        return bookedSeats;
+    }
+
+    @Override
+    public int nextAvailable(int fromIndex) {
+        if (fromIndex < 0) fromIndex = 0;
+        if (fromIndex >= size) return -1;
+        int w = fromIndex >>> 6;
+        long word = ~booked[w] & (-1L << fromIndex);
+        int last = (size - 1) >>> 6;
+        while (true) {
+            while (word == 0) {
+                if (++w > last) return -1;
+                word = ~booked[w];
+            }
+            int i = (w << 6) + Long.numberOfTrailingZeros(word);
+            if (i >= size) return -1;
+            if (held.get(i) == null) return i;
+            word &= word - 1; // held: try the next free bit
+        }
+    }
+
+    // ---------- packed state ----------
+    private boolean bookedAt(int i) {
+        return (booked[i >>> 6] & (1L << i)) != 0;
+    }
+
+    private void setBooked(int i, boolean b) {
+        if (b == bookedAt(i)) return;
+        bookedSeats += b ? 1 : -1;
+        if (b) booked[i >>> 6] |= 1L << i;
+        else booked[i >>> 6] &= ~(1L << i);
+    }
+
+    private String seatNumber(int i) {
+        return rows[i] == ODD ? oddNumbers.get(i) : rows[i] + String.valueOf((char) letters[i]);
+    }
+
+    private void grow(int capacity) {
+        rows = Arrays.copyOf(rows, capacity);
+        letters = Arrays.copyOf(letters, capacity);
+        booked = Arrays.copyOf(booked, (capacity + 63) >>> 6);
+    }
+
+    /** Row of a "<row><letter>" number (no sign, no leading zero, ASCII letter), else ODD. */
+    private static int parseRow(String number) {
+        int n = number.length();
+        if (n < 2 || n > 10) return ODD;
+        char letter = number.charAt(n - 1);
+        if (!(letter >= 'A' && letter <= 'Z' || letter >= 'a' && letter <= 'z')) return ODD;
+        if (number.charAt(0) == '0') return ODD;
+        int row = 0;
+        for (int i = 0; i < n - 1; i++) {
+            char c = number.charAt(i);
+            if (c < '0' || c > '9') return ODD;
+            row = row * 10 + (c - '0');
+        }
+        return row;
+    }
+
+    /** Index of the first seat whose number equals seatNumber ignoring case; -1 if none. */
+    private int indexOf(String seatNumber) {
+        if (seatNumber == null) return -1;
+        int row = parseRow(seatNumber);
+        if (row == ODD) {
+            for (int i = 0; i < size; i++) {
+                if (rows[i] == ODD && oddNumbers.get(i).equalsIgnoreCase(seatNumber)) return i;
+            }
+            return -1;
+        }
+        if (slots.length == 0) return -1;
+        int letter = upper(seatNumber.charAt(seatNumber.length() - 1));
+        int mask = slots.length - 1;
+        for (int s = slot(row, letter, mask); slots[s] != 0; s = (s + 1) & mask) {
+            int i = slots[s] - 1;
+            if (rows[i] == row && upper(letters[i]) == letter) return i;
+        }
+        return -1;
+    }
+
+    private void indexSeat(int i) {
+        int letter = upper(letters[i]);
+        int mask = slots.length - 1;
+        int s = slot(rows[i], letter, mask);
+        for (; slots[s] != 0; s = (s + 1) & mask) {
+            int j = slots[s] - 1;
+            if (rows[j] == rows[i] && upper(letters[j]) == letter) return; // keep the first one
+        }
+        slots[s] = i + 1;
+    }
+
+    private void rehash() {
+        int cap = 8;
+        while (cap < (size << 1)) cap <<= 1;
+        slots = new int[cap];
+        for (int i = 0; i < size; i++) {
+            if (rows[i] != ODD) indexSeat(i);
+        }
+    }
+
+    private static int slot(int row, int letter, int mask) {
+        int h = (row * 31 + letter) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int upper(int c) {
+        return c >= 'a' && c <= 'z' ? c - 32 : c;
+    }
+
+    // ---------- views ----------
+    private final class Seats extends AbstractList<Seat> implements RandomAccess {
+        @Override
+        public Seat get(int i) {
+            if (i < 0 || i >= size) throw new IndexOutOfBoundsException("Index " + i + ", size " + size);
+            return new View(i);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /** Seat backed by slot i of the packed arrays; setters write through. */
+    private final class View extends Seat {
+        private final int i;
+
+        View(int i) {
+            super(seatNumber(i));
+            this.i = i;
+        }
+
+        @Override
+        public SeatStatus getStatus() {
+            if (bookedAt(i)) return SeatStatus.BOOKED;
+            return held.get(i) != null ? SeatStatus.HELD : SeatStatus.AVAILABLE;
+        }
+
+        @Override
+        public Passenger getPassenger() {
+            return passengers.get(i);
+        }
+
+        @Override
+        public boolean isBooked() {
+            return bookedAt(i);
+        }
+
+        @Override
+        public void setPassenger(Passenger passenger) {
+            if (passenger == null) passengers.remove(i);
+            else passengers.put(i, passenger);
+            held.remove(i);
+            setBooked(i, passenger != null);
+        }
+
+        @Override
+        public void setStatus(SeatStatus status) {
+            if (status == null) return;
+            if (status != SeatStatus.BOOKED) passengers.remove(i);
+            if (status == SeatStatus.HELD) held.put(i, Boolean.TRUE);
+            else held.remove(i);
+            setBooked(i, status == SeatStatus.BOOKED);
+        }
+
+        @Override
+        public boolean tryBook(Passenger passenger) {
+            if (passenger == null || getStatus() != SeatStatus.AVAILABLE) return false;
+            setPassenger(passenger);
+            return true;
+        }
+
+        @Override
+        boolean tryHold() {
+            if (getStatus() != SeatStatus.AVAILABLE) return false;
+            held.put(i, Boolean.TRUE);
+            return true;
+        }
+
+        @Override
+        boolean releaseHold() {
+            if (getStatus() != SeatStatus.HELD) return false;
+            held.remove(i);
+            return true;
+        }
+
+        @Override
+        boolean bookHeld(Passenger passenger) {
+            if (passenger == null || getStatus() != SeatStatus.HELD) return false;
+            setPassenger(passenger);
+            return true;
+        }
+
+        @Override
+        public boolean tryRelease(Passenger expected) {
+            if (expected == null || !expected.equals(passengers.get(i))) return false;
+            setPassenger(null);
+            return true;
+        }
+
+        @Override
+        Seat copy() {
+            Seat c = new Seat(getSeatNumber(), getPassenger());
+            c.setStatus(getStatus());
+            return c;
+        }
+    }
+
+    /** Open-addressing map from seat index to value; holds only the seats that have one. */
+    private static final class SparseMap<V> {
+        private int[] keys = new int[0];   // index + 1; 0 = empty
+        private Object[] values = new Object[0];
+        private int count;
+
+        int size() {
+            return count;
+        }
+
+        @SuppressWarnings("unchecked")
+        V get(int index) {
+            if (count == 0) return null;
+            int mask = keys.length - 1;
+            for (int s = slot(index, mask); keys[s] != 0; s = (s + 1) & mask) {
+                if (keys[s] == index + 1) return (V) values[s];
+            }
+            return null;
+        }
+
+        void put(int index, V value) {
+            if ((count + 1) * 2 > keys.length) resize(Math.max(8, keys.length << 1));
+            int mask = keys.length - 1;
+            int s = slot(index, mask);
+            for (; keys[s] != 0; s = (s + 1) & mask) {
+                if (keys[s] == index + 1) {
+                    values[s] = value;
+                    return;
+                }
+            }
+            keys[s] = index + 1;
+            values[s] = value;
+            count++;
+        }
+
+        void remove(int index) {
+            if (count == 0) return;
+            int mask = keys.length - 1;
+            int s = slot(index, mask);
+            while (keys[s] != index + 1) {
+                if (keys[s] == 0) return;
+                s = (s + 1) & mask;
+            }
+            // Backward-shift deletion keeps probe runs unbroken
+            int hole = s;
+            for (int j = (s + 1) & mask; keys[j] != 0; j = (j + 1) & mask) {
+                int home = slot(keys[j] - 1, mask);
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    values[hole] = values[j];
+                    hole = j;
+                }
+            }
+            keys[hole] = 0;
+            values[hole] = null;
+            count--;
+        }
+
+        /** Copy with the entry for removed dropped and every later index moved down by one. */
+        @SuppressWarnings("unchecked")
+        SparseMap<V> withoutIndex(int removed) {
+            SparseMap<V> m = new SparseMap<>();
+            for (int s = 0; s < keys.length; s++) {
+                int index = keys[s] - 1;
+                if (index < 0 || index == removed) continue;
+                m.put(index > removed ? index - 1 : index, (V) values[s]);
+            }
+            return m;
+        }
+
+        SparseMap<V> copy() {
+            SparseMap<V> m = new SparseMap<>();
+            m.keys = keys.clone();
+            m.values = values.clone();
+            m.count = count;
+            return m;
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            Object[] oldValues = values;
+            keys = new int[capacity];
+            values = new Object[capacity];
+            int mask = capacity - 1;
+            for (int n = 0; n < oldKeys.length; n++) {
+                if (oldKeys[n] == 0) continue;
+                int s = slot(oldKeys[n] - 1, mask);
+                while (keys[s] != 0) s = (s + 1) & mask;
+                keys[s] = oldKeys[n];
+                values[s] = oldValues[n];
+            }
+        }
+
+        private static int slot(int index, int mask) {
+            int h = index * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & mask;
+        }
+    }
+}
@@ -1,8 +1,34 @@
 package airlines;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * DatabaseService 10-12-2025
@@ -11,57 +37,550 @@ import java.util.List;
  * - Provides read APIs for UI
  * - Persists changes (autosave) after updates
  * - NEW: addFlight(...) and deleteFlight(...) for flight management
+ * - JOURNALED mode: seat changes are appended to "<db>.journal" instead of rewriting
+ *   the whole file; the journal is compacted into a fresh snapshot in the background
+ * - GROUP_COMMIT mode: changes only mark the service dirty; one background writer saves
+ *   once per window or after N pending changes (see whenDurable()/flush())
+ * - Saves keep the format the file was loaded in (v1 CSV or v2 binary) unless changed
+ * - dbPath may be a segment directory (one file per flight, see SegmentStorage); then only
+ *   flights changed since the last save are rewritten and deleteFlight drops one file
+ * - Lazy mode (segment directory + seat budget): startup reads only the manifest; a flight's
+ *   seats are loaded on first getSeats/updateSeat and dropped again (least recently used,
+ *   never while unsaved) once more than the budgeted number of seats is in memory
+ * - setCompactFlights(true) keeps seats packed in CompactFlight arrays instead of Seat objects
+ * - Thread-safe: seat reads/changes lock only their flight's stripe (under a shared structure
+ *   lock), add/delete take the structure lock exclusively, load only to swap in what it read
+ *   without locks, and saves copy each flight under its stripe so bookings on other flights
+ *   carry on during a save.
+ *   Lock order: loadLock -> ioLock -> structure -> stripe; the monitor (group-commit state) and the
+ *   change-event lock are leaves.
+ * - tryBook/tryRelease: book-if-available / release-if-still-yours via compare-and-set on the
+ *   seat, without taking its stripe
+ * - bookSeats/releaseSeats/releaseAllSeats: all-or-none multi-seat changes on one flight,
+ *   persisted as a single change
+ * - holdSeat/bookHeld/releaseHold: a seat is HELD for an agent while they fill in the booking;
+ *   holds live in memory only (saved as AVAILABLE) and expire through a TimingWheel that the
+ *   background thread ticks while any hold is outstanding
+ * - changes(): Flow.Publisher of seat/flight ChangeEvents (sequence-numbered, bounded buffer
+ *   per subscriber) so views and other consumers apply deltas instead of reloading
+ * - Seat updates, flight add/delete and segment saves are timed, and bookings, releases,
+ *   lookup misses and failed saves counted, in Metrics (exported over JMX); seat updates are
+ *   also airlines.SeatUpdate JFR events (see FlightRecorderEvents)
  */
-public class DatabaseService {
+public class DatabaseService implements AutoCloseable {
+
+    private static final Log LOG = Log.get(DatabaseService.class);
+
+    /** Journal size (bytes) that triggers a background compaction. */
+    public static final long DEFAULT_JOURNAL_COMPACTION_BYTES = 1L << 20;
+    /** GROUP_COMMIT: longest a change waits before the background writer saves it. */
+    public static final long DEFAULT_GROUP_COMMIT_WINDOW_MS = 200;
+    /** GROUP_COMMIT: pending changes that trigger a save without waiting for the window. */
+    public static final int DEFAULT_GROUP_COMMIT_MAX_PENDING = 64;
+    /** How long holdSeat callers usually keep a seat while the booking is filled in. */
+    public static final long DEFAULT_HOLD_MILLIS = 5 * 60_000;
+    /** Hold expiry resolution and wheel size: one turn covers ~51 s, longer holds take several turns. */
+    private static final long HOLD_TICK_MS = 100;
+    private static final int HOLD_WHEEL_BUCKETS = 512;
+    /** Events buffered per changes() subscriber; one that falls further behind loses events. */
+    static final int CHANGE_BUFFER = 1024;
+    /** Seat locks; flights hash onto these, so unrelated flights rarely share one. */
+    private static final int LOCK_STRIPES = 64;
+    /** load(): unlocked reads an add/delete (or a compaction) may invalidate before one is read under the locks. */
+    private static final int UNLOCKED_LOAD_ATTEMPTS = 3;
 
     private final String dbPath;
-    private final List<Flight> flights = new ArrayList<>();
+    private final PersistenceMode mode;
+    private final List<Flight> flights = new CopyOnWriteArrayList<>(); // UI may iterate while bookings run
+    private IgnoreCaseIndex<Flight> flightIndex = new IgnoreCaseIndex<>(); // id -> first such flight; guarded by structure
+    private volatile StorageFormat storageFormat = StorageFormat.V1_CSV;
+    private boolean compactFlights;                         // guarded by structure
+    private long structureChanges;                          // flights added/deleted; guarded by structure
+
+    // ---- locking ----
+    private final ReentrantReadWriteLock structure = new ReentrantReadWriteLock(); // flight list; exclusive to add/delete/load
+    private final Object[] stripes = new Object[LOCK_STRIPES]; // one flight's seats (see stripe())
+
+    // ---- snapshot bookkeeping ----
+    private final Object ioLock = new Object();             // serializes snapshot capture + write
+    private final AtomicLong version = new AtomicLong();    // bumped per change
+    private long writtenVersion = -1;                       // version on disk; guarded by ioLock
+    private long snapshotsWritten;                          // successful writeSnapshot calls; guarded by ioLock
+    private final Object loadLock = new Object();           // one load() at a time
+    private volatile Set<String> seatChangesDuringLoad;     // flights whose seats changed while load() reads; else null
+    private ScheduledExecutorService background;            // compactor / group writer, lazily created
+
+    // ---- journaled mode ----
+    private final SeatJournal journal;                      // null unless JOURNALED
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile long journalCompactionBytes = DEFAULT_JOURNAL_COMPACTION_BYTES;
+    private boolean leftoverJournal;                        // other modes: journal from an earlier JOURNALED run; guarded by ioLock
+
+    // ---- group-commit mode (guarded by this) ----
+    private long groupCommitWindowMs = DEFAULT_GROUP_COMMIT_WINDOW_MS;
+    private int groupCommitMaxPending = DEFAULT_GROUP_COMMIT_MAX_PENDING;
+    private int pendingChanges;
+    private CompletableFuture<Boolean> pendingCommit;       // completes when pending changes are on disk
+    private CompletableFuture<Boolean> lastCommit = CompletableFuture.completedFuture(true);
+    private ScheduledFuture<?> scheduledFlush;
+    private boolean flushQueued;
+    private boolean unsaved;                                // the last save failed (any mode)
+
+    // ---- seat holds (memory only; a hold's seat is changed under its flight's stripe) ----
+    private final TimingWheel<Hold> holdWheel = new TimingWheel<>(HOLD_TICK_MS, HOLD_WHEEL_BUCKETS, nowMillis());
+    private final Map<Long, TimingWheel.Timeout<Hold>> holds = new ConcurrentHashMap<>(); // hold id -> expiry
+    private final AtomicLong holdIds = new AtomicLong();
+    private ScheduledFuture<?> holdTicker;                  // runs while holds exist; guarded by this
+
+    private record Hold(long id, String flightId, String seatNumber) {}
+
+    // ---- change events (see changes()) ----
+    private final ExecutorService eventThreads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("nua-db-events-", 0).factory());
+    private final SubmissionPublisher<ChangeEvent> changes = new SubmissionPublisher<>(eventThreads, CHANGE_BUFFER);
+    private final Object eventLock = new Object();          // numbers and offers events in order; a leaf
+    private long eventSequence;                             // guarded by eventLock
+    private final List<Consumer<IOException>> saveFailureListeners = new CopyOnWriteArrayList<>();
+
+    // ---- segment directory; entries stay until a write at that version succeeds ----
+    private final SegmentStorage segments;                  // null for a single database file
+    private final Map<String, Long> dirtyFlights = new ConcurrentHashMap<>();   // flightId -> last change
+    private final Map<String, Long> deletedFlights = new ConcurrentHashMap<>(); // flightId -> deleted at
+    private long manifestChanged = -1;                      // version of the last add/delete; guarded by structure
+    private long manifestSaved = -1;                        // guarded by ioLock
+
+    // ---- lazy mode (guarded by the exclusive structure lock): flights are id/number stubs until their seats are needed ----
+    private final boolean lazy;
+    private final long residentSeatBudget;
+    private final Map<String, Flight> resident = new LinkedHashMap<>(16, 0.75f, true); // LRU first
+    private long residentSeats;
 
     /** Loads data from dbPath; auto-creates file if missing (via FileStorage.read). */
     public DatabaseService(String dbPath) {
+        this(dbPath, PersistenceMode.WRITE_THROUGH);
+    }
+
+    /** Same as above, persisting seat changes according to mode (null = WRITE_THROUGH). */
+    public DatabaseService(String dbPath, PersistenceMode mode) {
+        this(dbPath, mode, 0);
+    }
+
+    /**
+     * Lazy-loading variant for a segment directory (see FileStorage.importToSegments): startup reads
+     * only the flight list and at most residentSeatBudget seats stay in memory (the flight in use
+     * and unsaved flights are always kept). A budget <= 0, or a single database file, loads eagerly.
+     */
+    public DatabaseService(String dbPath, PersistenceMode mode, long residentSeatBudget) {
         this.dbPath = dbPath == null ? "database.txt" : dbPath;
+        this.mode = mode == null ? PersistenceMode.WRITE_THROUGH : mode;
+        this.journal = this.mode == PersistenceMode.JOURNALED ? new SeatJournal(this.dbPath) : null;
+        this.segments = Files.isDirectory(Path.of(this.dbPath)) ? new SegmentStorage(Path.of(this.dbPath)) : null;
+        if (residentSeatBudget > 0 && segments == null) {
+            LOG.warn("Lazy loading needs a segment directory; loading " + this.dbPath + " eagerly");
+        }
+        this.lazy = residentSeatBudget > 0 && segments != null;
+        this.residentSeatBudget = residentSeatBudget;
+        for (int i = 0; i < stripes.length; i++) stripes[i] = new Object();
         load(); // autoload on construction
     }
 
-    /** Re-load from disk, replacing in-memory flights. */
+    public PersistenceMode getPersistenceMode() {
+        return mode;
+    }
+
+    /** Journal size (bytes) after which JOURNALED mode compacts in the background. */
+    public void setJournalCompactionThreshold(long bytes) {
+        this.journalCompactionBytes = Math.max(1L, bytes);
+    }
+
+    /** GROUP_COMMIT: save at most this long (ms) after the first unsaved change. */
+    public synchronized void setGroupCommitWindow(long millis) {
+        this.groupCommitWindowMs = Math.max(0L, millis);
+    }
+
+    /** GROUP_COMMIT: save as soon as this many changes are pending. */
+    public synchronized void setGroupCommitMaxPending(int changes) {
+        this.groupCommitMaxPending = Math.max(1, changes);
+    }
+
+    /** Format used by save(); the next save converts the file if this changes. */
+    public StorageFormat getStorageFormat() {
+        return storageFormat;
+    }
+
+    public void setStorageFormat(StorageFormat format) {
+        this.storageFormat = format == null ? StorageFormat.V1_CSV : format;
+    }
+
+    /**
+     * Keep each flight's seats packed in primitive arrays (CompactFlight) instead of one Seat
+     * object per seat; getSeats()/getSeat() then return views. Converts the flights already
+     * loaded and applies to later loads and added flights.
+     */
+    public void setCompactFlights(boolean compact) {
+        structure.writeLock().lock();
+        try {
+            if (compact == compactFlights) return;
+            compactFlights = compact;
+            flights.replaceAll(this::adopt);
+            reindexFlights();
+            resident.replaceAll((id, f) -> findFlight(id));
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    public boolean isCompactFlights() {
+        structure.readLock().lock();
+        try {
+            return compactFlights;
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-load from disk, replacing in-memory flights (pending GROUP_COMMIT changes are saved first).
+     * The file is read and parsed with no lock held, so bookings and reads carry on meanwhile; the
+     * locks are only taken to swap the new flights in. Flights whose seats changed during the read
+     * keep their in-memory seats (newer than the disk). If a flight was added or deleted, or a
+     * journal compacted, during the read, it is read again (the last try under the locks).
+     */
     public final void load() {
+        synchronized (loadLock) {
+            for (int attempt = 1; ; attempt++) {
+                boolean locked = attempt > UNLOCKED_LOAD_ATTEMPTS;
+                Set<String> changed = ConcurrentHashMap.newKeySet();
+                seatChangesDuringLoad = changed; // before the save: a change is either saved or tracked
+                try {
+                    boolean pending;
+                    synchronized (this) {
+                        pending = pendingCommit != null;
+                    }
+                    if (pending) save();
+                    long seenStructure;
+                    long seenSnapshots;
+                    boolean journaled;
+                    synchronized (ioLock) { // waits for a save in progress
+                        seenSnapshots = snapshotsWritten;
+                        journaled = journal != null || leftoverJournal; // a compaction drops records we may not have read
+                        structure.readLock().lock();
+                        try {
+                            seenStructure = structureChanges;
+                        } finally {
+                            structure.readLock().unlock();
+                        }
+                    }
+                    DiskFlights read = locked ? null : readFlights();
+                    synchronized (ioLock) { // no snapshot of the old flights is written over the reloaded file
+                        structure.writeLock().lock();
+                        try {
+                            if (locked) {
+                                read = readFlights();
+                            } else if (structureChanges != seenStructure || journaled && snapshotsWritten != seenSnapshots) {
+                                continue;
+                            }
+                            install(read, changed);
+                            return;
+                        } finally {
+                            structure.writeLock().unlock();
+                        }
+                    }
+                } finally {
+                    seatChangesDuringLoad = null;
+                }
+            }
+        }
+    }
+
+    /** What load() read: complete flights, or only manifest stubs (seatsLoaded false) in lazy mode. */
+    private record DiskFlights(List<Flight> flights, boolean seatsLoaded, StorageFormat format) {}
+
+    // No locks needed: only reads the disk (FileStorage.read creates or rebuilds a missing/empty file).
+    private DiskFlights readFlights() {
+        List<Flight> read = null;
+        if (lazy) read = readIndex();
+        boolean seatsLoaded = read == null;
+        if (seatsLoaded) read = FileStorage.read(dbPath);
+        return new DiskFlights(read, seatsLoaded, FileStorage.detectFormat(dbPath));
+    }
+
+    // Caller holds ioLock and the structure write lock. Flights in changed keep their in-memory seats.
+    private void install(DiskFlights read, Set<String> changed) {
+        Map<String, Flight> newer = new HashMap<>();
+        for (String id : changed) {
+            Flight f = findFlight(id);
+            if (f != null) newer.put(f.getId(), f);
+        }
+        List<Flight> loaded = new ArrayList<>(read.flights().size());
+        List<Flight> kept = new ArrayList<>();
+        resident.clear();
+        residentSeats = 0;
+        for (Flight f : read.flights()) {
+            Flight mine = newer.get(f.getId());
+            if (mine != null) {
+                kept.add(mine);
+                f = mine;
+            } else {
+                f = adopt(f);
+            }
+            loaded.add(f);
+            // changed seats were hydrated first, so a kept flight is complete
+            if (lazy && (read.seatsLoaded() || mine != null)) makeResident(f);
+        }
+        for (TimingWheel.Timeout<Hold> t : holds.values()) holdWheel.cancel(t);
+        holds.clear(); // reloaded seats are never HELD
         flights.clear();
-        flights.addAll(FileStorage.read(dbPath));
+        flights.addAll(loaded); // one copy of the copy-on-write list
+        reindexFlights();
+        storageFormat = read.format();
+        long v = version.incrementAndGet();
+        leftoverJournal = journal == null
+                && (Files.exists(SeatJournal.activePath(dbPath)) || Files.exists(SeatJournal.rolledPath(dbPath)));
+        if (segments != null) {
+            reloadSegments();
+            for (Flight f : kept) dirtyFlights.put(f.getId(), v); // their changes may not be in the segment yet
+        }
+        publish(ChangeEvent.Kind.RELOADED, null);
     }
 
-    /** Expose read-only list for UI binding. */
+    /**
+     * Expose read-only list for UI binding.
+     * In lazy mode flights that were not opened yet have no seats; use getSeats(flightId).
+     */
     public List<Flight> getFlights() {
         return Collections.unmodifiableList(flights);
     }
 
-    /** Seats for a specific flight (read-only list); empty list if not found. */
+    /** True if a flight with this id exists (case-insensitive); does not load seats. */
+    public boolean hasFlight(String flightId) {
+        structure.readLock().lock();
+        try {
+            return findFlight(flightId) != null;
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * The flight with this id (case-insensitive), or null; an index lookup that does not load seats,
+     * so in lazy mode an unopened flight has none (use getSeats(flightId)).
+     */
+    public Flight getFlight(String flightId) {
+        structure.readLock().lock();
+        try {
+            return findFlight(flightId);
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /** Seats for a specific flight (read-only list); empty list if not found. Loads them in lazy mode. */
     public List<Seat> getSeats(String flightId) {
-        Flight f = findFlight(flightId);
-        return f == null ? List.of() : f.getSeats(); // Flight#getSeats
+        return withFlight(flightId, f -> f == null ? List.of() : f.getSeats()); // Flight#getSeats
+    }
+
+    /** One seat (case-insensitive lookup); null if the flight or seat is not found. Loads seats in lazy mode. */
+    public Seat getSeat(String flightId, String seatNumber) {
+        Seat seat = withFlight(flightId, f -> f == null ? null : f.getSeat(seatNumber));
+        if (seat == null) Metrics.LOOKUP_MISSES.increment();
+        return seat;
+    }
+
+    /** AVAILABLE seats on a flight (0 if not found); O(1) once the seats are loaded. */
+    public int availableCount(String flightId) {
+        return withFlight(flightId, f -> f == null ? 0 : f.availableCount());
+    }
+
+    /** BOOKED seats on a flight (0 if not found); O(1) once the seats are loaded. */
+    public int bookedCount(String flightId) {
+        return withFlight(flightId, f -> f == null ? 0 : f.bookedCount());
+    }
+
+    /** HELD seats on a flight (0 if not found); O(1) once the seats are loaded. */
+    public int heldCount(String flightId) {
+        return withFlight(flightId, f -> f == null ? 0 : f.heldCount());
+    }
+
+    /** Index into getSeats(flightId) of the first AVAILABLE seat at or after fromIndex; -1 if none. */
+    public int nextAvailable(String flightId, int fromIndex) {
+        return withFlight(flightId, f -> f == null ? -1 : f.nextAvailable(fromIndex));
+    }
+
+    /** Snapshot of the AVAILABLE seats in seat order (empty if the flight is not found). */
+    public List<Seat> availableSeats(String flightId) {
+        return withFlight(flightId, f -> {
+            if (f == null) return List.of();
+            List<Seat> free = new ArrayList<>(f.availableCount());
+            for (Seat s : f.availableSeats()) free.add(s);
+            return free;
+        });
     }
 
     /**
      * Update (book or change) a seat's passenger.
      * - passenger == null -> releases the seat (AVAILABLE)
      * - otherwise -> BOOKED with provided passenger
-     * Autosaves after successful update.
+     * Autosaves after successful update (journal append in JOURNALED mode,
+     * deferred to the background writer in GROUP_COMMIT mode).
      * @return true if flight+seat found and updated
      */
     public boolean updateSeat(String flightId, String seatNumber, Passenger passenger) {
-        Flight f = findFlight(flightId);
-        if (f == null) return false;
-        Seat seat = f.getSeat(seatNumber);
-        if (seat == null) return false;
+        long start = System.nanoTime();
+        FlightRecorderEvents.SeatUpdate event = new FlightRecorderEvents.SeatUpdate();
+        event.begin();
+        boolean updated = false;
+        try {
+            updated = applySeatUpdate(flightId, seatNumber, passenger);
+            return updated;
+        } finally {
+            Metrics.UPDATE_SEAT.recordSince(start);
+            commit(event, flightId, seatNumber, !updated ? "NOT_FOUND" : passenger == null ? "RELEASED" : "BOOKED");
+        }
+    }
 
-        if (passenger == null) {
-            seat.clearPassenger();           // AVAILABLE
-        } else {
-            seat.setPassenger(passenger);    // BOOKED
+    private boolean applySeatUpdate(String flightId, String seatNumber, Passenger passenger) {
+        long journalSize;
+        Lock lock = seatLock();
+        lock.lock();
+        try {
+            Flight f = hydrate(findFlight(flightId));
+            if (f == null) {
+                Metrics.LOOKUP_MISSES.increment();
+                return false;
+            }
+            synchronized (stripe(f)) {
+                Seat seat = f.getSeat(seatNumber);
+                if (seat == null) {
+                    Metrics.LOOKUP_MISSES.increment();
+                    return false;
+                }
+
+                if (passenger == null) {
+                    seat.clearPassenger();           // AVAILABLE
+                } else {
+                    seat.setPassenger(passenger);    // BOOKED
+                }
+                journalSize = recordSeatChange(f, List.of(seat));
+            }
+        } finally {
+            lock.unlock();
         }
-        save(); // AUTOSAVE
+        (passenger == null ? Metrics.RELEASES : Metrics.BOOKINGS).increment();
+        persistSeatChange(journalSize); // AUTOSAVE
         return true;
     }
 
+    /**
+     * Books the seat only if it is AVAILABLE: of several agents racing for one seat exactly one
+     * wins, the others get false straight away. Lock-free on the seat (compare-and-set, see
+     * Seat.tryBook) except for CompactFlight seats, which are set under the flight's stripe.
+     * Persists like updateSeat.
+     * @return true if this call booked the seat; false if taken, not found or passenger is null
+     */
+    public boolean tryBook(String flightId, String seatNumber, Passenger passenger) {
+        FlightRecorderEvents.SeatUpdate event = new FlightRecorderEvents.SeatUpdate();
+        event.begin();
+        boolean booked = passenger != null && updateSeatIf(flightId, seatNumber, seat -> seat.tryBook(passenger));
+        if (booked) Metrics.BOOKINGS.increment();
+        commit(event, flightId, seatNumber, booked ? "BOOKED" : "REJECTED");
+        return booked;
+    }
+
+    /**
+     * Releases the seat only if it is booked for a passenger equal to expectedPassenger, so an
+     * agent cannot cancel a booking someone else made in the meantime. Persists like updateSeat.
+     * @return true if this call released the seat
+     */
+    public boolean tryRelease(String flightId, String seatNumber, Passenger expectedPassenger) {
+        FlightRecorderEvents.SeatUpdate event = new FlightRecorderEvents.SeatUpdate();
+        event.begin();
+        boolean released = expectedPassenger != null
+                && updateSeatIf(flightId, seatNumber, seat -> seat.tryRelease(expectedPassenger));
+        if (released) Metrics.RELEASES.increment();
+        commit(event, flightId, seatNumber, released ? "RELEASED" : "REJECTED");
+        return released;
+    }
+
+    private static void commit(FlightRecorderEvents.SeatUpdate event, String flightId, String seatNumber, String outcome) {
+        event.end();
+        if (!event.shouldCommit()) return;
+        event.flightId = flightId;
+        event.seatNumber = seatNumber;
+        event.outcome = outcome;
+        event.commit();
+    }
+
+    /**
+     * Group booking: books every seat in bookings (seat number -> passenger) on one flight, or
+     * none of them if any seat is missing, not AVAILABLE, listed twice or has a null passenger.
+     * The whole batch is one change: one journal write / snapshot save / group commit.
+     * Seats are checked and then claimed one by one under the flight's stripe, which keeps out
+     * updateSeat, holds and other batches but not the lock-free tryBook/tryRelease. A tryBook
+     * that takes a seat between the check and its claim makes the batch fail: the seats claimed
+     * so far are released again, so lock-free readers (getSeat, counts, views) may briefly see
+     * part of the group booked, but afterwards every seat of the batch is as it was before the
+     * call. No change event is published for a failed batch.
+     * @return true if all seats were booked
+     */
+    public boolean bookSeats(String flightId, Map<String, Passenger> bookings) {
+        if (bookings == null || bookings.isEmpty()) return false;
+        boolean booked = updateSeats(flightId, f -> {
+            List<Seat> seats = new ArrayList<>(bookings.size());
+            List<Passenger> passengers = new ArrayList<>(bookings.size());
+            for (Map.Entry<String, Passenger> e : bookings.entrySet()) {
+                Seat seat = f.getSeat(e.getKey());
+                // Seat.equals ignores case, so "1a" and "1A" count as the same seat
+                if (seat == null || e.getValue() == null || seats.contains(seat)) return null;
+                if (seat.getStatus() != SeatStatus.AVAILABLE) return null; // fail before claiming anything
+                seats.add(seat);
+                passengers.add(e.getValue());
+            }
+            for (int i = 0; i < seats.size(); i++) {
+                if (!seats.get(i).tryBook(passengers.get(i))) {
+                    // Taken (possibly just now by a lock-free tryBook): undo the ones booked so far
+                    for (int j = 0; j < i; j++) seats.get(j).tryRelease(passengers.get(j));
+                    return null;
+                }
+            }
+            return seats;
+        });
+        if (booked) Metrics.BOOKINGS.add(bookings.size());
+        return booked;
+    }
+
+    /**
+     * Releases the listed seats on one flight in one change (one write), or none of them if a
+     * seat number is unknown. Seats that are already AVAILABLE are fine.
+     * @return true if the flight and every seat were found
+     */
+    public boolean releaseSeats(String flightId, Collection<String> seatNumbers) {
+        if (seatNumbers == null || seatNumbers.isEmpty()) return false;
+        return updateSeats(flightId, f -> {
+            List<Seat> seats = new ArrayList<>(seatNumbers.size());
+            for (String seatNumber : seatNumbers) {
+                Seat seat = f.getSeat(seatNumber);
+                if (seat == null) return null;
+                seats.add(seat);
+            }
+            for (Seat seat : seats) seat.clearPassenger();
+            return seats;
+        });
+    }
+
+    /** Releases every booked seat on a flight in one change (one write). False if the flight is not found. */
+    public boolean releaseAllSeats(String flightId) {
+        return updateSeats(flightId, f -> {
+            List<Seat> released = new ArrayList<>(f.bookedCount());
+            for (Seat seat : f.getSeats()) {
+                if (!seat.isBooked()) continue;
+                seat.clearPassenger();
+                released.add(seat);
+            }
+            return released;
+        });
+    }
+
     /** Convenience wrappers */
     public boolean bookSeat(String flightId, String seatNumber, Passenger passenger) {
         return updateSeat(flightId, seatNumber, passenger);
@@ -70,14 +589,160 @@ public class DatabaseService {
         return updateSeat(flightId, seatNumber, null);
     }
 
-    /** Persist current flights to disk. */
-    public boolean save() {
-        try {
-            FileStorage.write(dbPath, flights);
+    /**
+     * Holds an AVAILABLE seat for ttlMillis so nobody else can book it while an agent fills in
+     * the passenger: tryBook and other holds fail on a HELD seat (updateSeat still overrides it).
+     * Finish with bookHeld or releaseHold; otherwise the seat turns AVAILABLE again once the hold
+     * expires. Holds are not persisted, so this never writes to disk.
+     * @return the hold id (> 0), or -1 if the seat is not found, not AVAILABLE or ttlMillis <= 0
+     */
+    public long holdSeat(String flightId, String seatNumber, long ttlMillis) {
+        if (ttlMillis <= 0) return -1;
+        long now = nowMillis();
+        long id = withFlight(flightId, f -> {
+            Seat seat = f == null ? null : f.getSeat(seatNumber);
+            if (seat == null || !seat.tryHold()) return -1L;
+            publishSeats(f, List.of(seat));
+            long holdId = holdIds.incrementAndGet();
+            // Expiry takes the stripe too, so it sees this hold in the map even if it fires at once
+            holds.put(holdId, holdWheel.schedule(new Hold(holdId, f.getId(), seat.getSeatNumber()), now, ttlMillis));
+            return holdId;
+        });
+        if (id > 0) startHoldTicker();
+        return id;
+    }
+
+    /**
+     * Books the seat of a hold for passenger and ends the hold. Persists like updateSeat.
+     * @return false if the hold expired or was released, or the seat was changed meanwhile
+     */
+    public boolean bookHeld(long holdId, Passenger passenger) {
+        TimingWheel.Timeout<Hold> t = holds.get(holdId);
+        if (t == null || passenger == null) return false;
+        boolean booked = updateSeats(t.item().flightId(), f -> {
+            if (holds.remove(holdId) == null) return null; // expired or released just now
+            holdWheel.cancel(t);
+            Seat seat = f.getSeat(t.item().seatNumber());
+            return seat != null && seat.bookHeld(passenger) ? List.of(seat) : null;
+        });
+        if (booked) Metrics.BOOKINGS.increment();
+        return booked;
+    }
+
+    /** Ends a hold early, making the seat AVAILABLE again; false if it already ended. Not persisted. */
+    public boolean releaseHold(long holdId) {
+        TimingWheel.Timeout<Hold> t = holds.get(holdId);
+        if (t == null) return false;
+        return withFlight(t.item().flightId(), f -> {
+            if (holds.remove(holdId) == null) return false;
+            holdWheel.cancel(t);
+            Seat seat = f == null ? null : f.getSeat(t.item().seatNumber());
+            if (seat == null || !seat.releaseHold()) return false;
+            publishSeats(f, List.of(seat));
             return true;
-        } catch (IOException e) {
-            System.out.println("[DatabaseService] Save failed: " + e.getMessage());
-            return false;
+        });
+    }
+
+    /** Number of holds that have neither expired nor ended. */
+    public int holdCount() {
+        return holds.size();
+    }
+
+    /**
+     * Seat and flight changes as they happen, for views, metrics or replication. Each subscriber
+     * is called in order on its own (virtual) thread and has a buffer of CHANGE_BUFFER events:
+     * bookings never wait for a slow subscriber, which instead loses events and sees the gap in
+     * ChangeEvent.sequence(). Events are only numbered while someone subscribes. Completes on close().
+     */
+    public Flow.Publisher<ChangeEvent> changes() {
+        return changes::subscribe; // callers cannot submit
+    }
+
+    /**
+     * Persist current flights to disk (a full snapshot, or the changed segments of a segment
+     * directory; also clears the journal). In GROUP_COMMIT mode this also completes the pending commit.
+     */
+    public boolean save() {
+        CompletableFuture<Boolean> commit;
+        synchronized (this) {
+            commit = takePendingCommit();
+        }
+        boolean ok;
+        synchronized (ioLock) { // saves write in turn, so lastCommit ends up with the latest result
+            ok = writeSnapshot();
+            if (mode != PersistenceMode.GROUP_COMMIT) {
+                synchronized (this) {
+                    lastCommit = CompletableFuture.completedFuture(ok);
+                }
+            }
+        }
+        if (commit != null) commit.complete(ok);
+        return ok;
+    }
+
+    /**
+     * Future that completes once every change made so far is on disk (true) or the save
+     * failed (false). Already complete unless GROUP_COMMIT has changes waiting; in the other
+     * modes it holds the result of the latest save(), so a change whose save failed answers
+     * false until a later save succeeds.
+     */
+    public synchronized CompletableFuture<Boolean> whenDurable() {
+        return pendingCommit != null ? pendingCommit : lastCommit;
+    }
+
+    /**
+     * Saves pending GROUP_COMMIT changes now and waits for them; true if everything is on disk.
+     * After a failed save its changes are still pending, so flush() tries them again.
+     */
+    public boolean flush() {
+        CompletableFuture<Boolean> commit;
+        synchronized (this) {
+            if (pendingCommit != null) queueFlush();
+            commit = whenDurable();
+        }
+        return commit.join();
+    }
+
+    /**
+     * Flushes pending changes (saving again if the last save failed), stops background work
+     * (waiting for it) and closes the journal. Changes that still cannot be saved are reported
+     * to the save failure listeners and lost; whenDurable() completes false.
+     */
+    @Override
+    public void close() {
+        flush();
+        boolean retry;
+        CompletableFuture<Boolean> unsavedCommit;
+        synchronized (this) {
+            retry = unsaved && pendingCommit == null; // GROUP_COMMIT: flush() just tried
+        }
+        if (retry) save();
+        synchronized (this) {
+            unsavedCommit = takePendingCommit(); // re-armed by a failed flush: nobody will save it now
+        }
+        if (unsavedCommit != null) unsavedCommit.complete(false);
+        ScheduledExecutorService ex;
+        synchronized (this) {
+            ex = background;
+            background = null;
+            holdTicker = null; // periodic tasks stop with the executor
+        }
+        if (ex != null) {
+            ex.shutdown();
+            try {
+                ex.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        changes.close(); // subscribers get what is buffered, then onComplete
+        eventThreads.close();
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                LOG.warn("Could not close journal: " + e.getMessage());
+            }
         }
     }
 
@@ -93,60 +758,677 @@ public class DatabaseService {
      * @param startRow first row index (>=1)
      * @param endRow last row index (>= startRow)
      * @param seatLetters array of seat letters (e.g., {'A','B','C','D','E','F'})
-     * @return true if added and saved; false if validation fails or duplicate id
+     * @return true if added and saved (queued in GROUP_COMMIT mode); false if validation fails or duplicate id
      */
-    public synchronized boolean addFlight(String flightId, String flightNumber,
-                                          int startRow, int endRow, char[] seatLetters) {
+    public boolean addFlight(String flightId, String flightNumber,
+                             int startRow, int endRow, char[] seatLetters) {
+        long start = System.nanoTime();
+        try {
+            structure.writeLock().lock();
+            try {
+                if (!insertFlight(flightId, flightNumber, startRow, endRow, seatLetters)) return false;
+            } finally {
+                structure.writeLock().unlock();
+            }
+            return persistAll();
+        } finally {
+            Metrics.ADD_FLIGHT.recordSince(start);
+        }
+    }
+
+    // Caller holds the structure write lock.
+    private boolean insertFlight(String flightId, String flightNumber,
+                                 int startRow, int endRow, char[] seatLetters) {
         // Validation
         if (isBlank(flightId) || isBlank(flightNumber)) {
-            System.out.println("[DatabaseService] addFlight: missing id/number");
+            LOG.warn("addFlight: missing id/number");
             return false;
         }
         if (findFlight(flightId) != null) {
-            System.out.println("[DatabaseService] addFlight: duplicate flightId " + flightId);
+            LOG.warn("addFlight: duplicate flightId " + flightId);
             return false;
         }
         if (startRow < 1 || endRow < startRow) {
-            System.out.println("[DatabaseService] addFlight: invalid row range " + startRow + ".." + endRow);
+            LOG.warn("addFlight: invalid row range " + startRow + ".." + endRow);
             return false;
         }
         if (seatLetters == null || seatLetters.length == 0) {
-            System.out.println("[DatabaseService] addFlight: no seat letters provided");
+            LOG.warn("addFlight: no seat letters provided");
             return false;
         }
         // Limiter so someone doesn't make 10k seats by accident
         if ((long)(endRow - startRow + 1) * (long)seatLetters.length > 5000) {
-            System.out.println("[DatabaseService] addFlight: too many seats requested");
+            LOG.warn("addFlight: too many seats requested");
             return false;
         }
 
-        Flight flight = new Flight(flightId, flightNumber);
+        Flight flight = compactFlights ? new CompactFlight(flightId, flightNumber) : new Flight(flightId, flightNumber);
         generateSeats(flight, startRow, endRow, seatLetters);
         flights.add(flight);
-        return save();
+        flightIndex.put(flight.getId(), flight);
+        structureChanges++;
+        long v = version.incrementAndGet();
+        publish(ChangeEvent.Kind.FLIGHT_ADDED, flight.getId());
+        if (lazy) makeResident(flight);
+        if (segments != null) {
+            deletedFlights.remove(flight.getId());
+            dirtyFlights.put(flight.getId(), v);
+            manifestChanged = v;
+        }
+        return true;
     }
 
     /**
      * Delete a flight by id (and all its seats).
      * @return true if removed and saved; false if not found
      */
-    public synchronized boolean deleteFlight(String flightId) {
-        Flight f = findFlight(flightId);
-        if (f == null) {
-            System.out.println("[DatabaseService] deleteFlight: not found " + flightId);
-            return false;
+    public boolean deleteFlight(String flightId) {
+        long start = System.nanoTime();
+        try {
+            return removeFlight(flightId);
+        } finally {
+            Metrics.DELETE_FLIGHT.recordSince(start);
+        }
+    }
+
+    private boolean removeFlight(String flightId) {
+        structure.writeLock().lock();
+        try {
+            Flight f = findFlight(flightId);
+            if (f == null) {
+                LOG.warn("deleteFlight: not found " + flightId);
+                return false;
+            }
+            flights.remove(f);
+            flightIndex.remove(f.getId());
+            for (Flight other : flights) {
+                // ids differing only in case: the next one becomes the one findFlight returns
+                if (other.getId().equalsIgnoreCase(f.getId())) {
+                    flightIndex.put(other.getId(), other);
+                    break;
+                }
+            }
+            structureChanges++;
+            long v = version.incrementAndGet();
+            publish(ChangeEvent.Kind.FLIGHT_DELETED, f.getId());
+            if (lazy && resident.remove(f.getId()) != null) residentSeats -= f.getSeats().size();
+            if (segments != null) {
+                dirtyFlights.remove(f.getId());
+                deletedFlights.put(f.getId(), v);
+                manifestChanged = v;
+            }
+        } finally {
+            structure.writeLock().unlock();
+        }
+        return persistAll();
+    }
+
+    // Applies a conditional seat change; only the shared seat lock is held unless the seats are packed.
+    private boolean updateSeatIf(String flightId, String seatNumber, Predicate<Seat> change) {
+        long journalSize;
+        Lock lock = seatLock();
+        lock.lock();
+        try {
+            Flight f = hydrate(findFlight(flightId));
+            if (f == null) {
+                Metrics.LOOKUP_MISSES.increment();
+                return false;
+            }
+            if (f instanceof CompactFlight) {
+                synchronized (stripe(f)) {
+                    Seat seat = f.getSeat(seatNumber);
+                    if (seat == null) Metrics.LOOKUP_MISSES.increment();
+                    if (seat == null || !change.test(seat)) return false;
+                    journalSize = recordSeatChange(f, List.of(seat));
+                }
+            } else {
+                Seat seat = f.getSeat(seatNumber); // the seat index only changes under the structure write lock
+                if (seat == null) Metrics.LOOKUP_MISSES.increment();
+                if (seat == null || !change.test(seat)) return false;
+                journalSize = recordSeatChange(f, List.of(seat));
+            }
+        } finally {
+            lock.unlock();
+        }
+        persistSeatChange(journalSize);
+        return true;
+    }
+
+    /**
+     * Applies a multi-seat change to one flight under its stripe. change returns the seats it
+     * changed, or null after leaving the flight as it was; the batch is recorded and persisted once.
+     */
+    private boolean updateSeats(String flightId, Function<Flight, List<Seat>> change) {
+        long journalSize;
+        Lock lock = seatLock();
+        lock.lock();
+        try {
+            Flight f = hydrate(findFlight(flightId));
+            if (f == null) return false;
+            synchronized (stripe(f)) {
+                List<Seat> changed = change.apply(f);
+                if (changed == null) return false;
+                if (changed.isEmpty()) return true;
+                journalSize = recordSeatChange(f, changed);
+            }
+        } finally {
+            lock.unlock();
+        }
+        persistSeatChange(journalSize);
+        return true;
+    }
+
+    // ---------- persistence helpers ----------
+
+    /**
+     * Bookkeeping after a seat change: new version, dirty segment, journal record. The change is
+     * visible before the version moves, so a snapshot at this version (or later) contains it.
+     * Lock-free changes to one flight can get here out of order; merge keeps the newest version
+     * and the journal writes the seat's state as of the append, so its last record stays current.
+     */
+    private long recordSeatChange(Flight f, List<Seat> seats) {
+        long v = version.incrementAndGet();
+        if (segments != null) dirtyFlights.merge(f.getId(), v, Math::max);
+        Set<String> loading = seatChangesDuringLoad;
+        if (loading != null) loading.add(f.getId());
+        publishSeats(f, seats);
+        return appendToJournal(f, seats);
+    }
+
+    // Returns the journal size, 0 when not journaling, -1 if the append failed.
+    private long appendToJournal(Flight f, List<Seat> seats) {
+        if (journal == null) return 0;
+        try {
+            return seats.size() == 1 ? journal.append(f.getId(), seats.get(0)) : journal.appendAll(f.getId(), seats);
+        } catch (IOException e) {
+            LOG.warn("Journal append failed, saving snapshot: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    // No locks held: saving takes ioLock and the stripes.
+    private void persistSeatChange(long journalSize) {
+        if (mode == PersistenceMode.GROUP_COMMIT) {
+            synchronized (this) {
+                markDirty();
+            }
+            return;
+        }
+        if (journal == null || journalSize < 0) {
+            save();
+            return;
+        }
+        if (journalSize >= journalCompactionBytes) scheduleCompaction();
+    }
+
+    /** Structural changes (add/delete flight) are saved right away in every mode but GROUP_COMMIT. */
+    private boolean persistAll() {
+        if (mode == PersistenceMode.GROUP_COMMIT) {
+            synchronized (this) {
+                markDirty();
+            }
+            return true;
         }
-        flights.remove(f);
         return save();
     }
 
+    /**
+     * What one write persists: every flight for a single file; for a segment directory only the
+     * dirty flights, the manifest if flights were added/removed, and the deleted flight ids.
+     */
+    private record Snapshot(long version, List<Flight> flights,
+                            List<SegmentStorage.Entry> manifest, List<String> deleted) {}
+
+    /**
+     * Caller holds ioLock. Copies each flight under its stripe, so bookings elsewhere keep going.
+     * The version is read first: every change up to it is finished and lands in the copies
+     * (later ones may too, and stay dirty until the next save).
+     */
+    private Snapshot captureSnapshot() {
+        structure.readLock().lock();
+        try {
+            long v = version.get();
+            if (segments == null) {
+                return new Snapshot(v, copyFlights(), null, List.of());
+            }
+            List<Flight> changed = new ArrayList<>(dirtyFlights.size());
+            for (String id : dirtyFlights.keySet()) {
+                Flight f = findFlight(id);
+                if (f != null) changed.add(copyOf(f));
+            }
+            List<SegmentStorage.Entry> manifest = manifestChanged > manifestSaved ? SegmentStorage.entries(flights) : null;
+            return new Snapshot(v, changed, manifest, new ArrayList<>(deletedFlights.keySet()));
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    // Caller holds ioLock. Forgets segment changes the snapshot put on disk; later ones stay dirty.
+    private void markClean(Snapshot snapshot) {
+        if (segments == null) return;
+        long v = snapshot.version();
+        Set<String> written = new HashSet<>();
+        for (Flight f : snapshot.flights()) written.add(f.getId());
+        // A flight marked dirty (at <= v) after the capture read the dirty set is not in this snapshot
+        dirtyFlights.entrySet().removeIf(e -> e.getValue() <= v && written.contains(e.getKey()));
+        deletedFlights.values().removeIf(deleted -> deleted <= v);
+        if (snapshot.manifest() != null) manifestSaved = Math.max(manifestSaved, v);
+        if (lazy) {
+            structure.writeLock().lock();
+            try {
+                evict(null); // saved flights may be dropped now
+            } finally {
+                structure.writeLock().unlock();
+            }
+        }
+    }
+
+    // Caller holds ioLock and the structure write lock. The directory was just read, so nothing is dirty -- except flights a
+    // journal replay changed, which are not in their segments yet.
+    private void reloadSegments() {
+        dirtyFlights.clear();
+        deletedFlights.clear();
+        manifestChanged = manifestSaved = -1;
+        try {
+            segments.refresh();
+        } catch (IOException e) {
+            LOG.warn("Could not read segment manifest: " + e.getMessage());
+        }
+        List<Flight> journaled = new ArrayList<>();
+        for (String id : SeatJournal.flightIds(dbPath)) {
+            Flight f = findFlight(id);
+            if (f != null) journaled.add(f);
+        }
+        if (lazy && !journaled.isEmpty()) {
+            // FileStorage.read replays the journal in eager mode; here only its flights are loaded
+            for (Flight f : journaled) hydrate(f);
+            int replayed = SeatJournal.replay(dbPath, journaled);
+            LOG.info(() -> "Replayed " + replayed + " journal records for " + dbPath);
+        }
+        for (Flight f : journaled) dirtyFlights.put(f.getId(), version.get());
+    }
+
+    // ---------- lazy mode ----------
+
+    // No locks needed. Flight stubs from the manifest (seats are read by hydrate()); null if it has none.
+    private List<Flight> readIndex() {
+        List<SegmentStorage.Entry> index;
+        try {
+            index = SegmentStorage.readManifest(Path.of(dbPath));
+        } catch (IOException e) {
+            LOG.warn("Could not read segment manifest: " + e.getMessage());
+            index = List.of();
+        }
+        if (index.isEmpty()) {
+            return null; // new or damaged directory: FileStorage rebuilds it; everything is in memory anyway
+        }
+        Map<String, Flight> seen = new LinkedHashMap<>();
+        for (SegmentStorage.Entry e : index) {
+            seen.putIfAbsent(e.flightId(), new Flight(e.flightId(), e.flightNumber()));
+        }
+        List<Flight> stubs = new ArrayList<>(seen.values());
+        LOG.info(() -> "Indexed " + stubs.size() + " flights from " + dbPath);
+        return stubs;
+    }
+
+    // Caller holds the seat lock (exclusive in lazy mode). Makes sure f's seats are in memory (no-op outside lazy mode).
+    private Flight hydrate(Flight f) {
+        if (!lazy || f == null || resident.get(f.getId()) != null) return f; // get() marks it recently used
+        long start = System.nanoTime();
+        FlightRecorderEvents.FileLoad event = new FlightRecorderEvents.FileLoad();
+        event.begin();
+        Flight loaded = segments.readFlight(f.getId());
+        Metrics.LOAD.recordSince(start);
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = dbPath;
+            event.format = FileStorage.SEGMENTS;
+            event.flights = loaded == null ? 0 : 1;
+            event.rowsParsed = loaded == null ? 0 : loaded.getSeats().size();
+            event.commit();
+        }
+        f.replaceSeats(loaded == null ? List.of() : loaded.getSeats());
+        makeResident(f);
+        return f;
+    }
+
+    // Caller holds the structure write lock.
+    private void makeResident(Flight f) {
+        resident.put(f.getId(), f);
+        residentSeats += f.getSeats().size();
+        evict(f);
+    }
+
+    // Caller holds the structure write lock. Drops least recently used saved flights until the budget holds (keeps keep).
+    private void evict(Flight keep) {
+        Iterator<Flight> it = resident.values().iterator();
+        while (residentSeats > residentSeatBudget && it.hasNext()) {
+            Flight f = it.next();
+            if (f == keep || dirtyFlights.containsKey(f.getId()) || f.heldCount() > 0) continue; // holds are memory-only
+            residentSeats -= f.getSeats().size();
+            f.replaceSeats(List.of());
+            it.remove();
+        }
+    }
+
+    /** Seats currently held in memory in lazy mode (0 when loading eagerly). */
+    long residentSeatCount() {
+        structure.readLock().lock();
+        try {
+            return residentSeats;
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Captures and writes one snapshot (only the changed segments for a directory). In JOURNALED
+     * mode the journal is rolled first, so records appended meanwhile go to the new log, and the
+     * rolled part is dropped once the snapshot holding its changes is on disk.
+     * @return true if the disk holds the snapshot
+     */
+    private boolean writeSnapshot() {
+        synchronized (ioLock) {
+            try {
+                if (journal != null) journal.roll();
+            } catch (IOException e) {
+                LOG.warn("Could not roll journal: " + e.getMessage());
+                saveFailed(e);
+                return false;
+            }
+            Snapshot snapshot = captureSnapshot();
+            try {
+                if (segments != null) {
+                    writeSegments(snapshot); // single files: FileStorage.write times and records itself
+                } else if (snapshot.version() >= writtenVersion) {
+                    FileStorage.write(dbPath, snapshot.flights(), storageFormat);
+                    writtenVersion = snapshot.version();
+                }
+            } catch (IOException e) {
+                LOG.error("Save failed", e);
+                saveFailed(e);
+                return false;
+            }
+            markClean(snapshot);
+            snapshotsWritten++;
+            try {
+                // Replayed records are in the snapshot now; keeping them would replay stale states later
+                if (journal != null) {
+                    journal.deleteRolled();
+                } else if (leftoverJournal) {
+                    new SeatJournal(dbPath).reset();
+                    leftoverJournal = false;
+                }
+            } catch (IOException e) {
+                LOG.warn("Could not clear journal: " + e.getMessage());
+                saveFailed(e);
+                return false;
+            }
+            synchronized (this) {
+                unsaved = false;
+            }
+            return true;
+        }
+    }
+
+    // Caller holds ioLock. One Metrics.SAVE sample and FileSave event for all the segments written.
+    private void writeSegments(Snapshot snapshot) throws IOException {
+        long start = System.nanoTime();
+        FlightRecorderEvents.FileSave event = new FlightRecorderEvents.FileSave();
+        event.begin();
+        long syncTime = 0;
+        try {
+            syncTime = segments.write(snapshot.flights(), snapshot.manifest(), snapshot.deleted(),
+                    storageFormat, snapshot.version());
+        } finally {
+            Metrics.SAVE.recordSince(start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = dbPath;
+                event.format = FileStorage.SEGMENTS;
+                event.flights = snapshot.flights().size();
+                for (Flight f : snapshot.flights()) event.seats += f.getSeats().size();
+                event.syncTime = syncTime;
+                event.commit();
+            }
+        }
+    }
+
+    // Caller holds the structure lock.
+    private List<Flight> copyFlights() {
+        List<Flight> copy = new ArrayList<>(flights.size());
+        for (Flight f : flights) copy.add(copyOf(f));
+        return copy;
+    }
+
+    private Flight copyOf(Flight f) {
+        synchronized (stripe(f)) {
+            return f.copy();
+        }
+    }
+
+    private synchronized ScheduledExecutorService background() {
+        if (background == null) {
+            background = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "nua-db-writer");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return background;
+    }
+
+    private synchronized void scheduleCompaction() {
+        if (!compacting.compareAndSet(false, true)) return;
+        background().execute(this::compactJournal);
+    }
+
+    /** Folds the journal into a fresh snapshot; bookings keep going meanwhile (see writeSnapshot). */
+    void compactJournal() {
+        try {
+            if (!writeSnapshot()) LOG.warn("Journal compaction failed");
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    // Ticks the hold wheel on the background thread until no hold is left (see expireHolds).
+    private synchronized void startHoldTicker() {
+        if (holdTicker != null) return;
+        holdTicker = background().scheduleAtFixedRate(() -> expireHolds(nowMillis()),
+                HOLD_TICK_MS, HOLD_TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Makes the seats of holds due by nowMillis (see nowMillis()) AVAILABLE again; returns how
+     * many expired. Only the wheel buckets of the elapsed ticks are visited.
+     */
+    int expireHolds(long nowMillis) {
+        int expired = 0;
+        for (Hold h : holdWheel.advance(nowMillis)) {
+            boolean released = withFlight(h.flightId(), f -> {
+                if (holds.remove(h.id()) == null) return false; // booked or released meanwhile
+                Seat seat = f == null ? null : f.getSeat(h.seatNumber());
+                if (seat == null || !seat.releaseHold()) return false;
+                publishSeats(f, List.of(seat));
+                return true;
+            });
+            if (released) expired++;
+        }
+        synchronized (this) {
+            // holdSeat adds its hold before starting the ticker, so none is left without one
+            if (holds.isEmpty() && holdTicker != null) {
+                holdTicker.cancel(false);
+                holdTicker = null;
+            }
+        }
+        return expired;
+    }
+
+    /** Clock for hold expiry: monotonic milliseconds (System.nanoTime based). */
+    static long nowMillis() {
+        return System.nanoTime() / 1_000_000;
+    }
+
+    /**
+     * A save failed, so what it was writing is only in memory. GROUP_COMMIT re-arms a pending
+     * commit (no save is scheduled for it: the next change, flush() or close() saves again);
+     * close() retries in every mode.
+     */
+    private synchronized void keepDirty() {
+        unsaved = true;
+        if (mode == PersistenceMode.GROUP_COMMIT && pendingCommit == null) pendingCommit = new CompletableFuture<>();
+    }
+
+    // Caller holds this. Starts a commit for the change just made and schedules its save.
+    private void markDirty() {
+        if (pendingCommit == null) pendingCommit = new CompletableFuture<>();
+        pendingChanges++;
+        if (pendingChanges >= groupCommitMaxPending) {
+            queueFlush();
+        } else if (scheduledFlush == null && !flushQueued) {
+            scheduledFlush = background().schedule(this::flushPending, groupCommitWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Caller holds this. Asks the writer to save now instead of at the end of the window.
+    private void queueFlush() {
+        if (flushQueued) return;
+        flushQueued = true;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        background().execute(this::flushPending);
+    }
+
+    // Caller holds this. Detaches the pending commit so a save can complete it.
+    private CompletableFuture<Boolean> takePendingCommit() {
+        CompletableFuture<Boolean> commit = pendingCommit;
+        if (commit != null) {
+            pendingCommit = null;
+            pendingChanges = 0;
+            flushQueued = false;
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            lastCommit = commit;
+        }
+        return commit;
+    }
+
+    /** Group-commit writer: one snapshot for every change made since the last one. */
+    private void flushPending() {
+        CompletableFuture<Boolean> commit;
+        synchronized (this) {
+            commit = takePendingCommit();
+            if (commit == null) return; // already saved by an explicit save()
+        }
+        // Changes made before the take above are in memory already, so the snapshot holds them
+        commit.complete(writeSnapshot());
+    }
+
+    /**
+     * Called with the error whenever a save fails, including background saves (GROUP_COMMIT
+     * writer, journal compaction) that no caller waits for. Runs on the saving thread while the
+     * save lock is held: hand off (e.g. SwingUtilities.invokeLater), don't call back in.
+     * Unsaved changes stay in memory (in GROUP_COMMIT still pending); the next save (after another
+     * change, save(), flush() or close()) retries them.
+     */
+    public void addSaveFailureListener(Consumer<IOException> listener) {
+        if (listener != null) saveFailureListeners.add(listener);
+    }
+
+    private void saveFailed(IOException e) {
+        Metrics.SAVE_FAILURES.increment();
+        keepDirty();
+        for (Consumer<IOException> l : saveFailureListeners) {
+            try {
+                l.accept(e);
+            } catch (RuntimeException ex) {
+                LOG.error("Save failure listener failed", ex);
+            }
+        }
+    }
+
+    // ---------- change events ----------
+
+    // Publishes the seats' state as it is now. Reading it under eventLock keeps the last event per
+    // seat current even when lock-free changes to one seat publish out of order (cf. the journal).
+    private void publishSeats(Flight f, List<Seat> seats) {
+        if (!changes.hasSubscribers()) return;
+        synchronized (eventLock) {
+            for (Seat s : seats) {
+                offer(new ChangeEvent(++eventSequence, ChangeEvent.Kind.SEAT, f.getId(), s.getSeatNumber(),
+                        s.getStatus(), s.getPassenger()));
+            }
+        }
+    }
+
+    private void publish(ChangeEvent.Kind kind, String flightId) {
+        if (!changes.hasSubscribers()) return;
+        synchronized (eventLock) {
+            offer(new ChangeEvent(++eventSequence, kind, flightId, null, null, null));
+        }
+    }
+
+    // Caller holds eventLock. Never blocks: a subscriber with a full buffer just misses the event.
+    private void offer(ChangeEvent event) {
+        try {
+            changes.offer(event, (subscriber, dropped) -> false);
+        } catch (IllegalStateException closed) {
+            // change after close(): nobody is listening any more
+        }
+    }
+
     // ---------- helpers ----------
-    private Flight findFlight(String flightId) {
-        if (flightId == null) return null;
-        for (Flight f : flights) {
-            if (flightId.equalsIgnoreCase(f.getId())) return f;
+
+    // Seat operations hold this (shared) while they use a flight. Lazy mode makes it exclusive:
+    // loading one flight's seats may evict another's.
+    private Lock seatLock() {
+        return lazy ? structure.writeLock() : structure.readLock();
+    }
+
+    // Lock for f's seats; ids equal ignoring case share one.
+    private Object stripe(Flight f) {
+        int h = IgnoreCaseIndex.hash(f.getId()) * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    // Runs action on the flight (null if not found) holding the seat lock and the flight's stripe.
+    private <T> T withFlight(String flightId, Function<Flight, T> action) {
+        Lock lock = seatLock();
+        lock.lock();
+        try {
+            Flight f = hydrate(findFlight(flightId));
+            if (f == null) return action.apply(null);
+            synchronized (stripe(f)) {
+                return action.apply(f);
+            }
+        } finally {
+            lock.unlock();
         }
-        return null;
+    }
+
+    // Caller holds the structure write lock. Converts f to the configured seat representation.
+    private Flight adopt(Flight f) {
+        if (compactFlights) return f instanceof CompactFlight ? f : CompactFlight.of(f);
+        if (!(f instanceof CompactFlight)) return f;
+        Flight plain = new Flight(f.getId(), f.getFlightNumber());
+        for (Seat s : f.getSeats()) plain.addSeat(s.copy());
+        return plain;
+    }
+
+    // Caller holds the structure write lock. First flight per id (ignoring case), like a scan of the list would find.
+    private void reindexFlights() {
+        flightIndex = new IgnoreCaseIndex<>(flights.size());
+        for (Flight f : flights) flightIndex.putIfAbsent(f.getId(), f);
+    }
+
+    // Caller holds the structure lock.
+    private Flight findFlight(String flightId) {
+        return flightIndex.get(flightId); // case-insensitive, first match in list order
     }
 
     private void generateSeats(Flight flight, int startRow, int endRow, char[] seatLetters) {
@@ -1,14 +1,20 @@
 package airlines;
 
-import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.lang.System.Logger.Level;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
 
 /**
- * FileStorage - Handles reading and initializing the local CSV database.
+ * FileStorage - Handles reading and initializing the local database file.
+ * Reads and writes the v1 CSV below as well as the binary v2 snapshot (see BinaryStorage);
+ * read() detects the format from the file header. A directory path holds one segment file
+ * per flight plus a manifest (see SegmentStorage); importToSegments() converts a single file.
  *
  * V1 header:
  *   # NUA-DB v1 | flightId,flightNumber,seatNumber,status,firstName,lastName,dateOfBirth
@@ -21,93 +27,122 @@ public final class FileStorage {
     private static final String V1_HEADER =
             "# NUA-DB v1 | flightId,flightNumber,seatNumber,status,firstName,lastName,dateOfBirth";
 
+    private static final Log LOG = Log.get(FileStorage.class);
+
+    /** Malformed rows logged one by one per read; the rest are only counted. */
+    static final int MALFORMED_ROWS_LOGGED = 20;
+
+    /** Format recorded in FileLoad/FileSave events for a segment directory. */
+    static final String SEGMENTS = "SEGMENTS";
+
     private FileStorage() {}
 
     /**
-     * Reads the local database file. If it doesn't exist, auto-creates it with default
+     * Reads the local database file (v1 CSV or v2 binary). If it doesn't exist, auto-creates it with default
      * sample flights and returns those. Accepts legacy files (no header or old header),
      * CRLF/LF line endings, and UTF-8 BOM. Skips malformed rows safely.
+     * Parsing is done by MappedCsvReader (memory-mapped, no per-row split/trim garbage).
+     * Seat changes recorded in a journal next to the file (see SeatJournal) are applied on top.
+     * A directory path is read as a segmented database (see SegmentStorage).
+     * Timed in Metrics.LOAD and recorded as an airlines.FileLoad JFR event.
      */
     public static List<Flight> read(String path) {
+        long start = System.nanoTime();
+        FlightRecorderEvents.FileLoad event = new FlightRecorderEvents.FileLoad();
+        event.begin();
+        List<Flight> flights = List.of();
+        try {
+            flights = load(path, event);
+            return flights;
+        } finally {
+            Metrics.LOAD.recordSince(start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = path;
+                event.flights = flights.size();
+                event.commit();
+            }
+        }
+    }
+
+    private static List<Flight> load(String path, FlightRecorderEvents.FileLoad event) {
         Path p = Path.of(path);
 
         // If file does not exist, create with defaults (v1 header) and return them.
         if (!Files.exists(p)) {
-            System.out.println("[FileStorage] " + path + " not found. Creating default database...");
+            LOG.info(() -> path + " not found. Creating default database...");
             List<Flight> defaults = defaultFlights();
             try {
                 write(p.toString(), defaults);
             } catch (IOException e) {
-                System.out.println("[FileStorage] Error creating default file: " + e.getMessage());
+                LOG.warn("Error creating default file: " + e.getMessage());
             }
             return defaults;
         }
 
-        Map<String, Flight> flightsById = new LinkedHashMap<>();
-
-        try (BufferedReader br = Files.newBufferedReader(p, StandardCharsets.UTF_8)) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                // Strip UTF-8 BOM if present on the very first line
-                if (!line.isEmpty() && line.charAt(0) == '\uFEFF') {
-                    line = line.substring(1);
-                }
-
-                String raw = line;
-                if (raw.isBlank() || raw.startsWith("#")) {
-                    // Accept any comment/header line (legacy or v1). We don't parse version for logic.
-                    continue;
-                }
-
-                String[] cols = raw.split(",", -1); // keep empty fields
-                if (cols.length != 7) {
-                    System.out.println("[FileStorage] Skipping malformed row (wrong column count): " + raw);
-                    continue;
-                }
-
-                String flightId     = cols[0].trim();
-                String flightNumber = cols[1].trim();
-                String seatNumber   = cols[2].trim();
-                String statusStr    = cols[3].trim().toUpperCase(Locale.ROOT);
-                String firstName    = cols[4].trim();
-                String lastName     = cols[5].trim();
-                String dob          = cols[6].trim();
-
-                // Required fields
-                if (flightId.isEmpty() || flightNumber.isEmpty() || seatNumber.isEmpty()) {
-                    System.out.println("[FileStorage] Skipping malformed row (missing required fields): " + raw);
-                    continue;
-                }
-                // Status must be one of the two
-                if (!"AVAILABLE".equals(statusStr) && !"BOOKED".equals(statusStr)) {
-                    System.out.println("[FileStorage] Skipping malformed row (invalid status): " + raw);
-                    continue;
-                }
-
-                Flight flight = flightsById.computeIfAbsent(flightId, id -> new Flight(id, flightNumber));
-                Seat seat = "BOOKED".equals(statusStr)
-                        ? new Seat(seatNumber, new Passenger(firstName, lastName, dob))
-                        : new Seat(seatNumber);
-                flight.addSeat(seat);
-            }
+        Map<String, Flight> flightsById;
+        try {
+            flightsById = parse(p, event);
         } catch (IOException e) {
-            System.out.println("[FileStorage] Error reading file, using defaults: " + e.getMessage());
+            LOG.warn("Error reading file, using defaults: " + e.getMessage());
             return defaultFlights();
         }
 
         if (flightsById.isEmpty()) {
-            System.out.println("[FileStorage] File empty or invalid. Rebuilding with defaults.");
+            LOG.warn("File empty or invalid. Rebuilding with defaults.");
             List<Flight> defaults = defaultFlights();
             try {
                 write(p.toString(), defaults); // also normalizes header to v1
             } catch (IOException e) {
-                System.out.println("[FileStorage] Could not rebuild file: " + e.getMessage());
+                LOG.warn("Could not rebuild file: " + e.getMessage());
             }
             return defaults;
         }
 
-        System.out.println("[FileStorage] Loaded " + flightsById.size() + " flights from " + path);
-        return new ArrayList<>(flightsById.values());
+        List<Flight> flights = new ArrayList<>(flightsById.values());
+        int replayed = SeatJournal.replay(path, flights);
+        if (replayed > 0) {
+            LOG.info(() -> "Replayed " + replayed + " journal records for " + path);
+        }
+
+        LOG.info(() -> "Loaded " + flights.size() + " flights from " + path);
+        return flights;
+    }
+
+    /** Flights in one database file or segment directory, without defaults or journal replay. */
+    static Map<String, Flight> parse(Path p) throws IOException {
+        return parse(p, null);
+    }
+
+    // Fills in the event's row and byte counts when it is being recorded.
+    private static Map<String, Flight> parse(Path p, FlightRecorderEvents.FileLoad event) throws IOException {
+        boolean record = event != null && event.isEnabled();
+        if (Files.isDirectory(p) || BinaryStorage.isBinary(p)) {
+            boolean segments = Files.isDirectory(p);
+            Map<String, Flight> flights = segments ? SegmentStorage.readAll(p) : BinaryStorage.read(p);
+            if (record) {
+                event.format = segments ? SEGMENTS : StorageFormat.V2_BINARY.name();
+                for (Flight f : flights.values()) event.rowsParsed += f.getSeats().size();
+                if (!segments) event.bytes = Files.size(p);
+            }
+            return flights;
+        }
+        MappedCsvReader.Chunk parsed = MappedCsvReader.read(p);
+        if (!parsed.problems.isEmpty()) {
+            // A damaged file can have thousands of bad rows: log a few, count the rest
+            try (Log.Limiter malformed = LOG.limit(Level.WARNING, MALFORMED_ROWS_LOGGED, "malformed rows skipped in " + p)) {
+                for (MappedCsvReader.Problem problem : parsed.problems) {
+                    malformed.log(() -> "Skipping malformed row " + problem);
+                }
+            }
+        }
+        if (record) {
+            event.format = StorageFormat.V1_CSV.name();
+            event.rowsParsed = parsed.rows;
+            event.rowsSkipped = parsed.skipped;
+            event.bytes = parsed.bytes;
+        }
+        return parsed.flights;
     }
 
     /**
@@ -115,27 +150,144 @@ public final class FileStorage {
      * Any legacy file read earlier will be upgraded to v1 on the next write.
      */
     public static void write(String path, List<Flight> flights) throws IOException {
-        List<String> lines = new ArrayList<>(1 + Math.max(0, flights.size() * 8));
-        lines.add(V1_HEADER);
-
-        for (Flight f : flights) {
-            for (Seat s : f.getSeats()) {
-                Passenger p = s.getPassenger();
-                String first = p != null ? p.getFirstName() : "";
-                String last  = p != null ? p.getLastName()  : "";
-                String dob   = p != null ? p.getDateOfBirth(): "";
-                lines.add(String.join(",",
-                        f.getId(),
-                        f.getFlightNumber(),
-                        s.getSeatNumber(),
-                        s.getStatus().name(),
-                        first, last, dob));
+        write(path, flights, StorageFormat.V1_CSV);
+    }
+
+    /**
+     * Writes flights in the requested format (null = v1 CSV).
+     * The file is written to a temp sibling first and moved into place, so readers never
+     * see a half-written snapshot. A directory path is rewritten as one segment per flight.
+     * Timed in Metrics.SAVE and recorded as an airlines.FileSave JFR event.
+     */
+    public static void write(String path, List<Flight> flights, StorageFormat format) throws IOException {
+        long start = System.nanoTime();
+        FlightRecorderEvents.FileSave event = new FlightRecorderEvents.FileSave();
+        event.begin();
+        long syncTime = 0;
+        try {
+            syncTime = writeFile(path, flights, format);
+        } finally {
+            Metrics.SAVE.recordSince(start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = path;
+                event.format = Files.isDirectory(Path.of(path)) ? SEGMENTS
+                        : format == StorageFormat.V2_BINARY ? format.name() : StorageFormat.V1_CSV.name();
+                event.syncTime = syncTime;
+                event.flights = flights.size();
+                for (Flight f : flights) event.seats += f.getSeats().size();
+                try {
+                    if (Files.isRegularFile(Path.of(path))) event.bytes = Files.size(Path.of(path));
+                } catch (IOException ignored) {
+                    // size is only informational
+                }
+                event.commit();
             }
         }
+    }
 
-        // Always write UTF-8; Files.write preserves LF when writing strings.
-        Files.write(Path.of(path), lines, StandardCharsets.UTF_8);
-        System.out.println("[FileStorage] Saved " + flights.size() + " flights to " + path + " (v1)");
+    /**
+     * Writes one segment file of a directory save (temp file + move, like write). Not timed or
+     * recorded on its own: the directory save it is part of is, once.
+     * @return nanoseconds the move into place took
+     */
+    static long writeSegment(Path file, Flight flight, StorageFormat format) throws IOException {
+        return writeFile(file.toString(), List.of(flight), format);
+    }
+
+    // Returns the time spent moving written files into place.
+    private static long writeFile(String path, List<Flight> flights, StorageFormat format) throws IOException {
+        boolean binary = format == StorageFormat.V2_BINARY;
+        Path target = Path.of(path);
+        if (Files.isDirectory(target)) {
+            long syncTime = SegmentStorage.writeAll(target, flights, format);
+            LOG.info(() -> "Saved " + flights.size() + " flights to segments in " + path);
+            return syncTime;
+        }
+        Path tmp = Path.of(path + ".tmp");
+        if (binary) {
+            BinaryStorage.write(tmp, flights);
+        } else {
+            writeV1(tmp, flights);
+        }
+        long sync = System.nanoTime();
+        replaceAtomically(tmp, target);
+        long syncTime = System.nanoTime() - sync;
+        LOG.info(() -> "Saved " + flights.size() + " flights to " + path + (binary ? " (v2)" : " (v1)"));
+        return syncTime;
+    }
+
+    /**
+     * Format of an existing database file; V1_CSV when missing or not a v2 snapshot.
+     * For a segment directory this is the format of its first segment.
+     */
+    public static StorageFormat detectFormat(String path) {
+        Path p = Path.of(path);
+        try {
+            if (Files.isDirectory(p)) {
+                List<SegmentStorage.Entry> entries = SegmentStorage.readManifest(p);
+                if (entries.isEmpty()) return StorageFormat.V1_CSV;
+                p = p.resolve(entries.get(0).file());
+            }
+            if (Files.isRegularFile(p) && BinaryStorage.isBinary(p)) return StorageFormat.V2_BINARY;
+        } catch (IOException e) {
+            LOG.warn("Could not inspect " + path + ": " + e.getMessage());
+        }
+        return StorageFormat.V1_CSV;
+    }
+
+    /** Rewrites the database at source into target using the given format. */
+    public static void convert(String source, String target, StorageFormat format) throws IOException {
+        write(target, read(source), format);
+    }
+
+    /**
+     * Imports a single-file database (e.g. database.txt, v1 or v2, journal applied) into a
+     * segment directory with one file per flight. The directory is created if needed and
+     * any flights already in it are replaced.
+     */
+    public static void importToSegments(String source, String targetDir, StorageFormat format) throws IOException {
+        Path dir = Path.of(targetDir);
+        if (Files.exists(dir) && !Files.isDirectory(dir)) {
+            throw new IOException("Not a directory: " + targetDir);
+        }
+        Files.createDirectories(dir);
+        write(targetDir, read(source), format);
+    }
+
+    // Streams rows instead of building every line in memory first.
+    private static void writeV1(Path p, List<Flight> flights) throws IOException {
+        try (BufferedWriter w = Files.newBufferedWriter(p, StandardCharsets.UTF_8)) {
+            w.write(V1_HEADER);
+            w.write('\n');
+            for (Flight f : flights) {
+                for (Seat s : f.getSeats()) {
+                    Passenger pax = s.getPassenger();
+                    w.write(f.getId());
+                    w.write(',');
+                    w.write(f.getFlightNumber());
+                    w.write(',');
+                    w.write(s.getSeatNumber());
+                    w.write(',');
+                    w.write(s.persistedStatus().name());
+                    w.write(',');
+                    w.write(pax != null ? pax.getFirstName() : "");
+                    w.write(',');
+                    w.write(pax != null ? pax.getLastName() : "");
+                    w.write(',');
+                    w.write(pax != null ? pax.getDateOfBirth() : "");
+                    w.write('\n');
+                }
+            }
+        }
+    }
+
+    static void replaceAtomically(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
     /** Default dataset used when file is missing or invalid. */
@@ -1,7 +1,12 @@
 package airlines;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 
 /**
@@ -9,11 +14,33 @@ import java.util.Objects;
  * - id: stable identifier for the flight (e.g., "F001")
  * - flightNumber: display number (e.g., "NU100")
  * - seats: list of Seat objects (Issue #3 will flesh out Seat)
+ * - getSeat is an O(1) case-insensitive lookup backed by an index kept in sync with the list
+ * - availability is a bitmap (bit i = seat i AVAILABLE) plus a second one for HELD seats, with
+ *   counts; seats report their status changes back here, so counts are O(1) and nextAvailable
+ *   scans 64 seats a step
  */
 public class Flight {
+    private static final VarHandle BITS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle UNAVAILABLE;
+    private static final VarHandle HELD;
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            UNAVAILABLE = lookup.findVarHandle(Flight.class, "unavailable", int.class);
+            HELD = lookup.findVarHandle(Flight.class, "held", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     private final String id;
     private String flightNumber;
-    private final List<Seat> seats;
+    private final ArrayList<Seat> seats;
+    private IgnoreCaseIndex<Seat> seatIndex = new IgnoreCaseIndex<>(); // first seat per number
+    private long[] availableBits = new long[1]; // bit i set = seats.get(i) is AVAILABLE
+    private long[] heldBits = new long[1];      // bit i set = seats.get(i) is HELD
+    private volatile int unavailable;           // clear bits in availableBits (BOOKED + HELD)
+    private volatile int held;                  // set bits in heldBits
 
     /**
      * Create a Flight with no seats yet (can add later with addSeat()).
@@ -37,7 +64,7 @@ public class Flight {
     public Flight(String id, String flightNumber, List<Seat> initialSeats) {
         this(id, flightNumber);
         if (initialSeats != null) {
-            this.seats.addAll(initialSeats);
+            for (Seat s : initialSeats) addSeat(s);
         }
     }
 
@@ -68,25 +95,169 @@ public class Flight {
 
     public void addSeat(Seat seat) {
         if (seat == null) return;
+        int i = seats.size();
         seats.add(seat);
+        seat.attach(this, i);
+        if ((i >>> 6) == availableBits.length) {
+            availableBits = Arrays.copyOf(availableBits, availableBits.length << 1);
+            heldBits = Arrays.copyOf(heldBits, heldBits.length << 1);
+        }
+        SeatStatus status = seat.getStatus();
+        if (status != SeatStatus.AVAILABLE) unavailable++;
+        if (status == SeatStatus.HELD) held++;
+        setBits(i, status);
+        seatIndex.putIfAbsent(seat.getSeatNumber(), seat);
     }
 
     public boolean removeSeat(Seat seat) {
-        return seats.remove(seat);
+        int i = seats.indexOf(seat);
+        if (i < 0) return false;
+        Seat removed = seats.remove(i);
+        removed.attach(null, 0);
+        SeatStatus status = removed.getStatus();
+        if (status != SeatStatus.AVAILABLE) unavailable--;
+        if (status == SeatStatus.HELD) held--;
+        // Later seats move down one slot: renumber them and shift their bits along
+        for (int j = i; j < seats.size(); j++) {
+            Seat s = seats.get(j);
+            s.attach(this, j);
+            setBits(j, s.getStatus());
+        }
+        setBits(seats.size(), null);
+        if (seatIndex.get(removed.getSeatNumber()) == removed) {
+            // A duplicate number further down the list becomes the one getSeat returns
+            seatIndex.remove(removed.getSeatNumber());
+            for (int j = i; j < seats.size(); j++) {
+                if (seats.get(j).equals(removed)) {
+                    seatIndex.put(seats.get(j).getSeatNumber(), seats.get(j));
+                    break;
+                }
+            }
+        }
+        return true;
     }
 
     /**
-     * Simple helper to find a seat by its seatNumber (e.g., "12A").
-     * Returns null if not found.
+     * Simple helper to find a seat by its seatNumber (e.g., "12A"), ignoring case.
+     * Returns null if not found; with duplicate numbers, the first one in the list.
      */
     public Seat getSeat(String seatNumber) {
-        if (seatNumber == null) return null;
-        for (Seat s : seats) {
-            if (seatNumber.equalsIgnoreCase(s.getSeatNumber())) {
+        return seatNumber == null ? null : seatIndex.get(seatNumber);
+    }
+
+    // --------- Availability ---------
+
+    /** Number of AVAILABLE seats; O(1). */
+    public int availableCount() {
+        return getSeats().size() - unavailable;
+    }
+
+    /** Number of BOOKED seats; O(1). */
+    public int bookedCount() {
+        return unavailable - held;
+    }
+
+    /** Number of HELD seats; O(1). */
+    public int heldCount() {
+        return held;
+    }
+
+    /**
+     * Index (in getSeats() order) of the first AVAILABLE seat at or after fromIndex,
+     * or -1 if there is none. Skips fully booked/held stretches a 64-seat word at a time.
+     */
+    public int nextAvailable(int fromIndex) {
+        int n = seats.size();
+        if (fromIndex < 0) fromIndex = 0;
+        if (fromIndex >= n) return -1;
+        int w = fromIndex >>> 6;
+        long word = availableBits[w] & (-1L << fromIndex);
+        int last = (n - 1) >>> 6;
+        while (word == 0) {
+            if (++w > last) return -1;
+            word = availableBits[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word); // bits past the last seat are always clear
+    }
+
+    /** The AVAILABLE seats in seat order, found through nextAvailable (other seats are never visited). */
+    public Iterable<Seat> availableSeats() {
+        return () -> new Iterator<>() {
+            private final List<Seat> all = getSeats();
+            private int next = nextAvailable(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public Seat next() {
+                if (next < 0) throw new NoSuchElementException();
+                Seat s = all.get(next);
+                next = nextAvailable(next + 1);
                 return s;
             }
-        }
-        return null;
+        };
+    }
+
+    /**
+     * Called by an attached Seat after its status was set; keeps the bitmaps and counts in step.
+     * Seat.tryBook/tryRelease/tryHold call this without a lock, so two changes to one seat can
+     * arrive out of order: the bits are set from the seat's current status, with atomic word
+     * updates, and set again if the status moved meanwhile. Each bit flip is counted exactly once.
+     */
+    void seatChanged(int index, Seat seat) {
+        SeatStatus status;
+        do {
+            status = seat.getStatus();
+            int flip = flip(availableBits, index, status == SeatStatus.AVAILABLE);
+            if (flip != 0) UNAVAILABLE.getAndAdd(this, -flip);
+            flip = flip(heldBits, index, status == SeatStatus.HELD);
+            if (flip != 0) HELD.getAndAdd(this, flip);
+        } while (seat.getStatus() != status);
+    }
+
+    // Atomically sets or clears bit i; +1 if it was just set, -1 if just cleared, 0 if unchanged.
+    private static int flip(long[] bits, int i, boolean set) {
+        long bit = 1L << i;
+        long prev = set
+                ? (long) BITS.getAndBitwiseOr(bits, i >>> 6, bit)
+                : (long) BITS.getAndBitwiseAnd(bits, i >>> 6, ~bit);
+        boolean was = (prev & bit) != 0;
+        return was == set ? 0 : (set ? 1 : -1);
+    }
+
+    // Bits for seat i in the given status (null = no seat); counts are the caller's business.
+    private void setBits(int i, SeatStatus status) {
+        long bit = 1L << i;
+        if (status == SeatStatus.AVAILABLE) availableBits[i >>> 6] |= bit;
+        else availableBits[i >>> 6] &= ~bit;
+        if (status == SeatStatus.HELD) heldBits[i >>> 6] |= bit;
+        else heldBits[i >>> 6] &= ~bit;
+    }
+
+    /**
+     * Swaps in a new seat list; used by DatabaseService's lazy mode to hydrate a flight
+     * loaded as an id/number stub and to drop its seats again on eviction.
+     */
+    void replaceSeats(List<Seat> newSeats) {
+        for (Seat s : seats) s.attach(null, 0); // stale Seat references must not touch the new bitmap
+        seats.clear();
+        seatIndex = new IgnoreCaseIndex<>(newSeats.size()); // also gives back an evicted flight's table
+        availableBits = new long[Math.max(1, (newSeats.size() + 63) >>> 6)];
+        heldBits = new long[availableBits.length];
+        unavailable = 0;
+        held = 0;
+        for (Seat s : newSeats) addSeat(s);
+        seats.trimToSize();
+    }
+
+    /** Deep copy (seats copied, passengers shared) used to snapshot state for background writes. */
+    Flight copy() {
+        Flight c = new Flight(id, flightNumber);
+        for (Seat s : seats) c.addSeat(s.copy());
+        return c;
     }
 
     @Override
@@ -94,7 +265,7 @@ public class Flight {
         return "Flight{" +
                 "id='" + id + '\'' +
                 ", flightNumber='" + flightNumber + '\'' +
-                ", seats=" + seats.size() +
+                ", seats=" + getSeats().size() +
                 '}';
     }
 
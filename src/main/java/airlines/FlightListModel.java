@@ -0,0 +1,252 @@
+package airlines;
+
+import javax.swing.AbstractListModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * FlightListModel - JList model for the flight directory with a type-ahead filter.
+ *
+ * setFlights() replaces the whole directory with one removed + one added event instead of
+ * an event per flight, and cells are only read for the rows JList paints (give the list a
+ * fixed cell size so it does not measure every row). The filter keeps flights whose id or
+ * flight number starts with the typed text, ignoring case; two sorted prefix indexes answer
+ * it by binary search, so a keystroke costs O(log n + matches), not a scan of the directory.
+ * Matches are listed in directory order. Event thread only, like any Swing model.
+ */
+public class FlightListModel extends AbstractListModel<Flight> {
+
+    private final List<Flight> flights = new ArrayList<>();     // directory order
+    private final PrefixIndex byId = new PrefixIndex();
+    private final PrefixIndex byNumber = new PrefixIndex();
+    private String filter = "";
+    private int[] visible;                                      // rows of flights shown; null = all
+
+    /** Replaces the directory (keeps the filter). */
+    public void setFlights(List<Flight> newFlights) {
+        FlightRecorderEvents.UiReload event = new FlightRecorderEvents.UiReload();
+        event.begin();
+        int oldSize = getSize();
+        flights.clear();
+        flights.addAll(newFlights);
+        String[] ids = new String[flights.size()];
+        String[] numbers = new String[flights.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = key(flights.get(i).getId());
+            numbers[i] = key(flights.get(i).getFlightNumber());
+        }
+        byId.build(ids);
+        byNumber.build(numbers);
+        refilter(oldSize);
+        event.end();
+        if (event.shouldCommit()) {
+            event.view = "FlightListModel";
+            event.rows = flights.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Appends a flight (e.g. after FLIGHT_ADDED); shown only if it matches the filter.
+     * @return false if a flight with exactly this id is listed already
+     */
+    public boolean add(Flight f) {
+        if (rowOf(f.getId()) >= 0) return false;
+        int oldSize = getSize();
+        int row = flights.size();
+        flights.add(f);
+        byId.insert(key(f.getId()), row);
+        byNumber.insert(key(f.getFlightNumber()), row);
+        if (visible == null) {
+            fireIntervalAdded(this, row, row);
+        } else if (matches(f)) {
+            visible = Arrays.copyOf(visible, visible.length + 1);
+            visible[visible.length - 1] = row; // last row: order is kept
+            fireIntervalAdded(this, oldSize, oldSize);
+        }
+        return true;
+    }
+
+    /** Removes the first flight with exactly this id; false if there is none. */
+    public boolean remove(String flightId) {
+        int row = rowOf(flightId);
+        if (row < 0) return false;
+        flights.remove(row);
+        byId.removeRow(row);
+        byNumber.removeRow(row);
+        if (visible == null) {
+            fireIntervalRemoved(this, row, row);
+            return true;
+        }
+        int at = Arrays.binarySearch(visible, row);
+        int[] shown = new int[visible.length - (at >= 0 ? 1 : 0)];
+        for (int i = 0, j = 0; i < visible.length; i++) {
+            if (i != at) shown[j++] = visible[i] > row ? visible[i] - 1 : visible[i];
+        }
+        visible = shown;
+        if (at >= 0) fireIntervalRemoved(this, at, at);
+        return true;
+    }
+
+    /** Shows only flights whose id or number starts with text (ignoring case); blank shows all. */
+    public void setFilter(String text) {
+        String f = text == null ? "" : key(text.trim());
+        if (f.equals(filter)) return;
+        int oldSize = getSize();
+        filter = f;
+        refilter(oldSize);
+    }
+
+    public String getFilter() {
+        return filter;
+    }
+
+    /** Flights in the directory, shown or not. */
+    public int getFlightCount() {
+        return flights.size();
+    }
+
+    /** Index in the (filtered) list of the first flight with this id ignoring case; -1 if not shown. */
+    public int indexOf(String flightId) {
+        if (flightId == null) return -1;
+        int best = Integer.MAX_VALUE;
+        for (int row : byId.rows(key(flightId))) {
+            if (flights.get(row).getId().equalsIgnoreCase(flightId)) best = Math.min(best, row);
+        }
+        if (best == Integer.MAX_VALUE) return -1;
+        if (visible == null) return best;
+        int at = Arrays.binarySearch(visible, best);
+        return at >= 0 ? at : -1;
+    }
+
+    @Override
+    public int getSize() {
+        return visible == null ? flights.size() : visible.length;
+    }
+
+    @Override
+    public Flight getElementAt(int index) {
+        return flights.get(visible == null ? index : visible[index]);
+    }
+
+    private void refilter(int oldSize) {
+        if (filter.isEmpty()) {
+            visible = null;
+        } else {
+            int[] ids = byId.rowsWithPrefix(filter);
+            int[] numbers = byNumber.rowsWithPrefix(filter);
+            int[] rows = Arrays.copyOf(ids, ids.length + numbers.length);
+            System.arraycopy(numbers, 0, rows, ids.length, numbers.length);
+            Arrays.sort(rows);
+            int n = 0;
+            for (int i = 0; i < rows.length; i++) {
+                if (n == 0 || rows[i] != rows[n - 1]) rows[n++] = rows[i]; // id and number may both match
+            }
+            visible = Arrays.copyOf(rows, n);
+        }
+        if (oldSize > 0) fireIntervalRemoved(this, 0, oldSize - 1);
+        if (getSize() > 0) fireIntervalAdded(this, 0, getSize() - 1);
+    }
+
+    // First row whose id is exactly flightId; -1 if none.
+    private int rowOf(String flightId) {
+        int row = -1;
+        if (flightId == null) return row;
+        for (int i : byId.rows(key(flightId))) {
+            if (flights.get(i).getId().equals(flightId) && (row < 0 || i < row)) row = i;
+        }
+        return row;
+    }
+
+    private boolean matches(Flight f) {
+        return key(f.getId()).startsWith(filter) || key(f.getFlightNumber()).startsWith(filter);
+    }
+
+    private static String key(String s) {
+        return s == null ? "" : s.toUpperCase(Locale.ROOT);
+    }
+
+    /** Keys sorted with their rows; prefix queries are a binary search plus the matching run. */
+    private static final class PrefixIndex {
+        private String[] keys = new String[0];
+        private int[] rows = new int[0];
+        private int size;
+
+        void build(String[] byRow) {
+            Integer[] order = new Integer[byRow.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> byRow[a].compareTo(byRow[b])); // stable: equal keys by row
+            keys = new String[Math.max(16, byRow.length)];
+            rows = new int[keys.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[i] = byRow[order[i]];
+                rows[i] = order[i];
+            }
+            size = order.length;
+        }
+
+        // Rows are appended in increasing order, so equal keys stay sorted by row.
+        void insert(String key, int row) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, Math.max(16, size * 2));
+                rows = Arrays.copyOf(rows, keys.length);
+            }
+            int at = upperBound(key);
+            System.arraycopy(keys, at, keys, at + 1, size - at);
+            System.arraycopy(rows, at, rows, at + 1, size - at);
+            keys[at] = key;
+            rows[at] = row;
+            size++;
+        }
+
+        // Drops row and renumbers the rows after it.
+        void removeRow(int row) {
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (rows[i] == row) continue;
+                keys[n] = keys[i];
+                rows[n++] = rows[i] > row ? rows[i] - 1 : rows[i];
+            }
+            for (int i = n; i < size; i++) keys[i] = null;
+            size = n;
+        }
+
+        int[] rowsWithPrefix(String prefix) {
+            int from = lowerBound(prefix);
+            int to = from;
+            while (to < size && keys[to].startsWith(prefix)) to++;
+            return Arrays.copyOfRange(rows, from, to);
+        }
+
+        int[] rows(String key) {
+            int from = lowerBound(key);
+            int to = from;
+            while (to < size && keys[to].equals(key)) to++;
+            return Arrays.copyOfRange(rows, from, to);
+        }
+
+        // First position whose key is >= key.
+        private int lowerBound(String key) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(key) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        // First position whose key is > key.
+        private int upperBound(String key) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(key) <= 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package airlines;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * FlightRecorderEvents - JDK Flight Recorder events for the persistence, booking and UI paths.
+ *
+ * All events are disabled unless a recording turns them on, normally with the airlines.jfc
+ * settings file in the project root:
+ *   java -XX:StartFlightRecording:settings=default,settings=airlines.jfc,filename=nua.jfr ...
+ * Disabled, an event costs a begin/end call and a shouldCommit() check; callers fill in the
+ * fields only after shouldCommit() says the event will be written.
+ */
+final class FlightRecorderEvents {
+
+    static final String CATEGORY = "National University Airlines";
+
+    private FlightRecorderEvents() {}
+
+    @Name("airlines.FileLoad")
+    @Label("Database Load")
+    @Description("FileStorage.read of a database file or segment directory (journal replay included), or a lazy load of one flight's segment")
+    @Category({CATEGORY, "Persistence"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class FileLoad extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Format")
+        String format;
+
+        @Label("Flights")
+        int flights;
+
+        @Label("Rows Parsed")
+        long rowsParsed;
+
+        @Label("Rows Skipped")
+        @Description("Malformed rows left out")
+        long rowsSkipped;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("airlines.FileSave")
+    @Label("Database Save")
+    @Description("FileStorage.write, or the save of a segment directory's changed flights: serialize to temp files and move them into place")
+    @Category({CATEGORY, "Persistence"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class FileSave extends Event {
+        @Label("Path")
+        String path;
+
+        @Label("Format")
+        String format;
+
+        @Label("Flights")
+        int flights;
+
+        @Label("Seats")
+        long seats;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Sync Time")
+        @Description("Time to make the written file the database (atomic move; no explicit fsync)")
+        @Timespan
+        long syncTime;
+    }
+
+    @Name("airlines.SeatUpdate")
+    @Label("Seat Update")
+    @Description("DatabaseService.updateSeat, tryBook or tryRelease")
+    @Category({CATEGORY, "Booking"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class SeatUpdate extends Event {
+        @Label("Flight")
+        String flightId;
+
+        @Label("Seat")
+        String seatNumber;
+
+        @Label("Outcome")
+        @Description("BOOKED, RELEASED, NOT_FOUND, or REJECTED (tryBook/tryRelease lost or not found)")
+        String outcome;
+    }
+
+    @Name("airlines.UiReload")
+    @Label("UI Reload")
+    @Description("A Swing model or view rebuilt from the database")
+    @Category({CATEGORY, "Swing"})
+    @Enabled(false)
+    @StackTrace(false)
+    static final class UiReload extends Event {
+        @Label("View")
+        String view;
+
+        @Label("Rows Rebuilt")
+        int rows;
+    }
+}
@@ -3,26 +3,35 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.List;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 
 /**
  * Home screen showing all flights.
  * Adds: Add Flight, Delete Flight (with confirm), Refresh, Open.
+ * Flights added or deleted (here or elsewhere) come in through DatabaseService.changes().
+ * The list is a FlightListModel: fixed-height rows so only visible flights are rendered, and a
+ * search box that filters by id/flight number prefix as you type (Enter opens the first match).
  */
 public class HomeFrame extends JFrame {
     private final DatabaseService db;
-    private final DefaultListModel<Flight> listModel = new DefaultListModel<>();
+    private final FlightListModel listModel = new FlightListModel();
     private final JList<Flight> flightList = new JList<>(listModel);
+    private final JTextField searchField = new JTextField(20);
 
     private final JButton openBtn   = new JButton("Open Flight");
     private final JButton addBtn    = new JButton("Add Flight");
     private final JButton deleteBtn = new JButton("Delete Flight");
     private final JButton refreshBtn = new JButton("Refresh");
+    private final SwingChangeSubscriber changes;
 
     public HomeFrame(DatabaseService db) {
         super("National University Airlines");
         this.db = db;
         setJMenuBar(buildMenuBar());
         initComponents();
+        changes = SwingChangeSubscriber.subscribe(db, this::applyChange, this::loadFlights);
         loadFlights();
         setSize(720, 460);
         setLocationRelativeTo(null);
@@ -78,6 +87,8 @@ public class HomeFrame extends JFrame {
         // Flight list config
         flightList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         flightList.setVisibleRowCount(12);
+        // Size rows from one prototype instead of rendering every flight (large directories)
+        flightList.setPrototypeCellValue(new Flight("WWWWWWWWWWWW", "NU00000000"));
         flightList.setCellRenderer(new DefaultListCellRenderer() {
             @Override
             public Component getListCellRendererComponent(JList<?> list, Object value, int index,
@@ -90,6 +101,15 @@ public class HomeFrame extends JFrame {
             }
         });
 
+        // Type-ahead filter
+        searchField.setToolTipText("Type the start of a flight id or number (e.g., F0 or NU3)");
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void removeUpdate(DocumentEvent e) { applyFilter(); }
+            @Override public void changedUpdate(DocumentEvent e) { applyFilter(); }
+        });
+        searchField.addActionListener(e -> openSelectedFlight());
+
         // Double-click to open
         flightList.addMouseListener(new MouseAdapter() {
             @Override public void mouseClicked(MouseEvent e) {
@@ -120,6 +140,10 @@ public class HomeFrame extends JFrame {
         // Layout
         JPanel center = new JPanel(new BorderLayout(8, 8));
         center.setBorder(BorderFactory.createEmptyBorder(8, 16, 16, 16));
+        JPanel search = new JPanel(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        search.add(new JLabel("Search:  "));
+        search.add(searchField);
+        center.add(search, BorderLayout.NORTH);
         center.add(new JScrollPane(flightList), BorderLayout.CENTER);
         center.add(buttons, BorderLayout.SOUTH);
 
@@ -129,11 +153,10 @@ public class HomeFrame extends JFrame {
     }
 
     private void loadFlights() {
-        listModel.clear();
-        for (Flight f : db.getFlights()) listModel.addElement(f);
+        listModel.setFlights(db.getFlights()); // one event for the whole directory
 
-        if (!listModel.isEmpty()) {
-            flightList.setSelectedIndex(0);
+        if (listModel.getFlightCount() > 0) {
+            if (listModel.getSize() > 0) flightList.setSelectedIndex(0);
         } else {
             JOptionPane.showMessageDialog(
                 this,
@@ -144,9 +167,58 @@ public class HomeFrame extends JFrame {
         }
     }
 
+    // Reads the file on a worker thread; the RELOADED event then reloads the list.
     private void reloadFromDisk() {
-        db.load();
-        loadFlights();
+        refreshBtn.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() {
+                db.load();
+                return null;
+            }
+
+            @Override
+            protected void done() {
+                refreshBtn.setEnabled(true);
+                setCursor(Cursor.getDefaultCursor());
+                try {
+                    get();
+                } catch (InterruptedException | java.util.concurrent.ExecutionException e) {
+                    JOptionPane.showMessageDialog(HomeFrame.this, "Reload failed:\n" + e.getCause(), "Refresh", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    private void applyFilter() {
+        listModel.setFilter(searchField.getText());
+        if (listModel.getSize() > 0) {
+            flightList.setSelectedIndex(0);
+            flightList.ensureIndexIsVisible(0);
+        }
+    }
+
+    // Event thread. Adds or removes the one flight an event is about.
+    private void applyChange(ChangeEvent e) {
+        if (e.kind() == ChangeEvent.Kind.FLIGHT_ADDED) {
+            List<Flight> all = db.getFlights();
+            for (int i = all.size() - 1; i >= 0; i--) { // new flights are appended
+                if (all.get(i).getId().equals(e.flightId())) {
+                    listModel.add(all.get(i));
+                    break;
+                }
+            }
+        } else if (e.kind() == ChangeEvent.Kind.FLIGHT_DELETED) {
+            listModel.remove(e.flightId());
+            if (flightList.getSelectedIndex() < 0 && listModel.getSize() > 0) flightList.setSelectedIndex(0);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        changes.cancel();
+        super.dispose();
     }
 
     private void openSelectedFlight() {
@@ -164,11 +236,7 @@ public class HomeFrame extends JFrame {
 
     private void onAddFlight() {
         AddFlightDialog dlg = new AddFlightDialog(this, db);
-        dlg.openModal();
-        // After dialog closes, refresh and try to select the newly added flight by ID
-        String previousId = getSelectedFlightId();
-        reloadFromDisk();
-        if (previousId != null) selectFlightById(previousId); // fallback to previous
+        dlg.openModal(); // the new flight arrives as an event; the selection stays
     }
 
     private void onDeleteFlight() {
@@ -192,26 +260,7 @@ public class HomeFrame extends JFrame {
             JOptionPane.showMessageDialog(this, "Delete failed. The flight may not exist or could not be removed.", "Delete Flight", JOptionPane.ERROR_MESSAGE);
             return;
         }
-        // Refresh list
-        reloadFromDisk();
-        if (!listModel.isEmpty()) flightList.setSelectedIndex(Math.min(flightList.getModel().getSize() - 1, 0));
+        // The list drops the flight when its event arrives
         JOptionPane.showMessageDialog(this, "Flight deleted.", "Delete Flight", JOptionPane.INFORMATION_MESSAGE);
     }
-
-    private String getSelectedFlightId() {
-        Flight f = flightList.getSelectedValue();
-        return f == null ? null : f.getId();
-    }
-
-    private void selectFlightById(String flightId) {
-        if (flightId == null) return;
-        for (int i = 0; i < listModel.getSize(); i++) {
-            Flight f = listModel.get(i);
-            if (flightId.equalsIgnoreCase(f.getId())) {
-                flightList.setSelectedIndex(i);
-                flightList.ensureIndexIsVisible(i);
-                return;
-            }
-        }
-    }
 }
@@ -0,0 +1,151 @@
+package airlines;
+
+import java.util.Arrays;
+
+/**
+ * IgnoreCaseIndex - hash table from String keys to values, matching keys the way
+ * String.equalsIgnoreCase does.
+ *
+ * Open addressing with linear probing over parallel key/value arrays. Lookups hash the key
+ * char by char (case-folded) and compare with equalsIgnoreCase, so unlike a HashMap keyed by
+ * toUpperCase() they allocate nothing. Not thread-safe; owners guard it like the list it indexes.
+ */
+final class IgnoreCaseIndex<V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private String[] keys;
+    private Object[] values;
+    private int size;
+
+    IgnoreCaseIndex() {
+        this(0);
+    }
+
+    IgnoreCaseIndex(int expected) {
+        int cap = MIN_CAPACITY;
+        while (cap < expected * 2) cap <<= 1; // keep the load factor at or below 1/2
+        keys = new String[cap];
+        values = new Object[cap];
+    }
+
+    /**
+     * Case-insensitive hash consistent with equalsIgnoreCase: each char is folded to
+     * toLowerCase(toUpperCase(c)), with a fast path for ASCII.
+     */
+    static int hash(String s) {
+        int h = 0;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            char c = s.charAt(i);
+            if (c < 128) {
+                if (c >= 'A' && c <= 'Z') c += 32;
+            } else {
+                c = Character.toLowerCase(Character.toUpperCase(c));
+            }
+            h = 31 * h + c;
+        }
+        return h;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(String key) {
+        if (key == null) return null;
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            String k = keys[i];
+            if (k == null) return null;
+            if (k.equalsIgnoreCase(key)) return (V) values[i];
+        }
+    }
+
+    /** Maps key to value unless an equal (ignoring case) key is present; returns the existing value. */
+    V putIfAbsent(String key, V value) {
+        V existing = get(key);
+        if (existing != null) return existing;
+        put(key, value);
+        return null;
+    }
+
+    /** Maps key to value, replacing any entry for an equal (ignoring case) key; returns the old value. */
+    @SuppressWarnings("unchecked")
+    V put(String key, V value) {
+        if ((size + 1) * 2 > keys.length) resize(keys.length << 1);
+        int mask = keys.length - 1;
+        for (int i = slot(key, mask); ; i = (i + 1) & mask) {
+            String k = keys[i];
+            if (k == null) {
+                keys[i] = key;
+                values[i] = value;
+                size++;
+                return null;
+            }
+            if (k.equalsIgnoreCase(key)) {
+                V old = (V) values[i];
+                keys[i] = key;
+                values[i] = value;
+                return old;
+            }
+        }
+    }
+
+    /** Removes the entry for key (ignoring case); returns its value or null. */
+    @SuppressWarnings("unchecked")
+    V remove(String key) {
+        if (key == null) return null;
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (true) {
+            String k = keys[i];
+            if (k == null) return null;
+            if (k.equalsIgnoreCase(key)) break;
+            i = (i + 1) & mask;
+        }
+        V old = (V) values[i];
+        // Backward-shift deletion: pull later entries of the probe run into the hole
+        int hole = i;
+        for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+            int home = slot(keys[j], mask);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        keys[hole] = null;
+        values[hole] = null;
+        size--;
+        return old;
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    // ---------- helpers ----------
+    private static int slot(String key, int mask) {
+        int h = hash(key) * 0x9E3779B9; // spread similar keys ("1A", "1B", ...) across the table
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new String[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int n = 0; n < oldKeys.length; n++) {
+            String k = oldKeys[n];
+            if (k == null) continue;
+            int i = slot(k, mask);
+            while (keys[i] != null) i = (i + 1) & mask;
+            keys[i] = k;
+            values[i] = oldValues[n];
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package airlines;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram - HDR-style histogram of durations in nanoseconds.
+ *
+ * Values below 32 ns get a bucket each; above that every power of two is split into 32
+ * equal buckets, so any recorded value is reported within ~3% (one bucket width) from 1 ns
+ * up to Long.MAX_VALUE in 1888 fixed counters. record() is an array increment plus two
+ * adders: no allocation, no lock, safe from any number of threads. Percentiles are read
+ * from a walk over the counters and may be a few samples stale while recording goes on.
+ */
+public final class LatencyHistogram implements Metrics.LatencyMXBean {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;                  // 32
+    static final int BUCKETS = (63 - SUB_BITS + 1) * SUB_BUCKETS;           // 1888: bit 62 is the top
+
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Records one duration; negative values count as 0. */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(bucket(v));
+        sumNanos.add(v);
+        maxNanos.accumulate(v);
+    }
+
+    /** Records System.nanoTime() - startNanos. */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /** Smallest value v such that at least percent % of the recorded values are <= v (0 if empty). */
+    public long percentile(double percent) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100.0, Math.max(0.0, percent)) / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highestIn(i), maxNanos.get());
+        }
+        return maxNanos.get();
+    }
+
+    @Override
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        return total;
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long n = getCount();
+        return n == 0 ? 0 : sumNanos.sum() / 1e3 / n;
+    }
+
+    @Override
+    public double getP50Micros() {
+        return percentile(50) / 1e3;
+    }
+
+    @Override
+    public double getP90Micros() {
+        return percentile(90) / 1e3;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return percentile(99) / 1e3;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return percentile(99.9) / 1e3;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return maxNanos.get() / 1e3;
+    }
+
+    /** Clears all counts (values recorded meanwhile may survive). */
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        sumNanos.reset();
+        maxNanos.reset();
+    }
+
+    static int bucket(long v) {
+        if (v < SUB_BUCKETS) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);                        // >= SUB_BITS
+        int sub = (int) (v >>> (exp - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exp - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Largest value that falls into bucket i.
+    static long highestIn(int i) {
+        if (i < SUB_BUCKETS) return i;
+        int exp = i / SUB_BUCKETS + SUB_BITS - 1;
+        long low = (long) (SUB_BUCKETS + i % SUB_BUCKETS) << (exp - SUB_BITS);
+        return low + (1L << (exp - SUB_BITS)) - 1;
+    }
+}
@@ -0,0 +1,264 @@
+package airlines;
+
+import java.lang.System.Logger.Level;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Log - small logging facade over System.Logger with an asynchronous appender.
+ *
+ * The level check runs on the caller's thread (Supplier overloads build the message only when
+ * the level is enabled); everything else happens on one daemon writer thread. Messages go into
+ * a fixed-size ring buffer that the writer drains in order into System.Logger (java.util.logging
+ * unless another System.LoggerFinder is installed), adding the "[Owner] " prefix on the way.
+ * A caller never waits for output: when the buffer is full the message is dropped and counted,
+ * and the writer reports how many were lost. flush() waits until the buffer is empty; it also
+ * runs at JVM shutdown. limit() logs the first few of a burst of similar warnings (malformed
+ * rows) and sums up the rest in one line.
+ */
+public final class Log {
+
+    /** Messages the shared appender buffers before it starts dropping. */
+    static final int DEFAULT_CAPACITY = 8192;
+    private static final AsyncAppender APPENDER = new AsyncAppender(DEFAULT_CAPACITY);
+
+    private final String name;
+    private final System.Logger logger;
+    private final AsyncAppender appender;
+
+    Log(String name, System.Logger logger, AsyncAppender appender) {
+        this.name = name;
+        this.logger = logger;
+        this.appender = appender;
+    }
+
+    /** Log named after owner (System.Logger name = class name, prefix = simple name). */
+    public static Log get(Class<?> owner) {
+        return new Log(owner.getSimpleName(), System.getLogger(owner.getName()), APPENDER);
+    }
+
+    /** Waits (up to 5 s) until every message logged so far has been handed to System.Logger. */
+    public static void flush() {
+        APPENDER.flush(TimeUnit.SECONDS.toNanos(5));
+    }
+
+    public boolean isEnabled(Level level) {
+        return logger.isLoggable(level);
+    }
+
+    public void debug(Supplier<String> message) {
+        log(Level.DEBUG, message);
+    }
+
+    public void info(String message) {
+        log(Level.INFO, message, null);
+    }
+
+    public void info(Supplier<String> message) {
+        log(Level.INFO, message);
+    }
+
+    public void warn(String message) {
+        log(Level.WARNING, message, null);
+    }
+
+    public void warn(Supplier<String> message) {
+        log(Level.WARNING, message);
+    }
+
+    public void warn(String message, Throwable thrown) {
+        log(Level.WARNING, message, thrown);
+    }
+
+    public void error(String message, Throwable thrown) {
+        log(Level.ERROR, message, thrown);
+    }
+
+    public void log(Level level, Supplier<String> message) {
+        if (logger.isLoggable(level)) appender.append(this, level, message.get(), null);
+    }
+
+    public void log(Level level, String message, Throwable thrown) {
+        if (logger.isLoggable(level)) appender.append(this, level, message, thrown);
+    }
+
+    /**
+     * Logs the first `first` messages given to the returned Limiter at level; close() then logs
+     * one line saying how many more `what` there were.
+     */
+    public Limiter limit(Level level, int first, String what) {
+        return new Limiter(level, first, what);
+    }
+
+    // Writer thread.
+    private void write(Level level, String message, Throwable thrown) {
+        String text = "[" + name + "] " + message;
+        if (thrown == null) {
+            logger.log(level, text);
+        } else {
+            logger.log(level, text, thrown);
+        }
+    }
+
+    /** Counts a burst of similar messages; only the first few are logged. Thread-safe. */
+    public final class Limiter implements AutoCloseable {
+        private final Level level;
+        private final int first;
+        private final String what;
+        private final AtomicLong seen = new AtomicLong();
+
+        private Limiter(Level level, int first, String what) {
+            this.level = level;
+            this.first = Math.max(0, first);
+            this.what = what;
+        }
+
+        public void log(Supplier<String> message) {
+            if (seen.incrementAndGet() <= first) Log.this.log(level, message);
+        }
+
+        /** Messages counted but not logged so far. */
+        public long suppressed() {
+            return Math.max(0, seen.get() - first);
+        }
+
+        @Override
+        public void close() {
+            long more = suppressed();
+            if (more > 0) Log.this.log(level, () -> "... and " + more + " more " + what + " (" + seen.get() + " in total)");
+        }
+    }
+
+    /** Bounded FIFO of pending messages plus the thread that writes them. */
+    static final class AsyncAppender {
+        private static final int BATCH = 256;
+
+        private final int capacity;
+        private final System.Logger report;   // where lost messages are reported
+        private final Log[] sources;
+        private final Level[] levels;
+        private final String[] messages;
+        private final Throwable[] thrown;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition drained = lock.newCondition();
+        private long head;                 // next slot to write out; guarded by lock
+        private long tail;                 // next free slot; guarded by lock
+        private long dropped;              // since last reported; guarded by lock
+        private boolean writing;           // writer holds a batch outside the lock; guarded by lock
+        private Thread writer;             // started on first message; guarded by lock
+
+        AsyncAppender(int capacity) {
+            this(capacity, System.getLogger(Log.class.getName()));
+        }
+
+        AsyncAppender(int capacity, System.Logger report) {
+            this.capacity = capacity;
+            this.report = report;
+            sources = new Log[capacity];
+            levels = new Level[capacity];
+            messages = new String[capacity];
+            thrown = new Throwable[capacity];
+        }
+
+        void append(Log source, Level level, String message, Throwable t) {
+            lock.lock();
+            try {
+                if (tail - head == capacity) {
+                    dropped++;
+                    return;
+                }
+                int i = (int) (tail % capacity);
+                sources[i] = source;
+                levels[i] = level;
+                messages[i] = message;
+                thrown[i] = t;
+                tail++;
+                if (writer == null) start();
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /** Waits until everything appended so far is written, at most timeoutNanos. */
+        void flush(long timeoutNanos) {
+            lock.lock();
+            try {
+                long left = timeoutNanos;
+                while (writer != null && (head != tail || writing || dropped > 0) && left > 0) {
+                    left = drained.awaitNanos(left);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Caller holds the lock.
+        private void start() {
+            writer = new Thread(this::run, "nua-log");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> flush(TimeUnit.SECONDS.toNanos(2)), "nua-log-flush"));
+        }
+
+        private void run() {
+            Log[] batchSources = new Log[BATCH];
+            Level[] batchLevels = new Level[BATCH];
+            String[] batchMessages = new String[BATCH];
+            Throwable[] batchThrown = new Throwable[BATCH];
+            while (true) {
+                int n;
+                long lost;
+                lock.lock();
+                try {
+                    writing = false;
+                    while (head == tail && dropped == 0) {
+                        drained.signalAll();
+                        notEmpty.await();
+                    }
+                    n = (int) Math.min(BATCH, tail - head);
+                    for (int k = 0; k < n; k++, head++) {
+                        int i = (int) (head % capacity);
+                        batchSources[k] = sources[i];
+                        batchLevels[k] = levels[i];
+                        batchMessages[k] = messages[i];
+                        batchThrown[k] = thrown[i];
+                        sources[i] = null;
+                        messages[i] = null;
+                        thrown[i] = null;
+                    }
+                    lost = dropped;
+                    dropped = 0;
+                    writing = true;
+                } catch (InterruptedException e) {
+                    return;
+                } finally {
+                    lock.unlock();
+                }
+                for (int k = 0; k < n; k++) {
+                    try {
+                        batchSources[k].write(batchLevels[k], batchMessages[k], batchThrown[k]);
+                    } catch (RuntimeException e) {
+                        // a broken handler must not stop logging for everyone else
+                    }
+                    batchSources[k] = null;
+                    batchMessages[k] = null;
+                    batchThrown[k] = null;
+                }
+                if (lost > 0) {
+                    try {
+                        report.log(Level.WARNING, "[Log] " + lost + " messages dropped, the log buffer was full");
+                    } catch (RuntimeException e) {
+                        // as above
+                    }
+                }
+            }
+        }
+    }
+}
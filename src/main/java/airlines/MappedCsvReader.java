@@ -0,0 +1,378 @@
+package airlines;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * MappedCsvReader - allocation-light parser for v1 CSV database files.
+ *
+ * Large files are memory-mapped (FileChannel.map) and scanned byte by byte for line and field
+ * boundaries. Only strings the model keeps are created: flight id/number once per flight, the
+ * seat number per row, and passenger fields for BOOKED rows only.
+ *
+ * Tolerates what FileStorage always accepted: UTF-8 BOM, LF/CRLF/CR line endings, '#' header
+ * lines (v1 or legacy) and blank lines. Malformed rows are skipped and reported with their
+ * line number.
+ *
+ * Files of PARALLEL_THRESHOLD bytes or more are cut at line boundaries into ranges that are
+ * parsed as separate Chunks on the common fork-join pool and merged back in file order.
+ */
+final class MappedCsvReader {
+
+    /** Files below this size are read onto the heap; mapping them costs more than it saves. */
+    static final long MAP_THRESHOLD = 1L << 20;
+
+    /** A single mapping is limited to 2 GiB; bigger files are mapped region by region. */
+    private static final long MAX_REGION = Integer.MAX_VALUE;
+
+    /** Files of this size or more are parsed in parallel when more than one core is available. */
+    static final long PARALLEL_THRESHOLD = 8L << 20;
+
+    /** Target size of one range parsed by a single fork-join task. */
+    static final long PARALLEL_CHUNK_BYTES = 2L << 20;
+
+    /** Bytes read at a time while looking for the end of the line a split point falls into. */
+    private static final int BOUNDARY_PROBE = 512;
+
+    private static final byte[] AVAILABLE = "AVAILABLE".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BOOKED = "BOOKED".getBytes(StandardCharsets.US_ASCII);
+
+    private MappedCsvReader() {}
+
+    /** Parses the whole file; flights keep first-seen order and seats keep in-file order. */
+    static Chunk read(Path p) throws IOException {
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1) {
+                return readParallel(ch, size, PARALLEL_CHUNK_BYTES);
+            }
+            Chunk result = new Chunk(1);
+            if (size == 0) return result;
+
+            if (size < MAP_THRESHOLD) {
+                ByteBuffer heap = ByteBuffer.allocate((int) size);
+                while (heap.hasRemaining() && ch.read(heap) >= 0) { /* fill */ }
+                result.parse(heap, 0, heap.position(), true);
+            } else {
+                long pos = 0;
+                while (pos < size) {
+                    long len = Math.min(size - pos, MAX_REGION);
+                    ByteBuffer region = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+                    boolean last = pos + len == size;
+                    Chunk part = pos == 0 ? result : new Chunk(result.firstLine + result.lines);
+                    int consumed = part.parse(region, 0, (int) len, last);
+                    if (consumed == 0 && !last) {
+                        throw new IOException("Line longer than " + MAX_REGION + " bytes at offset " + pos);
+                    }
+                    if (part != result) result.merge(part);
+                    pos += consumed;
+                }
+            }
+            result.bytes = size;
+            return result;
+        }
+    }
+
+    /** Parses the file on the common fork-join pool in ranges of about chunkBytes (at line boundaries). */
+    static Chunk readParallel(Path p, long chunkBytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(p, StandardOpenOption.READ)) {
+            return readParallel(ch, ch.size(), chunkBytes);
+        }
+    }
+
+    private static Chunk readParallel(FileChannel ch, long size, long chunkBytes) throws IOException {
+        if (size == 0) return new Chunk(1);
+        try {
+            Chunk result = ForkJoinPool.commonPool().invoke(new ParseTask(ch, 0, size, Math.min(Math.max(1, chunkBytes), MAX_REGION)));
+            result.bytes = size;
+            return result;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Parses [start, end) of the file: small ranges directly, larger ones split in two at a line
+     * boundary, parsed in parallel and merged left-then-right so file order is kept. Each range is
+     * numbered from line 1; merge() shifts the later range's line numbers.
+     */
+    private static final class ParseTask extends RecursiveTask<Chunk> {
+        private final FileChannel ch;
+        private final long start;
+        private final long end;
+        private final long chunkBytes;
+
+        ParseTask(FileChannel ch, long start, long end, long chunkBytes) {
+            this.ch = ch;
+            this.start = start;
+            this.end = end;
+            this.chunkBytes = chunkBytes;
+        }
+
+        @Override
+        protected Chunk compute() {
+            try {
+                long len = end - start;
+                long mid = len > chunkBytes ? nextLineStart(ch, start + len / 2, end) : end;
+                if (mid >= end) {
+                    if (len > MAX_REGION) throw new IOException("Line longer than " + MAX_REGION + " bytes near offset " + start);
+                    return parseRange();
+                }
+                ParseTask left = new ParseTask(ch, start, mid, chunkBytes);
+                ParseTask right = new ParseTask(ch, mid, end, chunkBytes);
+                left.fork();
+                Chunk later = right.compute();
+                Chunk result = left.join();
+                result.merge(later);
+                return result;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private Chunk parseRange() throws IOException {
+            int len = (int) (end - start);
+            ByteBuffer buf;
+            if (len < MAP_THRESHOLD) {
+                buf = ByteBuffer.allocate(len);
+                while (buf.hasRemaining() && ch.read(buf, start + buf.position()) >= 0) { /* fill */ }
+            } else {
+                buf = ch.map(FileChannel.MapMode.READ_ONLY, start, len);
+            }
+            Chunk chunk = new Chunk(1);
+            chunk.parse(buf, 0, len, true); // the range ends at a line boundary or end of file
+            return chunk;
+        }
+    }
+
+    /**
+     * First offset in (pos, end] at which a line starts: just past the next LF, CRLF or bare CR
+     * at or after pos. Returns end if the rest of the range is one line.
+     */
+    private static long nextLineStart(FileChannel ch, long pos, long end) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(BOUNDARY_PROBE);
+        boolean afterCr = false;
+        while (pos < end) {
+            probe.clear().limit((int) Math.min(BOUNDARY_PROBE, end - pos));
+            int n = ch.read(probe, pos);
+            if (n <= 0) return end;
+            for (int i = 0; i < n; i++) {
+                byte b = probe.get(i);
+                if (afterCr) return b == '\n' ? pos + i + 1 : pos + i;
+                if (b == '\n') return pos + i + 1;
+                if (b == '\r') afterCr = true;
+            }
+            pos += n;
+        }
+        return end;
+    }
+
+    /**
+     * Parse result for one contiguous range of lines. Chunks parsed separately can be merged in
+     * file order; merging keeps first-seen flight order and in-file seat order.
+     */
+    static final class Chunk {
+        final LinkedHashMap<String, Flight> flights = new LinkedHashMap<>();
+        final List<Problem> problems = new ArrayList<>(); // prints as "(reason) at line N: raw"
+        final long firstLine;                            // 1-based number of the first line
+        long lines;
+        long rows;
+        long skipped;
+        long bytes;
+
+        // scratch state, reused for every line
+        private byte[] line = new byte[256];
+        private final int[] fieldStart = new int[7];
+        private final int[] fieldEnd = new int[7];
+        private byte[] lastId = new byte[16];
+        private int lastIdLen = -1;
+        private Flight lastFlight;
+
+        Chunk(long firstLine) {
+            this.firstLine = firstLine;
+        }
+
+        /**
+         * Parses complete lines in buf[from, to).
+         * @param endOfInput whether to is the end of the file (a trailing line needs no terminator)
+         * @return bytes consumed; an unterminated tail is left for the next region
+         */
+        int parse(ByteBuffer buf, int from, int to, boolean endOfInput) {
+            int pos = from;
+            while (pos < to) {
+                int end = pos;
+                while (end < to) {
+                    byte b = buf.get(end);
+                    if (b == '\n' || b == '\r') break;
+                    end++;
+                }
+                int next;
+                if (end == to) {
+                    if (!endOfInput) break;
+                    next = to;
+                } else if (buf.get(end) == '\r') {
+                    if (end + 1 == to && !endOfInput) break; // CRLF may straddle the region edge
+                    next = (end + 1 < to && buf.get(end + 1) == '\n') ? end + 2 : end + 1;
+                } else {
+                    next = end + 1;
+                }
+                parseLine(buf, pos, end);
+                lines++;
+                pos = next;
+            }
+            return pos - from;
+        }
+
+        /**
+         * Appends the chunk that follows this one in the file: its flights, seats and problems,
+         * renumbering its lines if it was numbered on its own (firstLine 1).
+         */
+        void merge(Chunk later) {
+            for (Flight f : later.flights.values()) {
+                Flight existing = flights.putIfAbsent(f.getId(), f);
+                if (existing != null) {
+                    for (Seat s : f.getSeats()) existing.addSeat(s);
+                }
+            }
+            long shift = firstLine + lines - later.firstLine;
+            for (Problem pr : later.problems) {
+                problems.add(shift == 0 ? pr : new Problem(pr.reason(), pr.line() + shift, pr.raw()));
+            }
+            lines += later.lines;
+            rows += later.rows;
+            skipped += later.skipped;
+        }
+
+        private void parseLine(ByteBuffer buf, int start, int end) {
+            int len = end - start;
+            if (line.length < len) line = new byte[Math.max(len, line.length * 2)];
+            buf.get(start, line, 0, len);
+
+            int s = 0;
+            if (len >= 3 && line[0] == (byte) 0xEF && line[1] == (byte) 0xBB && line[2] == (byte) 0xBF) {
+                s = 3; // UTF-8 BOM
+            }
+            if (isBlank(s, len) || line[s] == '#') {
+                return; // any comment/header line (legacy or v1)
+            }
+
+            // Field boundaries; stop counting once there are too many commas
+            int cols = 1;
+            int fs = s;
+            for (int i = s; i < len && cols <= 7; i++) {
+                if (line[i] == ',') {
+                    if (cols < 7) setField(cols - 1, fs, i);
+                    fs = i + 1;
+                    cols++;
+                }
+            }
+            if (cols != 7) {
+                skip("wrong column count", s, len);
+                return;
+            }
+            setField(6, fs, len);
+
+            // Required fields
+            if (fieldEnd[0] == fieldStart[0] || fieldEnd[1] == fieldStart[1] || fieldEnd[2] == fieldStart[2]) {
+                skip("missing required fields", s, len);
+                return;
+            }
+            // Status must be one of the two
+            boolean booked;
+            if (equalsIgnoreCaseAscii(3, BOOKED)) {
+                booked = true;
+            } else if (equalsIgnoreCaseAscii(3, AVAILABLE)) {
+                booked = false;
+            } else {
+                skip("invalid status", s, len);
+                return;
+            }
+
+            Flight flight = flightFor();
+            String seatNumber = field(2);
+            Seat seat = booked
+                    ? new Seat(seatNumber, new Passenger(field(4), field(5), field(6)))
+                    : new Seat(seatNumber);
+            flight.addSeat(seat);
+            rows++;
+        }
+
+        /** Reuses the previous row's flight when the id bytes match (rows are grouped by flight). */
+        private Flight flightFor() {
+            int s = fieldStart[0];
+            int idLen = fieldEnd[0] - s;
+            if (lastFlight != null && idLen == lastIdLen
+                    && Arrays.equals(line, s, s + idLen, lastId, 0, idLen)) {
+                return lastFlight;
+            }
+            String id = field(0);
+            Flight f = flights.get(id);
+            if (f == null) {
+                f = new Flight(id, field(1));
+                flights.put(id, f);
+            }
+            if (lastId.length < idLen) lastId = new byte[idLen];
+            System.arraycopy(line, s, lastId, 0, idLen);
+            lastIdLen = idLen;
+            lastFlight = f;
+            return f;
+        }
+
+        /** Records [from, to) trimmed the same way String.trim() would. */
+        private void setField(int idx, int from, int to) {
+            while (from < to && (line[from] & 0xFF) <= ' ') from++;
+            while (to > from && (line[to - 1] & 0xFF) <= ' ') to--;
+            fieldStart[idx] = from;
+            fieldEnd[idx] = to;
+        }
+
+        private String field(int idx) {
+            int from = fieldStart[idx];
+            int to = fieldEnd[idx];
+            return from == to ? "" : new String(line, from, to - from, StandardCharsets.UTF_8);
+        }
+
+        private boolean equalsIgnoreCaseAscii(int idx, byte[] upper) {
+            int from = fieldStart[idx];
+            if (fieldEnd[idx] - from != upper.length) return false;
+            for (int i = 0; i < upper.length; i++) {
+                byte b = line[from + i];
+                if (b >= 'a' && b <= 'z') b -= 32;
+                if (b != upper[i]) return false;
+            }
+            return true;
+        }
+
+        private boolean isBlank(int from, int to) {
+            for (int i = from; i < to; i++) {
+                if ((line[i] & 0xFF) > ' ') return false;
+            }
+            return true;
+        }
+
+        private void skip(String reason, int from, int to) {
+            skipped++;
+            String raw = new String(line, from, to - from, StandardCharsets.UTF_8);
+            problems.add(new Problem(reason, firstLine + lines, raw));
+        }
+    }
+
+    /** A skipped row. */
+    record Problem(String reason, long line, String raw) {
+        @Override
+        public String toString() {
+            return "(" + reason + ") at line " + line + ": " + raw;
+        }
+    }
+}
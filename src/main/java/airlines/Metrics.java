@@ -0,0 +1,171 @@
+package airlines;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics - process-wide counters and latency histograms for loads, saves and bookings.
+ *
+ * The instruments are static fields, recorded straight from FileStorage and DatabaseService:
+ * a LongAdder per counter and a LatencyHistogram per timed operation, so recording never
+ * allocates or locks. registerMBeans() publishes each of them as a platform MXBean
+ * (airlines:type=Latency,name=save / airlines:type=Counter,name=bookings, ...) for JConsole
+ * or any local JMX client; without it nothing is exported, but everything is still counted.
+ * Counter rates are sampled once per RATE_WINDOW_SECONDS by a daemon thread that starts with
+ * the MBeans, so reading an attribute never changes what another client reads.
+ */
+public final class Metrics {
+
+    private static final Log LOG = Log.get(Metrics.class);
+
+    /** Window a counter's getRatePerSecond() is averaged over. */
+    static final int RATE_WINDOW_SECONDS = 1;
+
+    /** Attributes of a latency histogram as seen over JMX (microseconds). */
+    public interface LatencyMXBean {
+        long getCount();
+        double getMeanMicros();
+        double getP50Micros();
+        double getP90Micros();
+        double getP99Micros();
+        double getP999Micros();
+        double getMaxMicros();
+        void reset();
+    }
+
+    /** Attributes of a counter as seen over JMX. */
+    public interface CounterMXBean {
+        long getCount();
+        /** Increments per second over the last rate window; 0 until the MBeans are registered. */
+        double getRatePerSecond();
+    }
+
+    /** Monotonic event counter. */
+    public static final class Counter implements CounterMXBean {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private long sampledCount;                    // at the last sample(); guarded by this
+        private long sampledNanos = System.nanoTime();
+        private volatile double rate;
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long n) {
+            count.add(n);
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public double getRatePerSecond() {
+            return rate;
+        }
+
+        // Sampler thread (tests: any). Sets the rate to the increments since the previous sample.
+        synchronized void sample(long nowNanos) {
+            long n = count.sum();
+            if (nowNanos != sampledNanos) rate = (n - sampledCount) * 1e9 / (nowNanos - sampledNanos);
+            sampledCount = n;
+            sampledNanos = nowNanos;
+        }
+    }
+
+    // ---- latencies ----
+    public static final LatencyHistogram LOAD = new LatencyHistogram("load");
+    public static final LatencyHistogram SAVE = new LatencyHistogram("save");
+    public static final LatencyHistogram UPDATE_SEAT = new LatencyHistogram("updateSeat");
+    public static final LatencyHistogram ADD_FLIGHT = new LatencyHistogram("addFlight");
+    public static final LatencyHistogram DELETE_FLIGHT = new LatencyHistogram("deleteFlight");
+
+    // ---- counters ----
+    /** Seats booked (updateSeat with a passenger, tryBook, bookSeats, bookHeld). */
+    public static final Counter BOOKINGS = new Counter("bookings");
+    /** Seats released through updateSeat/releaseSeat and tryRelease. */
+    public static final Counter RELEASES = new Counter("releases");
+    /** Seat reads/updates whose flight or seat was not found. */
+    public static final Counter LOOKUP_MISSES = new Counter("lookupMisses");
+    /** DatabaseService saves (snapshot, segment or journal write) that failed. */
+    public static final Counter SAVE_FAILURES = new Counter("saveFailures");
+
+    private static final List<LatencyHistogram> LATENCIES = List.of(LOAD, SAVE, UPDATE_SEAT, ADD_FLIGHT, DELETE_FLIGHT);
+    private static final List<Counter> COUNTERS = List.of(BOOKINGS, RELEASES, LOOKUP_MISSES, SAVE_FAILURES);
+
+    private static boolean registered;                // guarded by Metrics.class
+    private static ScheduledExecutorService sampler;  // counter rates, once registered; guarded by Metrics.class
+
+    private Metrics() {}
+
+    /**
+     * Registers every instrument with the platform MBean server (once; later calls do nothing).
+     * @return false if JMX refused the registration
+     */
+    public static synchronized boolean registerMBeans() {
+        if (registered) return true;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (LatencyHistogram h : LATENCIES) register(server, h, objectName("Latency", h.getName()));
+            for (Counter c : COUNTERS) register(server, c, objectName("Counter", c.getName()));
+        } catch (JMException | SecurityException e) {
+            LOG.warn("Could not register MBeans: " + e.getMessage());
+            return false;
+        }
+        registered = true;
+        sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "nua-metrics");
+            t.setDaemon(true);
+            return t;
+        });
+        sampler.scheduleAtFixedRate(() -> {
+            long now = System.nanoTime();
+            for (Counter c : COUNTERS) c.sample(now);
+        }, RATE_WINDOW_SECONDS, RATE_WINDOW_SECONDS, TimeUnit.SECONDS);
+        return true;
+    }
+
+    /** Object name an instrument is registered under, e.g. airlines:type=Latency,name=save. */
+    public static ObjectName objectName(String type, String name) throws JMException {
+        return new ObjectName("airlines:type=" + type + ",name=" + name);
+    }
+
+    /** Clears every counter and histogram (tests, or after a warm-up). */
+    public static void reset() {
+        for (LatencyHistogram h : LATENCIES) h.reset();
+        for (Counter c : COUNTERS) {
+            synchronized (c) {
+                c.count.reset();
+                c.sampledCount = 0;
+                c.sampledNanos = System.nanoTime();
+                c.rate = 0;
+            }
+        }
+    }
+
+    private static void register(MBeanServer server, Object bean, ObjectName name) throws JMException {
+        try {
+            server.registerMBean(bean, name);
+        } catch (InstanceAlreadyExistsException e) {
+            // another class loader of this app got there first; its beans are as good
+        }
+    }
+}
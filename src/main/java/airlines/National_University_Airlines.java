@@ -1,11 +1,35 @@
 package airlines;
 
 import javax.swing.*;
+import java.awt.BorderLayout;
+import java.awt.KeyboardFocusManager;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Entry point: the Swing UI by default; "--serve [port]" runs the HTTP booking API instead
+ * (BookingHttpServer on localhost, no UI).
+ *
+ * The UI never touches the disk on the event thread: the database loads on a SwingWorker
+ * behind a progress window, and it runs in GROUP_COMMIT mode, so saves happen on the
+ * database's writer thread. Failed background saves are reported in a dialog.
+ * Both modes export Metrics as platform MBeans.
+ */
 public class National_University_Airlines {
+    private static final Log LOG = Log.get(National_University_Airlines.class);
+    private static final AtomicBoolean saveErrorShowing = new AtomicBoolean();
+
     public static void main(String[] args) {
+        Metrics.registerMBeans(); // load/save/booking metrics under "airlines" in JConsole
+        if (args.length > 0 && args[0].equals("--serve")) {
+            serve(args.length > 1 ? Integer.parseInt(args[1]) : BookingHttpServer.DEFAULT_PORT);
+            return;
+        }
+
         // Set LAF first
         try {
             UIManager.setLookAndFeel("javax.swing.plaf.nimbus.NimbusLookAndFeel");
@@ -15,8 +39,84 @@ public class National_University_Airlines {
         SwingUtilities.invokeLater(() -> {
             // Make the path explicit
             Path dbPath = Paths.get("database.txt");
-            DatabaseService db = new DatabaseService(dbPath.toString()); // autoloads or creates
-            new HomeFrame(db).setVisible(true);
+            JWindow progress = loadingWindow(dbPath);
+            progress.setVisible(true);
+            new SwingWorker<DatabaseService, Void>() {
+                @Override
+                protected DatabaseService doInBackground() {
+                    return new DatabaseService(dbPath.toString(), PersistenceMode.GROUP_COMMIT); // autoloads or creates
+                }
+
+                @Override
+                protected void done() {
+                    progress.dispose();
+                    DatabaseService db;
+                    try {
+                        db = get();
+                    } catch (InterruptedException | ExecutionException e) {
+                        JOptionPane.showMessageDialog(null, "Could not load " + dbPath + ":\n" + e.getCause(),
+                                "Load Failed", JOptionPane.ERROR_MESSAGE);
+                        System.exit(1);
+                        return;
+                    }
+                    db.addSaveFailureListener(e -> reportSaveFailure(dbPath, e));
+                    Runtime.getRuntime().addShutdownHook(new Thread(db::close)); // pending changes are saved on exit
+                    new HomeFrame(db).setVisible(true);
+                }
+            }.execute();
+        });
+    }
+
+    private static JWindow loadingWindow(Path dbPath) {
+        String size = "";
+        try {
+            if (Files.isRegularFile(dbPath)) size = String.format(" (%.1f MB)", Files.size(dbPath) / 1e6);
+        } catch (IOException ignored) {
+            // size is only informational
+        }
+        JProgressBar bar = new JProgressBar();
+        bar.setIndeterminate(true); // the readers don't report how far they are
+        JPanel panel = new JPanel(new BorderLayout(8, 8));
+        panel.setBorder(BorderFactory.createEmptyBorder(16, 16, 16, 16));
+        panel.add(new JLabel("Loading " + dbPath + size + "..."), BorderLayout.NORTH);
+        panel.add(bar, BorderLayout.CENTER);
+        JWindow window = new JWindow();
+        window.setContentPane(panel);
+        window.pack();
+        window.setLocationRelativeTo(null);
+        return window;
+    }
+
+    // Any thread (the writer's, usually). Shows one dialog at a time however often saving fails.
+    private static void reportSaveFailure(Path dbPath, IOException e) {
+        if (!saveErrorShowing.compareAndSet(false, true)) return;
+        SwingUtilities.invokeLater(() -> {
+            try {
+                JOptionPane.showMessageDialog(KeyboardFocusManager.getCurrentKeyboardFocusManager().getActiveWindow(),
+                        "Saving to " + dbPath + " failed:\n" + e.getMessage()
+                                + "\n\nYour changes are kept and saved again with the next change.",
+                        "Save Failed", JOptionPane.ERROR_MESSAGE);
+            } finally {
+                saveErrorShowing.set(false);
+            }
         });
     }
+
+    private static void serve(int port) {
+        // Group commit: concurrent requests share one save instead of rewriting the file each
+        DatabaseService db = new DatabaseService(Paths.get("database.txt").toString(), PersistenceMode.GROUP_COMMIT);
+        try {
+            BookingHttpServer server = new BookingHttpServer(db, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                db.close(); // flushes pending changes
+            }));
+            server.start();
+        } catch (IOException e) {
+            LOG.error("Could not start server on port " + port, e);
+            db.close();
+            Log.flush();
+            System.exit(1);
+        }
+    }
 }
@@ -0,0 +1,14 @@
+package airlines;
+
+/**
+ * How DatabaseService persists seat changes.
+ * - WRITE_THROUGH: rewrite the whole database file after every change (default)
+ * - JOURNALED: append each seat change to a small journal next to the file;
+ *   the journal is folded into a fresh snapshot in the background once it grows
+ * - GROUP_COMMIT: changes mark the service dirty; a background writer saves them in batches
+ */
+public enum PersistenceMode {
+    WRITE_THROUGH,
+    JOURNALED,
+    GROUP_COMMIT
+}
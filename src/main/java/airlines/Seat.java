@@ -1,16 +1,42 @@
 package airlines;
-import java.util.Objects;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
 /**
  * Seat model
  * - seatNumber: e.g., "12A"
- * - status: AVAILABLE or BOOKED
+ * - status: AVAILABLE, BOOKED or HELD (temporarily reserved, no passenger)
  * - passenger: optional; if present -> BOOKED, if absent -> AVAILABLE
+ * - status and passenger live in one immutable State that every change replaces with a
+ *   compare-and-set, so readers never see one without the other and no write is lost between them
+ * - tryBook/tryRelease/tryHold change the seat only if it is in the expected state, without a
+ *   lock (exactly one of several racing callers wins)
  */
 public class Seat {
+    private static final VarHandle STATE;
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Seat.class, "state", State.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /** Status and passenger together; only BOOKED has a passenger (null only after setStatus(BOOKED)). */
+    private record State(SeatStatus status, Passenger passenger) {
+        static final State AVAILABLE = new State(SeatStatus.AVAILABLE, null);
+        static final State HELD = new State(SeatStatus.HELD, null);
+
+        static State bookedFor(Passenger passenger) {
+            return passenger == null ? AVAILABLE : new State(SeatStatus.BOOKED, passenger);
+        }
+    }
+
     private final String seatNumber;
-    private SeatStatus status;
-    private Passenger passenger; // nullable
+    private volatile State state;
+    private Flight owner;        // flight whose availability bitmap tracks this seat, if any
+    private int index;           // position in owner's seat list
 
     /** Create an AVAILABLE seat with no passenger. */
     public Seat(String seatNumber) {
@@ -18,32 +44,67 @@ public class Seat {
             throw new IllegalArgumentException("seatNumber cannot be null/blank");
         }
         this.seatNumber = seatNumber.trim();
-        this.status = SeatStatus.AVAILABLE;
-        this.passenger = null;
+        this.state = State.AVAILABLE;
     }
 
     /** Create a seat that is BOOKED if passenger is provided, otherwise AVAILABLE. */
     public Seat(String seatNumber, Passenger passenger) {
         this(seatNumber);
-        this.passenger = passenger;
-        this.status = (passenger == null) ? SeatStatus.AVAILABLE : SeatStatus.BOOKED;
+        this.state = State.bookedFor(passenger);
     }
 
     public String getSeatNumber() { return seatNumber; }
 
-    public SeatStatus getStatus() { return status; }
+    public SeatStatus getStatus() { return state.status(); }
 
-    public Passenger getPassenger() { return passenger; }
+    public Passenger getPassenger() { return state.passenger(); }
 
     /** True when status is BOOKED (or passenger present). */
     public boolean isBooked() {
-        return status == SeatStatus.BOOKED;
+        return getStatus() == SeatStatus.BOOKED;
     }
 
     /** Assign/replace passenger; null clears booking and marks AVAILABLE. */
     public void setPassenger(Passenger passenger) {
-        this.passenger = passenger;
-        this.status = (passenger == null) ? SeatStatus.AVAILABLE : SeatStatus.BOOKED;
+        State next = State.bookedFor(passenger);
+        while (!compareAndSet(state, next)) {
+            // another change got in first; this one is unconditional, so apply it on top
+        }
+    }
+
+    /** Books the seat for passenger only if it is AVAILABLE; false if it is taken (or passenger is null). */
+    public boolean tryBook(Passenger passenger) {
+        return passenger != null && transition(SeatStatus.AVAILABLE, State.bookedFor(passenger));
+    }
+
+    /** AVAILABLE -> HELD; false if the seat is not AVAILABLE. */
+    boolean tryHold() {
+        return transition(SeatStatus.AVAILABLE, State.HELD);
+    }
+
+    /** HELD -> AVAILABLE; false if the seat is no longer HELD (booked or released meanwhile). */
+    boolean releaseHold() {
+        return transition(SeatStatus.HELD, State.AVAILABLE);
+    }
+
+    /** HELD -> BOOKED for passenger; false if the seat is no longer HELD. */
+    boolean bookHeld(Passenger passenger) {
+        return passenger != null && transition(SeatStatus.HELD, State.bookedFor(passenger));
+    }
+
+    /** Status as written to disk and the journal: holds are memory-only, so HELD is AVAILABLE. */
+    SeatStatus persistedStatus() {
+        return isBooked() ? SeatStatus.BOOKED : SeatStatus.AVAILABLE;
+    }
+
+    /** Releases the seat only if it is booked for a passenger equal to expected; false otherwise. */
+    public boolean tryRelease(Passenger expected) {
+        if (expected == null) return false;
+        while (true) {
+            State current = state;
+            if (current.status() != SeatStatus.BOOKED || !expected.equals(current.passenger())) return false;
+            if (compareAndSet(current, State.AVAILABLE)) return true;
+        }
     }
 
     /** Convenience for clearing a booking. */
@@ -51,19 +112,55 @@ public class Seat {
         setPassenger(null);
     }
 
-    /** Force status; keeps passenger reference but reconciles consistency. */
+    /**
+     * Force status. BOOKED keeps the current passenger (the UI/service sets one next if there is
+     * none yet); AVAILABLE and HELD clear it.
+     */
     public void setStatus(SeatStatus status) {
         if (status == null) return;
-        this.status = status;
-        if (status == SeatStatus.AVAILABLE) {
-            this.passenger = null; // available implies no passenger
+        while (true) {
+            State current = state;
+            State next = switch (status) {
+                case AVAILABLE -> State.AVAILABLE;
+                case HELD -> State.HELD;
+                case BOOKED -> new State(SeatStatus.BOOKED, current.passenger());
+            };
+            if (compareAndSet(current, next)) return;
         }
-        // if BOOKED with null passenger, UI/service should set passenger next
+    }
+
+    // Moves from any state with status from to next; false as soon as the status is something else.
+    private boolean transition(SeatStatus from, State next) {
+        while (true) {
+            State current = state;
+            if (current.status() != from) return false;
+            if (compareAndSet(current, next)) return true;
+        }
+    }
+
+    private boolean compareAndSet(State expected, State next) {
+        if (!STATE.compareAndSet(this, expected, next)) return false;
+        if (owner != null) owner.seatChanged(index, this);
+        return true;
+    }
+
+    /** Called by Flight when this seat is added at index (owner != null) or removed (owner == null). */
+    void attach(Flight owner, int index) {
+        this.owner = owner;
+        this.index = index;
+    }
+
+    /** Copy with the same number, status and passenger reference (not attached to any flight). */
+    Seat copy() {
+        Seat c = new Seat(seatNumber);
+        c.state = state;
+        return c;
     }
 
     @Override
     public String toString() {
-        return "Seat{" + seatNumber + ", " + status + (passenger != null ? ", " + passenger.getFullName() : "") + "}";
+        Passenger p = getPassenger();
+        return "Seat{" + seatNumber + ", " + getStatus() + (p != null ? ", " + p.getFullName() : "") + "}";
     }
 
     @Override
@@ -74,8 +171,9 @@ public class Seat {
         return seatNumber.equalsIgnoreCase(seat.seatNumber);
     }
 
+    /** Case-insensitive like equals; folds chars in place instead of allocating an upper-case copy. */
     @Override
     public int hashCode() {
-        return Objects.hash(seatNumber.toUpperCase());
+        return IgnoreCaseIndex.hash(seatNumber);
     }
 }
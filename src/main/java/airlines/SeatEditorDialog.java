@@ -2,7 +2,6 @@ package airlines;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.KeyEvent;
-import java.util.List;
 
 /**
  * SeatEditorDialog – Validation Added 10-12-2025
@@ -10,12 +9,19 @@ import java.util.List;
  * - DOB must be yyyy-MM-dd, real date, and not in the future.
  * - Clear visual feedback: invalid fields are highlighted and focused.
  * - Release checkbox is never pre-selected; user opts in.
+ * - An AVAILABLE seat is HELD while the dialog is open (DatabaseService.holdSeat), so another
+ *   agent cannot book it meanwhile; the hold is released on close unless it was booked.
+ *   Without our hold (held by someone else, or lost to another agent while opening) the seat
+ *   is only booked if it is still free; overwriting is reserved for editing a BOOKED seat.
  */
 public class SeatEditorDialog extends JDialog {
     private final DatabaseService db;
     private final String flightId;
     private final String flightNumber;
     private final String seatNumber;
+    private long holdId = -1;            // our hold on the seat, -1 if none
+    private boolean heldByOther;         // someone else is filling in this seat
+    private boolean bookedAtOpen;        // editing an existing booking
 
     // UI fields
     private final JTextField firstField = new JTextField(18);
@@ -104,28 +110,30 @@ public class SeatEditorDialog extends JDialog {
     }
 
     private void loadExistingValues() {
-        List<Seat> seats = db.getSeats(flightId);
-        for (Seat s : seats) {
-            if (seatNumber.equalsIgnoreCase(s.getSeatNumber())) {
-                if (s.getPassenger() != null) {
-                    firstField.setText(s.getPassenger().getFirstName());
-                    lastField.setText(s.getPassenger().getLastName());
-                    dobField.setText(s.getPassenger().getDateOfBirth());
-                } else {
-                    firstField.setText("");
-                    lastField.setText("");
-                    dobField.setText("");
-                }
-
-                // Always start unchecked; user must intentionally release
-                releaseCheck.setSelected(false);
-                toggleReleaseMode();
-
-                // Show status in title
-                setTitle("Edit Seat – " + seatNumber + " / " + flightNumber + " [" + (s.isBooked() ? "BOOKED" : "AVAILABLE") + "]");
-                break;
-            }
+        Seat s = db.getSeat(flightId, seatNumber);
+        if (s == null) return;
+        SeatStatus status = s.getStatus();
+        if (status == SeatStatus.AVAILABLE) {
+            holdId = db.holdSeat(flightId, seatNumber, DatabaseService.DEFAULT_HOLD_MILLIS);
+        }
+        bookedAtOpen = status == SeatStatus.BOOKED;
+        heldByOther = holdId < 0 && !bookedAtOpen; // HELD, or another agent got to it first
+        if (s.getPassenger() != null) {
+            firstField.setText(s.getPassenger().getFirstName());
+            lastField.setText(s.getPassenger().getLastName());
+            dobField.setText(s.getPassenger().getDateOfBirth());
+        } else {
+            firstField.setText("");
+            lastField.setText("");
+            dobField.setText("");
         }
+
+        // Always start unchecked; user must intentionally release
+        releaseCheck.setSelected(false);
+        toggleReleaseMode();
+
+        // Show status in title
+        setTitle("Edit Seat – " + seatNumber + " / " + flightNumber + " [" + (heldByOther ? "HELD by another agent" : s.isBooked() ? "BOOKED" : "AVAILABLE") + "]");
     }
 
     private void toggleReleaseMode() {
@@ -197,7 +205,19 @@ public class SeatEditorDialog extends JDialog {
         }
 
         Passenger p = new Passenger(first, last, dob);
-        boolean ok = db.bookSeat(flightId, seatNumber, p); // autosaves
+        boolean ok;
+        if (holdId > 0) {
+            // Our hold may have expired; then the seat is only ours if it is still free
+            ok = db.bookHeld(holdId, p) || db.tryBook(flightId, seatNumber, p); // autosaves
+        } else if (bookedAtOpen) {
+            ok = db.bookSeat(flightId, seatNumber, p); // changes the booking shown; autosaves
+        } else {
+            ok = db.tryBook(flightId, seatNumber, p);  // never overwrites another agent's hold or booking
+            if (!ok && db.getSeat(flightId, seatNumber) != null) {
+                JOptionPane.showMessageDialog(this, "Another agent is booking this seat. Please pick another one.", "Seat Held", JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+        }
         if (!ok) {
             JOptionPane.showMessageDialog(this, "Failed to book seat. Please try again.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -213,6 +233,16 @@ public class SeatEditorDialog extends JDialog {
                 JComponent.WHEN_IN_FOCUSED_WINDOW);
     }
 
+    /** Also ends our hold, if the seat was not booked through it. */
+    @Override
+    public void dispose() {
+        if (holdId > 0) {
+            db.releaseHold(holdId);
+            holdId = -1;
+        }
+        super.dispose();
+    }
+
     public void openModal() {
         setVisible(true);
     }
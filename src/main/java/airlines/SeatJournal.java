@@ -0,0 +1,222 @@
+package airlines;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * SeatJournal - append-only log of seat changes kept next to the database file.
+ *
+ * Record (one line, UTF-8, LF):
+ *   flightId,seatNumber,status,firstName,lastName,dateOfBirth
+ *
+ * Each record holds the full new state of one seat, so replaying a record again is harmless.
+ * During compaction the active log is rolled to "<db>.journal.compacting"; that segment is
+ * deleted once a snapshot containing its changes has been written.
+ */
+final class SeatJournal implements Closeable {
+    private static final Log LOG = Log.get(SeatJournal.class);
+
+    static final String SUFFIX = ".journal";
+    static final String ROLLED_SUFFIX = ".journal.compacting";
+
+    private final Path active;
+    private final Path rolled;
+    private FileChannel channel; // opened on first append
+
+    SeatJournal(String dbPath) {
+        this.active = activePath(dbPath);
+        this.rolled = rolledPath(dbPath);
+    }
+
+    static Path activePath(String dbPath) {
+        return Path.of(dbPath + SUFFIX);
+    }
+
+    static Path rolledPath(String dbPath) {
+        return Path.of(dbPath + ROLLED_SUFFIX);
+    }
+
+    /** Appends one seat record; returns the size of the active log afterwards. */
+    synchronized long append(String flightId, Seat seat) throws IOException {
+        return write(format(flightId, seat));
+    }
+
+    /** Appends records for several seats of one flight in a single write; returns the log size. */
+    synchronized long appendAll(String flightId, List<Seat> seats) throws IOException {
+        StringBuilder records = new StringBuilder(seats.size() * 48);
+        for (Seat seat : seats) records.append(format(flightId, seat));
+        return write(records.toString());
+    }
+
+    /** Current size of the active log in bytes. */
+    synchronized long size() throws IOException {
+        if (channel != null) return channel.size();
+        return Files.exists(active) ? Files.size(active) : 0L;
+    }
+
+    /**
+     * Moves the active log aside so a snapshot can absorb it; later appends start a new log.
+     * If a rolled segment from an earlier failed compaction is still there, the active log is
+     * appended to it so replay order is preserved.
+     */
+    synchronized void roll() throws IOException {
+        closeChannel();
+        if (!Files.exists(active)) return;
+        if (Files.exists(rolled)) {
+            Files.write(rolled, Files.readAllBytes(active), StandardOpenOption.APPEND);
+            Files.delete(active);
+        } else {
+            Files.move(active, rolled, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /** Drops the rolled segment after its changes are safely in a snapshot. */
+    synchronized void deleteRolled() throws IOException {
+        Files.deleteIfExists(rolled);
+    }
+
+    /** Drops every journal segment; called after a full snapshot has been written. */
+    synchronized void reset() throws IOException {
+        closeChannel();
+        Files.deleteIfExists(rolled);
+        Files.deleteIfExists(active);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    /**
+     * Applies journal records for dbPath (rolled segment first, then the active log) to the
+     * given flights. Records for unknown flights/seats and malformed lines are skipped.
+     * @return number of records applied
+     */
+    static int replay(String dbPath, List<Flight> flights) {
+        Map<String, Flight> byId = new HashMap<>();
+        for (Flight f : flights) byId.putIfAbsent(f.getId(), f);
+        return replayFile(rolledPath(dbPath), byId) + replayFile(activePath(dbPath), byId);
+    }
+
+    /** Ids of the flights that have records in the journal for dbPath (rolled and active). */
+    static Set<String> flightIds(String dbPath) {
+        Set<String> ids = new LinkedHashSet<>();
+        collectFlightIds(rolledPath(dbPath), ids);
+        collectFlightIds(activePath(dbPath), ids);
+        return ids;
+    }
+
+    static String format(String flightId, Seat seat) {
+        Passenger p = seat.getPassenger();
+        return flightId + ','
+                + seat.getSeatNumber() + ','
+                + seat.persistedStatus().name() + ','
+                + (p != null ? p.getFirstName() : "") + ','
+                + (p != null ? p.getLastName() : "") + ','
+                + (p != null ? p.getDateOfBirth() : "") + '\n';
+    }
+
+    // ---------- helpers ----------
+    private long write(String records) throws IOException {
+        FileChannel ch = openChannel();
+        ByteBuffer buf = ByteBuffer.wrap(records.getBytes(StandardCharsets.UTF_8));
+        while (buf.hasRemaining()) ch.write(buf);
+        return ch.size();
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(active,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            terminateTornRecord(channel);
+        }
+        return channel;
+    }
+
+    /** A crash mid-append can leave a partial last line; start new records on a fresh line. */
+    private static void terminateTornRecord(FileChannel ch) throws IOException {
+        long size = ch.size();
+        if (size == 0) return;
+        ByteBuffer last = ByteBuffer.allocate(1);
+        ch.read(last, size - 1);
+        if (last.get(0) != '\n') {
+            ch.write(ByteBuffer.wrap(new byte[]{'\n'}));
+        }
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            try {
+                channel.close();
+            } finally {
+                channel = null;
+            }
+        }
+    }
+
+    private static void collectFlightIds(Path log, Set<String> ids) {
+        if (!Files.exists(log)) return;
+        try (BufferedReader br = Files.newBufferedReader(log, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                int comma = line.indexOf(',');
+                if (comma > 0) ids.add(line.substring(0, comma));
+            }
+        } catch (IOException e) {
+            LOG.warn("Error reading " + log + ": " + e.getMessage());
+        }
+    }
+
+    private static int replayFile(Path log, Map<String, Flight> byId) {
+        if (!Files.exists(log)) return 0;
+        int applied = 0;
+        // A damaged journal can have thousands of bad records: log a few, count the rest
+        try (BufferedReader br = Files.newBufferedReader(log, StandardCharsets.UTF_8);
+             Log.Limiter skipped = LOG.limit(Level.WARNING, FileStorage.MALFORMED_ROWS_LOGGED, "records skipped in " + log)) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isBlank()) continue;
+
+                String record = line;
+                String[] cols = line.split(",", -1);
+                if (cols.length != 6) {
+                    skipped.log(() -> "Skipping malformed record: " + record);
+                    continue;
+                }
+                Flight flight = byId.get(cols[0]);
+                Seat seat = flight == null ? null : flight.getSeat(cols[1]);
+                if (seat == null) {
+                    skipped.log(() -> "Skipping record for unknown seat: " + record);
+                    continue;
+                }
+                if ("BOOKED".equals(cols[2])) {
+                    seat.setPassenger(new Passenger(cols[3], cols[4], cols[5]));
+                } else if ("AVAILABLE".equals(cols[2])) {
+                    seat.clearPassenger();
+                } else {
+                    skipped.log(() -> "Skipping record with invalid status: " + record);
+                    continue;
+                }
+                applied++;
+            }
+        } catch (IOException e) {
+            LOG.warn("Error replaying " + log + ": " + e.getMessage());
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,267 @@
+package airlines;
+
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * SeatMapPanel - graphical cabin view of one flight: a line of cells per seat row and a column
+ * per seat letter (the "12C" structure generateSeats produces), coloured by SeatStatus.
+ *
+ * Follows a SeatTableModel. The cabin is drawn once into a backing image and paintComponent only
+ * copies the visible (clipped) part of it; a single-row update from the model redraws and
+ * repaints that one seat's cell, a reload rebuilds the layout and the image. Implements
+ * Scrollable so a JScrollPane moves by whole seat rows even for 200-row, 10-letter cabins.
+ * Clicking a seat hands its number to the click handler. Event thread only.
+ */
+public class SeatMapPanel extends JComponent implements Scrollable {
+    static final int CELL_W = 44;
+    static final int CELL_H = 28;
+    static final int GAP = 4;
+    static final int AISLE = 20;       // between the two halves of the letters (4+ letters)
+    static final int LABEL_W = 36;     // row numbers on the left
+    static final int MARGIN = 8;
+
+    private static final Color AVAILABLE = new Color(198, 234, 198);
+    private static final Color BOOKED = new Color(232, 168, 168);
+    private static final Color HELD = new Color(248, 218, 140);
+
+    private final SeatTableModel model;
+    private final Consumer<String> onSeatClicked;
+
+    // Layout, rebuilt on reload
+    private int[] rowNumbers = new int[0];      // cabin rows, ascending
+    private char[] letters = new char[0];       // seat letters, ascending
+    private int[] cellOfRow = new int[0];       // model row -> cell (line * letters + column); -1 = not on the map
+    private int[] rowOfCell = new int[0];       // cell -> model row; -1 = no seat there
+    private BufferedImage image;                // whole cabin; null until painted after a rebuild
+
+    public SeatMapPanel(SeatTableModel model, Consumer<String> onSeatClicked) {
+        this.model = model;
+        this.onSeatClicked = onSeatClicked;
+        setOpaque(true);
+        setBackground(Color.WHITE);
+        setFont(new JLabel().getFont().deriveFont(11f));
+        ToolTipManager.sharedInstance().registerComponent(this);
+        model.addTableModelListener(this::modelChanged);
+        addMouseListener(new MouseAdapter() {
+            @Override public void mouseClicked(MouseEvent e) {
+                int row = rowAt(e.getPoint());
+                if (row >= 0 && e.getButton() == MouseEvent.BUTTON1) {
+                    onSeatClicked.accept(model.getSeatAt(row).getSeatNumber());
+                }
+            }
+        });
+        rebuild();
+    }
+
+    /** Model row of the seat under p; -1 if p is not on a seat. */
+    public int rowAt(Point p) {
+        int line = (p.y - MARGIN) / (CELL_H + GAP);
+        if (p.y < MARGIN || line >= rowNumbers.length) return -1;
+        for (int col = 0; col < letters.length; col++) {
+            int x = cellX(col);
+            if (p.x >= x && p.x < x + CELL_W && (p.y - MARGIN) % (CELL_H + GAP) < CELL_H) {
+                return rowOfCell[line * letters.length + col];
+            }
+        }
+        return -1;
+    }
+
+    /** Where the seat in this model row is drawn; null if it is not on the map. */
+    public Rectangle cellBounds(int row) {
+        if (row < 0 || row >= cellOfRow.length || cellOfRow[row] < 0) return null;
+        int cell = cellOfRow[row];
+        return new Rectangle(cellX(cell % letters.length), MARGIN + (cell / letters.length) * (CELL_H + GAP), CELL_W, CELL_H);
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent e) {
+        int row = rowAt(e.getPoint());
+        if (row < 0) return null;
+        Seat s = model.getSeatAt(row);
+        Passenger p = s.getPassenger();
+        return s.getSeatNumber() + " – " + s.getStatus() + (p == null ? "" : " (" + p.getFullName() + ")");
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (image == null) image = render();
+        // Only the dirty/visible part is copied, whatever the size of the cabin
+        int x2 = Math.min(clip.x + clip.width, image.getWidth());
+        int y2 = Math.min(clip.y + clip.height, image.getHeight());
+        if (x2 > clip.x && y2 > clip.y) {
+            g.drawImage(image, clip.x, clip.y, x2, y2, clip.x, clip.y, x2, y2, null);
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        int width = cellX(letters.length) + MARGIN;
+        int height = MARGIN * 2 + rowNumbers.length * (CELL_H + GAP);
+        return new Dimension(width, height);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        Dimension d = getPreferredSize();
+        return new Dimension(d.width, Math.min(d.height, MARGIN * 2 + 14 * (CELL_H + GAP)));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visible, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? CELL_H + GAP : CELL_W + GAP;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visible, int orientation, int direction) {
+        int unit = getScrollableUnitIncrement(visible, orientation, direction);
+        int extent = orientation == SwingConstants.VERTICAL ? visible.height : visible.width;
+        return Math.max(unit, extent - unit); // a page, keeping one line in view
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return getParent() instanceof JViewport v && v.getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() instanceof JViewport v && v.getHeight() > getPreferredSize().height;
+    }
+
+    // Single-row updates redraw one cell; anything else (reload, structure) rebuilds.
+    private void modelChanged(TableModelEvent e) {
+        boolean rowsUpdated = e.getType() == TableModelEvent.UPDATE
+                && e.getFirstRow() >= 0 && e.getLastRow() != Integer.MAX_VALUE
+                && e.getLastRow() < cellOfRow.length;
+        if (!rowsUpdated) {
+            rebuild();
+            return;
+        }
+        for (int row = e.getFirstRow(); row <= e.getLastRow(); row++) {
+            Rectangle r = cellBounds(row);
+            if (r == null) continue;
+            if (image != null) {
+                Graphics2D g = image.createGraphics();
+                try {
+                    paintCell(g, row, r);
+                } finally {
+                    g.dispose();
+                }
+            }
+            repaint(r);
+        }
+    }
+
+    private void rebuild() {
+        FlightRecorderEvents.UiReload event = new FlightRecorderEvents.UiReload();
+        event.begin();
+        int n = model.getRowCount();
+        int[] seatRow = new int[n];
+        char[] seatLetter = new char[n];
+        TreeSet<Integer> lines = new TreeSet<>();
+        TreeSet<Character> cols = new TreeSet<>();
+        for (int row = 0; row < n; row++) {
+            String number = model.getSeatAt(row).getSeatNumber();
+            int digits = 0;
+            while (digits < number.length() && Character.isDigit(number.charAt(digits))) digits++;
+            // "<row><letter>" only; anything else stays in the table but off the map
+            if (digits == 0 || digits > 4 || number.length() != digits + 1) {
+                seatRow[row] = -1;
+                continue;
+            }
+            seatRow[row] = Integer.parseInt(number, 0, digits, 10);
+            seatLetter[row] = Character.toUpperCase(number.charAt(digits));
+            lines.add(seatRow[row]);
+            cols.add(seatLetter[row]);
+        }
+        rowNumbers = lines.stream().mapToInt(Integer::intValue).toArray();
+        letters = new char[cols.size()];
+        int i = 0;
+        for (char c : cols) letters[i++] = c;
+
+        cellOfRow = new int[n];
+        rowOfCell = new int[rowNumbers.length * letters.length];
+        Arrays.fill(rowOfCell, -1);
+        for (int row = 0; row < n; row++) {
+            cellOfRow[row] = -1;
+            if (seatRow[row] < 0) continue;
+            int cell = Arrays.binarySearch(rowNumbers, seatRow[row]) * letters.length
+                    + Arrays.binarySearch(letters, seatLetter[row]);
+            if (rowOfCell[cell] >= 0) continue; // same seat twice: the first one is shown
+            rowOfCell[cell] = row;
+            cellOfRow[row] = cell;
+        }
+        image = null;
+        revalidate();
+        repaint();
+        event.end();
+        if (event.shouldCommit()) {
+            event.view = "SeatMapPanel";
+            event.rows = n;
+            event.commit();
+        }
+    }
+
+    private BufferedImage render() {
+        Dimension d = getPreferredSize();
+        BufferedImage img = new BufferedImage(Math.max(1, d.width), Math.max(1, d.height), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setColor(getBackground());
+            g.fillRect(0, 0, img.getWidth(), img.getHeight());
+            g.setFont(getFont());
+            FontMetrics fm = g.getFontMetrics();
+            g.setColor(Color.DARK_GRAY);
+            for (int line = 0; line < rowNumbers.length; line++) {
+                String label = String.valueOf(rowNumbers[line]);
+                int y = MARGIN + line * (CELL_H + GAP);
+                g.drawString(label, MARGIN + LABEL_W - GAP * 2 - fm.stringWidth(label), y + (CELL_H + fm.getAscent()) / 2 - 2);
+            }
+            for (int row = 0; row < cellOfRow.length; row++) {
+                Rectangle r = cellBounds(row);
+                if (r != null) paintCell(g, row, r);
+            }
+        } finally {
+            g.dispose();
+        }
+        return img;
+    }
+
+    private void paintCell(Graphics2D g, int row, Rectangle r) {
+        Seat s = model.getSeatAt(row);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setFont(getFont());
+        g.setColor(switch (s.getStatus()) {
+            case AVAILABLE -> AVAILABLE;
+            case BOOKED -> BOOKED;
+            case HELD -> HELD;
+        });
+        g.fillRect(r.x, r.y, r.width, r.height);
+        g.setColor(Color.GRAY);
+        g.drawRect(r.x, r.y, r.width - 1, r.height - 1);
+        FontMetrics fm = g.getFontMetrics();
+        String label = s.getSeatNumber();
+        g.setColor(Color.BLACK);
+        g.drawString(label, r.x + (r.width - fm.stringWidth(label)) / 2, r.y + (r.height + fm.getAscent()) / 2 - 2);
+    }
+
+    // Left edge of a letter column; column == letters.length is the right edge of the cabin.
+    private int cellX(int column) {
+        int x = MARGIN + LABEL_W + column * (CELL_W + GAP);
+        if (letters.length >= 4 && column >= (letters.length + 1) / 2) x += AISLE;
+        return x;
+    }
+}
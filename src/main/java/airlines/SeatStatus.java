@@ -1,5 +1,6 @@
 package airlines;
 public enum SeatStatus {
     AVAILABLE,
-    BOOKED
+    BOOKED,
+    HELD        // reserved for a while (DatabaseService.holdSeat); never saved, reads back AVAILABLE
 }
@@ -0,0 +1,97 @@
+package airlines;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SeatTableModel - JTable model over one flight's seats: Seat, Status, Passenger, DOB.
+ *
+ * Cells are read from the Seat objects when the table paints them, so nothing is copied
+ * into Swing's storage and only visible rows are ever formatted. reload() re-reads the seat
+ * list (Refresh, flight replaced); seatChanged() re-reads and repaints a single row.
+ * Event thread only, like any Swing model.
+ */
+public class SeatTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Seat", "Status", "Passenger", "DOB"};
+
+    private final DatabaseService db;
+    private final String flightId;
+    private final List<Seat> seats = new ArrayList<>();              // row -> seat
+    private IgnoreCaseIndex<Integer> rowBySeat = new IgnoreCaseIndex<>(); // seat number -> row
+
+    public SeatTableModel(DatabaseService db, String flightId) {
+        this.db = db;
+        this.flightId = flightId;
+    }
+
+    /** Re-reads every seat of the flight (empty if it no longer exists). */
+    public void reload() {
+        FlightRecorderEvents.UiReload event = new FlightRecorderEvents.UiReload();
+        event.begin();
+        List<Seat> current = db.getSeats(flightId);
+        seats.clear();
+        seats.addAll(current);
+        rowBySeat = new IgnoreCaseIndex<>(seats.size());
+        for (int i = 0; i < seats.size(); i++) rowBySeat.putIfAbsent(seats.get(i).getSeatNumber(), i);
+        fireTableDataChanged(); // listeners (table, seat map) rebuild inside the event
+        event.end();
+        if (event.shouldCommit()) {
+            event.view = "SeatTableModel " + flightId;
+            event.rows = seats.size();
+            event.commit();
+        }
+    }
+
+    /**
+     * Re-reads one seat and repaints its row only.
+     * @return false if the seat is not in the table or gone from the flight (call reload())
+     */
+    public boolean seatChanged(String seatNumber) {
+        Integer row = seatNumber == null ? null : rowBySeat.get(seatNumber);
+        if (row == null) return false;
+        // Fresh lookup: the flight may have swapped its Seat objects (compact/lazy reload)
+        Seat seat = db.getSeat(flightId, seatNumber);
+        if (seat == null) return false;
+        seats.set(row, seat);
+        fireTableRowsUpdated(row, row);
+        return true;
+    }
+
+    public Seat getSeatAt(int row) {
+        return seats.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return seats.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Seat s = seats.get(row);
+        Passenger p = s.getPassenger();
+        return switch (column) {
+            case 0 -> s.getSeatNumber();
+            case 1 -> s.getStatus().name();
+            case 2 -> p == null ? "" : p.getFullName();
+            case 3 -> p == null ? "" : p.getDateOfBirth();
+            default -> null;
+        };
+    }
+}
@@ -1,22 +1,28 @@
 package airlines;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.KeyEvent;
-import java.util.List;
 
+/**
+ * Seat table for one flight (a SeatTableModel reading the seats directly). Follows
+ * DatabaseService.changes(): a booking made here or anywhere else repaints just that seat's
+ * row; the seat list is only re-read on Refresh, a reload or when change events were missed.
+ * A SeatMapPanel over the same model shows the cabin graphically; clicking a seat edits it.
+ */
 public class SeatsFrame extends JFrame {
     private final DatabaseService db;
     private final String flightId;
     private final String flightNumber;
 
     private final JTable table;
-    private final DefaultTableModel model;
+    private final SeatTableModel model;
+    private final SeatMapPanel seatMap;
     private final JButton editBtn = new JButton("Edit Seat");
     private final JButton backBtn = new JButton("Back");
     private final JButton refreshBtn = new JButton("Refresh");
+    private final SwingChangeSubscriber changes;
 
     public SeatsFrame(DatabaseService db, String flightId, String flightNumber) {
         super("Seats – " + flightNumber + " (" + flightId + ")");
@@ -26,15 +32,15 @@ public class SeatsFrame extends JFrame {
 
         setJMenuBar(buildMenuBar());               // <-- Menu bar
 
-        model = new DefaultTableModel(new Object[]{"Seat", "Status", "Passenger", "DOB"}, 0) {
-            @Override public boolean isCellEditable(int row, int column) { return false; }
-        };
+        model = new SeatTableModel(db, flightId);
         table = new JTable(model);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         table.setRowHeight(22);
         table.setAutoCreateRowSorter(true);
+        seatMap = new SeatMapPanel(model, this::openEditor);
 
         initComponents();
+        changes = SwingChangeSubscriber.subscribe(db, this::applyChange, this::loadSeats); // before loading: no change is missed
         loadSeats();
 
         setSize(800, 520);
@@ -108,30 +114,41 @@ public class SeatsFrame extends JFrame {
 
         setLayout(new BorderLayout(8, 8));
         add(header, BorderLayout.NORTH);
-        add(new JScrollPane(table), BorderLayout.CENTER);
+        JTabbedPane views = new JTabbedPane();
+        views.addTab("Seat Map", new JScrollPane(seatMap));
+        views.addTab("Table", new JScrollPane(table));
+        add(views, BorderLayout.CENTER);
         add(south, BorderLayout.SOUTH);
         ((JComponent) getContentPane()).setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
     }
 
     private void loadSeats() {
-        model.setRowCount(0);
-        List<Seat> seats = db.getSeats(flightId);
-        for (Seat s : seats) {
-            String name = s.getPassenger() == null ? "" : s.getPassenger().getFullName();
-            String dob  = s.getPassenger() == null ? "" : s.getPassenger().getDateOfBirth();
-            model.addRow(new Object[]{ s.getSeatNumber(), s.getStatus().name(), name, dob });
-        }
+        model.reload();
         editBtn.setEnabled(false);
     }
 
+    // Event thread. Repaints the one row a seat event is about.
+    private void applyChange(ChangeEvent e) {
+        if (!flightId.equalsIgnoreCase(e.flightId())) return;
+        if (e.kind() == ChangeEvent.Kind.SEAT && model.seatChanged(e.seatNumber())) return;
+        loadSeats(); // flight deleted/re-added, or a seat we don't show
+    }
+
+    @Override
+    public void dispose() {
+        changes.cancel();
+        super.dispose();
+    }
+
     private void openEditorForSelected() {
         int viewRow = table.getSelectedRow();
         if (viewRow < 0) return;
         int row = table.convertRowIndexToModel(viewRow);
-        String seatNumber = (String) model.getValueAt(row, 0);
+        openEditor(model.getSeatAt(row).getSeatNumber());
+    }
 
+    private void openEditor(String seatNumber) {
         SeatEditorDialog dlg = new SeatEditorDialog(this, db, flightId, flightNumber, seatNumber);
-        dlg.openModal();
-        loadSeats();
+        dlg.openModal(); // its change arrives as an event
     }
 }
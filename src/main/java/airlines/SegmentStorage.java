@@ -0,0 +1,253 @@
+package airlines;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.System.Logger.Level;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * SegmentStorage - database directory with one segment file per flight.
+ *
+ * Layout:
+ *   <dir>/manifest.txt      "# NUA-DB segments v1 | flightId,flightNumber,segmentFile", one line per flight
+ *   <dir>/seg-000001.dat    one flight as a normal v1 CSV or v2 binary file (see FileStorage)
+ *
+ * Segment file names are assigned once and never reused for another flight, so a flight can be
+ * rewritten or deleted without touching the others. Write order keeps the directory consistent
+ * after a crash: changed segments first, then the manifest, then deleted segments.
+ *
+ * One instance per open database tracks the id -> file mapping and, per flight, the newest
+ * version written, so an older background save never overwrites a newer segment.
+ */
+final class SegmentStorage {
+
+    static final String MANIFEST = "manifest.txt";
+
+    private static final Log LOG = Log.get(SegmentStorage.class);
+
+    private static final String MANIFEST_HEADER = "# NUA-DB segments v1 | flightId,flightNumber,segmentFile";
+    private static final String SEGMENT_PREFIX = "seg-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    /** One manifest line; file is null for a flight whose segment is not assigned yet. */
+    record Entry(String flightId, String flightNumber, String file) {}
+
+    private final Path dir;
+    private final Map<String, String> files = new HashMap<>();   // flightId -> segment file name
+    private final Map<String, Long> written = new HashMap<>();   // flightId -> newest version written
+    private long manifestVersion = -1;
+    private int nextSegment = 1;
+
+    SegmentStorage(Path dir) {
+        this.dir = dir;
+    }
+
+    /**
+     * Re-reads the manifest, e.g. after the directory was (re)loaded or rewritten.
+     * Written versions are kept so a save still in flight cannot go backwards.
+     */
+    synchronized void refresh() throws IOException {
+        files.clear();
+        nextSegment = 1;
+        for (Entry e : readManifest(dir)) {
+            files.put(e.flightId(), e.file());
+            nextSegment = Math.max(nextSegment, segmentNumber(e.file()) + 1);
+        }
+    }
+
+    /**
+     * Persists one batch of changes taken at the given version.
+     * @param changed  flights whose segment must be rewritten
+     * @param manifest every flight in order, or null if the list of flights did not change
+     * @param deleted  ids of flights whose segment goes away
+     * @return nanoseconds spent moving the written files into place
+     */
+    synchronized long write(List<Flight> changed, List<Entry> manifest, List<String> deleted,
+                            StorageFormat format, long version) throws IOException {
+        Files.createDirectories(dir);
+        long syncTime = 0;
+        for (Flight f : changed) {
+            if (isNewer(f.getId(), version)) continue;
+            String file = files.computeIfAbsent(f.getId(), id -> nextFileName());
+            syncTime += FileStorage.writeSegment(dir.resolve(file), f, format);
+            written.put(f.getId(), version);
+        }
+        if (manifest != null && version >= manifestVersion) {
+            syncTime += writeManifest(manifest);
+            manifestVersion = version;
+        }
+        for (String id : deleted) {
+            if (isNewer(id, version)) continue; // re-added and saved again since
+            String file = files.remove(id);
+            if (file != null) Files.deleteIfExists(dir.resolve(file));
+            written.put(id, version);
+        }
+        return syncTime;
+    }
+
+    /**
+     * Reads one flight through the current manifest mapping; null if it has no segment (yet) or
+     * the segment is unreadable. Segments are replaced atomically, so this can run during a write.
+     */
+    Flight readFlight(String flightId) {
+        String file;
+        synchronized (this) {
+            file = files.get(flightId);
+        }
+        return file == null ? null : readSegment(dir, flightId, file);
+    }
+
+    // ---------- whole-directory operations (used by FileStorage) ----------
+
+    /** Reads every flight listed in the manifest; a missing or unreadable segment is skipped. */
+    static LinkedHashMap<String, Flight> readAll(Path dir) throws IOException {
+        LinkedHashMap<String, Flight> flights = new LinkedHashMap<>();
+        try (Log.Limiter problems = LOG.limit(Level.WARNING, FileStorage.MALFORMED_ROWS_LOGGED, "bad segments in " + dir)) {
+            for (Entry e : readManifest(dir)) {
+                Flight f = readSegment(dir, e.flightId(), e.file(), problems);
+                if (f != null) flights.putIfAbsent(f.getId(), f);
+            }
+        }
+        return flights;
+    }
+
+    /** Reads one segment; null (with a message) if it is missing, unreadable or holds another flight. */
+    static Flight readSegment(Path dir, String flightId, String file) {
+        return readSegment(dir, flightId, file, null);
+    }
+
+    // problems: where a bad segment is reported; null logs it directly.
+    private static Flight readSegment(Path dir, String flightId, String file, Log.Limiter problems) {
+        try {
+            Flight f = FileStorage.parse(dir.resolve(file)).get(flightId);
+            if (f == null) report(problems, () -> "Segment " + file + " has no flight " + flightId);
+            return f;
+        } catch (IOException ex) {
+            report(problems, () -> "Skipping unreadable segment " + file + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private static void report(Log.Limiter problems, Supplier<String> message) {
+        if (problems != null) problems.log(message);
+        else LOG.warn(message);
+    }
+
+    /**
+     * Rewrites the whole directory with exactly these flights and removes every other segment.
+     * @return nanoseconds spent moving the written files into place
+     */
+    static long writeAll(Path dir, List<Flight> flights, StorageFormat format) throws IOException {
+        SegmentStorage storage = new SegmentStorage(dir);
+        storage.refresh();
+        Set<String> keep = new HashSet<>();
+        for (Flight f : flights) keep.add(f.getId());
+        List<String> dropped = new ArrayList<>();
+        for (String id : storage.files.keySet()) {
+            if (!keep.contains(id)) dropped.add(id);
+        }
+        long syncTime = storage.write(flights, entries(flights), dropped, format, 0);
+        storage.deleteOrphans();
+        return syncTime;
+    }
+
+    /** Manifest entries for the flights, in order (file names are filled in when written). */
+    static List<Entry> entries(List<Flight> flights) {
+        List<Entry> entries = new ArrayList<>(flights.size());
+        for (Flight f : flights) entries.add(new Entry(f.getId(), f.getFlightNumber(), null));
+        return entries;
+    }
+
+    /** Manifest lines in file order; empty when there is no manifest yet. Malformed lines are skipped. */
+    static List<Entry> readManifest(Path dir) throws IOException {
+        Path manifest = dir.resolve(MANIFEST);
+        List<Entry> entries = new ArrayList<>();
+        if (!Files.exists(manifest)) return entries;
+        try (BufferedReader r = Files.newBufferedReader(manifest, StandardCharsets.UTF_8);
+             Log.Limiter malformed = LOG.limit(Level.WARNING, FileStorage.MALFORMED_ROWS_LOGGED, "malformed lines skipped in " + manifest)) {
+            String line;
+            int lineNo = 0;
+            while ((line = r.readLine()) != null) {
+                lineNo++;
+                String trimmed = line.strip();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+                String[] parts = trimmed.split(",", -1);
+                if (parts.length != 3 || parts[0].isBlank() || parts[1].isBlank() || !isSegmentName(parts[2].strip())) {
+                    int n = lineNo;
+                    String bad = line;
+                    malformed.log(() -> "Skipping malformed manifest line " + n + ": " + bad);
+                    continue;
+                }
+                entries.add(new Entry(parts[0].strip(), parts[1].strip(), parts[2].strip()));
+            }
+        }
+        return entries;
+    }
+
+    // ---------- helpers ----------
+    private boolean isNewer(String flightId, long version) {
+        Long done = written.get(flightId);
+        return done != null && done > version;
+    }
+
+    // Returns the time the final move took.
+    private long writeManifest(List<Entry> manifest) throws IOException {
+        Path tmp = dir.resolve(MANIFEST + ".tmp");
+        try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            w.write(MANIFEST_HEADER);
+            w.write('\n');
+            for (Entry e : manifest) {
+                String file = files.get(e.flightId());
+                if (file == null) continue; // segment never written; listed on the next save
+                w.write(e.flightId());
+                w.write(',');
+                w.write(e.flightNumber());
+                w.write(',');
+                w.write(file);
+                w.write('\n');
+            }
+        }
+        long sync = System.nanoTime();
+        FileStorage.replaceAtomically(tmp, dir.resolve(MANIFEST));
+        return System.nanoTime() - sync;
+    }
+
+    // Segment files left behind by a crash between manifest update and delete
+    private void deleteOrphans() throws IOException {
+        Set<String> live = new HashSet<>(files.values());
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path p : ds) {
+                if (!live.contains(p.getFileName().toString())) Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private String nextFileName() {
+        return String.format("%s%06d%s", SEGMENT_PREFIX, nextSegment++, SEGMENT_SUFFIX);
+    }
+
+    private static boolean isSegmentName(String name) {
+        return segmentNumber(name) > 0;
+    }
+
+    private static int segmentNumber(String name) {
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) return -1;
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package airlines;
+
+/**
+ * On-disk formats understood by FileStorage.
+ * - V1_CSV: "# NUA-DB v1" text file, one row per seat (default)
+ * - V2_BINARY: compact "NUA-DB v2" binary snapshot (see BinaryStorage)
+ */
+public enum StorageFormat {
+    V1_CSV,
+    V2_BINARY
+}
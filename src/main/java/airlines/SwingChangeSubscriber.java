@@ -0,0 +1,78 @@
+package airlines;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * SwingChangeSubscriber - hands DatabaseService change events to a view on the Swing event thread.
+ *
+ * onEvent gets each event in order. When events were lost (a gap in the sequence numbers) or
+ * the database was reloaded, onResync runs instead so the view re-reads everything once.
+ * Requests the next event only after the event thread has applied the previous one, so at most
+ * one event waits in the Swing queue; a burst beyond the publisher's buffer is dropped and ends
+ * in one resync. cancel() when the view goes away.
+ */
+final class SwingChangeSubscriber implements Flow.Subscriber<ChangeEvent> {
+    private static final Log LOG = Log.get(SwingChangeSubscriber.class);
+
+    private final Consumer<ChangeEvent> onEvent;
+    private final Runnable onResync;
+    private volatile Flow.Subscription subscription;
+    private volatile boolean cancelled;
+    private long lastSequence = -1; // publisher thread only
+
+    private SwingChangeSubscriber(Consumer<ChangeEvent> onEvent, Runnable onResync) {
+        this.onEvent = onEvent;
+        this.onResync = onResync;
+    }
+
+    static SwingChangeSubscriber subscribe(DatabaseService db, Consumer<ChangeEvent> onEvent, Runnable onResync) {
+        SwingChangeSubscriber s = new SwingChangeSubscriber(onEvent, onResync);
+        db.changes().subscribe(s);
+        return s;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription s) {
+        subscription = s;
+        if (cancelled) s.cancel();
+        else s.request(1);
+    }
+
+    @Override
+    public void onNext(ChangeEvent e) {
+        boolean resync = (lastSequence >= 0 && e.sequence() != lastSequence + 1) || e.kind() == ChangeEvent.Kind.RELOADED;
+        lastSequence = e.sequence();
+        SwingUtilities.invokeLater(() -> {
+            if (cancelled) return;
+            try {
+                if (resync) onResync.run();
+                else onEvent.accept(e);
+            } finally {
+                // Only now ask for the next one: a busy event thread makes the publisher buffer
+                // (and drop) events instead of piling them up in the Swing event queue
+                subscription.request(1);
+            }
+        });
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        LOG.warn("Change events failed", t);
+        SwingUtilities.invokeLater(() -> {
+            if (!cancelled) onResync.run();
+        });
+    }
+
+    @Override
+    public void onComplete() {
+        // database closed; nothing more will change
+    }
+
+    void cancel() {
+        cancelled = true;
+        Flow.Subscription s = subscription;
+        if (s != null) s.cancel();
+    }
+}
@@ -0,0 +1,106 @@
+package airlines;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * TimingWheel - hashed timing wheel for many short-lived timeouts (seat holds).
+ *
+ * Time is cut into ticks of tickMillis. A timeout goes into bucket (deadline tick % buckets)
+ * together with the number of full turns still to go, in a doubly linked list. advance() only
+ * visits the buckets of the ticks that have passed, so schedule, cancel and expiry are O(1)
+ * per timeout, however many are outstanding. Timeouts never fire early; they fire at most one
+ * tick (plus the caller's polling delay) late.
+ *
+ * The caller passes the current time in, which keeps tests free of sleeps. Thread-safe: all
+ * methods lock the wheel, which is never held while calling out.
+ */
+final class TimingWheel<T> {
+
+    /** Handle for one scheduled item; pass it to cancel(). */
+    static final class Timeout<T> {
+        private final T item;
+        private long rounds;          // full turns of the wheel left before it is due
+        private int bucket = -1;      // -1 once expired or cancelled
+        private Timeout<T> prev, next;
+
+        private Timeout(T item) {
+            this.item = item;
+        }
+
+        T item() {
+            return item;
+        }
+    }
+
+    private final long tickMillis;
+    private final Timeout<T>[] buckets;
+    private long nextTick;            // first tick advance() has not processed yet
+    private int size;
+
+    TimingWheel(long tickMillis, int bucketCount, long startMillis) {
+        if (tickMillis <= 0 || bucketCount <= 0) throw new IllegalArgumentException("tick and bucket count must be > 0");
+        this.tickMillis = tickMillis;
+        @SuppressWarnings("unchecked") // only ever holds Timeout<T>
+        Timeout<T>[] empty = (Timeout<T>[]) new Timeout<?>[bucketCount];
+        this.buckets = empty;
+        this.nextTick = Math.floorDiv(startMillis, tickMillis);
+    }
+
+    /** Schedules item to come out of advance() once the clock reaches nowMillis + delayMillis. */
+    synchronized Timeout<T> schedule(T item, long nowMillis, long delayMillis) {
+        if (size == 0) nextTick = Math.max(nextTick, Math.floorDiv(nowMillis, tickMillis)); // wheel was idle
+        long deadline = nowMillis + Math.max(0, delayMillis);
+        long tick = Math.max(-Math.floorDiv(-deadline, tickMillis), nextTick); // ceil, not in the past
+        Timeout<T> t = new Timeout<>(item);
+        t.rounds = (tick - nextTick) / buckets.length;
+        t.bucket = (int) Math.floorMod(tick, (long) buckets.length);
+        t.next = buckets[t.bucket];
+        if (t.next != null) t.next.prev = t;
+        buckets[t.bucket] = t;
+        size++;
+        return t;
+    }
+
+    /** Removes a timeout that has not fired yet; false if it already expired or was cancelled. */
+    synchronized boolean cancel(Timeout<T> t) {
+        if (t == null || t.bucket < 0) return false;
+        unlink(t);
+        return true;
+    }
+
+    /** Processes every tick up to nowMillis and returns the items that fell due, in no particular order. */
+    synchronized List<T> advance(long nowMillis) {
+        List<T> due = new ArrayList<>();
+        long lastTick = Math.floorDiv(nowMillis, tickMillis);
+        for (; nextTick <= lastTick && size > 0; nextTick++) {
+            Timeout<T> t = buckets[(int) Math.floorMod(nextTick, (long) buckets.length)];
+            while (t != null) {
+                Timeout<T> following = t.next;
+                if (t.rounds == 0) {
+                    unlink(t);
+                    due.add(t.item);
+                } else {
+                    t.rounds--;
+                }
+                t = following;
+            }
+        }
+        if (size == 0 && nextTick <= lastTick) nextTick = lastTick + 1; // nothing pending: skip idle ticks
+        return due;
+    }
+
+    /** Timeouts scheduled and neither expired nor cancelled. */
+    synchronized int size() {
+        return size;
+    }
+
+    private void unlink(Timeout<T> t) {
+        if (t.prev != null) t.prev.next = t.next;
+        else buckets[t.bucket] = t.next;
+        if (t.next != null) t.next.prev = t.prev;
+        t.prev = t.next = null;
+        t.bucket = -1;
+        size--;
+    }
+}
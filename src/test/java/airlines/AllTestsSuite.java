@@ -17,6 +17,27 @@ import org.junit.jupiter.api.Test;
  * - FileStorageTest: Tests for the FileStorage class
  * - DatabaseServiceTest: Tests for the DatabaseService class
  * - FlightPersistenceTest: Tests for flight persistence functionality
+ * - SeatJournalTest: Tests for the seat journal and JOURNALED persistence mode
+ * - MappedCsvReaderTest: Tests for the memory-mapped CSV parser
+ * - BinaryStorageTest: Tests for the NUA-DB v2 binary format and v1/v2 conversion
+ * - GroupCommitTest: Tests for GROUP_COMMIT autosave, whenDurable() and flush()
+ * - SegmentStorageTest: Tests for per-flight segment directories and dirty-flight-only saves
+ * - LazyLoadingTest: Tests for lazy seat loading and eviction under a seat budget
+ * - IgnoreCaseIndexTest: Tests for the case-insensitive hash index behind seat/flight lookups
+ * - CompactFlightTest: Tests for the packed CompactFlight seat representation and its Seat views
+ * - FlightAvailabilityTest: Tests for the per-flight availability bitmap, counts and next-free-seat queries
+ * - ConcurrentBookingTest: Tests for concurrent bookings, saves, flight add/delete and tryBook/tryRelease races
+ * - GroupBookingTest: Tests for all-or-none bookSeats/releaseSeats/releaseAllSeats batches
+ * - TimingWheelTest: Tests for timing wheel deadlines, multi-turn timeouts and cancellation
+ * - SeatHoldTest: Tests for timed seat holds: booking through a hold, expiry, release and persistence
+ * - BookingHttpServerTest: Tests for the HTTP/JSON booking API: routing, status codes, concurrent bookings
+ * - ChangeEventsTest: Tests for the DatabaseService change-event stream: ordering, sequence gaps, completion
+ * - SeatTableModelTest: Tests for the seat table model: live cells, single-row updates, reloads
+ * - FlightListModelTest: Tests for the flight list model: bulk loads, prefix filter, add/remove under a filter
+ * - SeatMapPanelTest: Tests for the seat map: cabin layout, hit testing, single-cell repaint on seat changes
+ * - MetricsTest: Tests for latency histograms, allocation-free recording, service counters and their JMX export
+ * - FlightRecorderEventsTest: Tests for the JFR load/save/seat-update/UI-reload events and the airlines.jfc profile
+ * - LogTest: Tests for the async logging facade: lazy messages, ordering, malformed-row summaries, dropping when full
  */
 public class AllTestsSuite {
     
@@ -0,0 +1,108 @@
+package airlines;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BinaryStorageTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void v1ToV2ToV1RoundTripIsLossless() throws IOException {
+        Path v1 = tempDir.resolve("db.txt");
+        Files.write(v1, List.of(
+                "# NUA-DB v1 | flightId,flightNumber,seatNumber,status,firstName,lastName,dateOfBirth",
+                "F100,NU777,1A,AVAILABLE,,,",
+                "F100,NU777,1B,BOOKED,José,O'Connor,1990-01-01",
+                "F100,NU777,1C,BOOKED,,,",
+                "F200,NU888,1A,AVAILABLE,,,",
+                "F200,NU888,10C,BOOKED,Jane,Doe,1985-05-15"
+        ), StandardCharsets.UTF_8);
+        byte[] original = Files.readAllBytes(v1);
+
+        Path v2 = tempDir.resolve("db.bin");
+        FileStorage.convert(v1.toString(), v2.toString(), StorageFormat.V2_BINARY);
+        assertEquals(StorageFormat.V2_BINARY, FileStorage.detectFormat(v2.toString()));
+        assertTrue(Files.size(v2) < original.length);
+
+        Path back = tempDir.resolve("back.txt");
+        FileStorage.convert(v2.toString(), back.toString(), StorageFormat.V1_CSV);
+        assertEquals(StorageFormat.V1_CSV, FileStorage.detectFormat(back.toString()));
+        assertArrayEquals(original, Files.readAllBytes(back));
+    }
+
+    @Test
+    void readDetectsV2AndRestoresSeats() throws IOException {
+        Flight f = new Flight("F100", "NU777");
+        f.addSeat(new Seat("1A"));
+        f.addSeat(new Seat("1B", new Passenger("John", "Doe", "1990-01-01")));
+        Path v2 = tempDir.resolve("db.bin");
+        FileStorage.write(v2.toString(), List.of(f), StorageFormat.V2_BINARY);
+
+        List<Flight> flights = FileStorage.read(v2.toString());
+        assertEquals(1, flights.size());
+        Flight read = flights.get(0);
+        assertEquals("NU777", read.getFlightNumber());
+        assertEquals(2, read.getSeats().size());
+        assertFalse(read.getSeat("1A").isBooked());
+        assertEquals(new Passenger("John", "Doe", "1990-01-01"), read.getSeat("1B").getPassenger());
+    }
+
+    @Test
+    void truncatedV2FileFallsBackToDefaults() throws IOException {
+        Flight f = new Flight("F100", "NU777");
+        f.addSeat(new Seat("1A"));
+        Path v2 = tempDir.resolve("db.bin");
+        FileStorage.write(v2.toString(), List.of(f), StorageFormat.V2_BINARY);
+        byte[] bytes = Files.readAllBytes(v2);
+        Files.write(v2, Arrays.copyOf(bytes, bytes.length - 2));
+
+        List<Flight> flights = FileStorage.read(v2.toString());
+        assertEquals(2, flights.size()); // default dataset
+    }
+
+    @Test
+    void countsLargerThanTheFileAreRejectedBeforeAllocating() throws IOException {
+        Flight f = new Flight("F100", "NU777");
+        f.addSeat(new Seat("1A"));
+        Path v2 = tempDir.resolve("db.bin");
+        FileStorage.write(v2.toString(), List.of(f), StorageFormat.V2_BINARY);
+        byte[] good = Files.readAllBytes(v2);
+        int dictCount = BinaryStorage.MAGIC.length;
+        int flightCount = dictCount + 4 + 2 + "1A".length();
+        int seatCount = flightCount + 4 + 2 + "F100".length() + 2 + "NU777".length();
+
+        for (int offset : new int[] {dictCount, flightCount, seatCount}) {
+            byte[] bad = good.clone();
+            bad[offset] = 0x7F; // ~2 billion
+            Files.write(v2, bad);
+            IOException e = assertThrows(IOException.class, () -> BinaryStorage.read(v2), "count at " + offset);
+            assertTrue(e.getMessage().contains("bytes left"), e.getMessage());
+        }
+        Files.write(v2, good);
+        assertEquals(1, BinaryStorage.read(v2).size());
+    }
+
+    @Test
+    void databaseServiceKeepsV2OnSave() throws IOException {
+        String dbFile = tempDir.resolve("db.bin").toString();
+        FileStorage.convert(tempDir.resolve("seed.txt").toString(), dbFile, StorageFormat.V2_BINARY);
+
+        DatabaseService db = new DatabaseService(dbFile);
+        assertEquals(StorageFormat.V2_BINARY, db.getStorageFormat());
+        assertTrue(db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01")));
+        assertEquals(StorageFormat.V2_BINARY, FileStorage.detectFormat(dbFile));
+
+        DatabaseService reopened = new DatabaseService(dbFile);
+        assertTrue(reopened.getSeats("F001").get(0).isBooked());
+    }
+}
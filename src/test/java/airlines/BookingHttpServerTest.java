@@ -0,0 +1,141 @@
+package airlines;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class BookingHttpServerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final String JOHN = "{\"firstName\":\"John\",\"lastName\":\"Doe\",\"dateOfBirth\":\"1990-01-01\"}";
+
+    private static HttpResponse<String> call(HttpClient client, int port, String method, String path, String body) throws Exception {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        req.method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        return client.send(req.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void endpointsMapOntoDatabaseService() throws Exception {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.GROUP_COMMIT);
+             BookingHttpServer server = new BookingHttpServer(db, 0);
+             HttpClient client = HttpClient.newHttpClient()) {
+            db.setGroupCommitWindow(10); // each change waits for its save
+            server.start();
+            int port = server.getPort();
+
+            HttpResponse<String> r = call(client, port, "GET", "/flights", null);
+            assertEquals(200, r.statusCode());
+            assertTrue(r.body().contains("\"id\":\"F001\""), r.body());
+
+            assertEquals(200, call(client, port, "PUT", "/flights/F001/seats/1A", JOHN).statusCode());
+            assertEquals(409, call(client, port, "PUT", "/flights/F001/seats/1A", JOHN).statusCode());
+            assertEquals(404, call(client, port, "PUT", "/flights/F001/seats/99Z", JOHN).statusCode());
+            assertEquals(400, call(client, port, "PUT", "/flights/F001/seats/1B", "{\"firstName\":\"\"}").statusCode());
+            assertEquals(400, call(client, port, "PUT", "/flights/F001/seats/1B", "not json").statusCode());
+
+            r = call(client, port, "GET", "/flights/F001/seats", null);
+            assertTrue(r.body().contains("{\"seat\":\"1A\",\"status\":\"BOOKED\",\"passenger\":{\"firstName\":\"John\""), r.body());
+            r = call(client, port, "GET", "/flights/f001", null);
+            assertTrue(r.body().contains("\"booked\":1"), r.body());
+            assertEquals(404, call(client, port, "GET", "/flights/NOPE/seats", null).statusCode());
+
+            String flight = "{\"id\":\"H1\",\"flightNumber\":\"NU77\",\"startRow\":1,\"endRow\":2,\"seatLetters\":\"AB\"}";
+            assertEquals(201, call(client, port, "POST", "/flights", flight).statusCode());
+            assertEquals(409, call(client, port, "POST", "/flights", flight).statusCode());
+            assertEquals(4, db.getSeats("H1").size());
+            assertEquals(204, call(client, port, "DELETE", "/flights/H1", null).statusCode());
+            assertEquals(404, call(client, port, "DELETE", "/flights/H1", null).statusCode());
+
+            String jane = "{\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"dateOfBirth\":\"1991-02-02\"}";
+            assertEquals(409, call(client, port, "DELETE", "/flights/F001/seats/1A", jane).statusCode());
+            assertEquals(400, call(client, port, "DELETE", "/flights/F001/seats/1A", null).statusCode());
+            assertEquals(409, call(client, port, "DELETE", "/flights/F001/seats/1B", JOHN).statusCode());
+            assertEquals(200, call(client, port, "PUT", "/flights/F001/seats/1B", JOHN).statusCode());
+            assertEquals(204, call(client, port, "DELETE", "/flights/F001/seats/1B", JOHN).statusCode());
+            assertFalse(db.getSeat("F001", "1B").isBooked());
+            assertEquals(405, call(client, port, "PATCH", "/flights", null).statusCode());
+            assertEquals(404, call(client, port, "GET", "/", null).statusCode());
+            assertEquals(404, call(client, port, "GET", "/flights/F001/crew", null).statusCode());
+        }
+        // Answers came after the save, so everything acknowledged is on disk
+        assertTrue(new DatabaseService(dbFile).getSeat("F001", "1A").isBooked());
+    }
+
+    @Test
+    void changesWhoseSaveFailsAnswer500() throws Exception {
+        Path parent = tempDir.resolve("plain-file");
+        Files.writeString(parent, "x"); // saves below it fail
+        try (DatabaseService db = new DatabaseService(parent.resolve("db.txt").toString(), PersistenceMode.WRITE_THROUGH);
+             BookingHttpServer server = new BookingHttpServer(db, 0);
+             HttpClient client = HttpClient.newHttpClient()) {
+            server.start();
+            int port = server.getPort();
+
+            assertEquals(500, call(client, port, "PUT", "/flights/F001/seats/1A", JOHN).statusCode());
+            String flight = "{\"id\":\"H1\",\"flightNumber\":\"NU77\",\"startRow\":1,\"endRow\":2,\"seatLetters\":\"AB\"}";
+            assertEquals(500, call(client, port, "POST", "/flights", flight).statusCode());
+            assertEquals(409, call(client, port, "POST", "/flights", flight).statusCode()); // now it does exist
+            assertEquals(500, call(client, port, "DELETE", "/flights/F002", null).statusCode());
+            assertEquals(404, call(client, port, "DELETE", "/flights/F002", null).statusCode());
+        }
+    }
+
+    @Test
+    void concurrentClientsGetOneBookingPerSeat() throws Exception {
+        try (DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString(), PersistenceMode.GROUP_COMMIT);
+             BookingHttpServer server = new BookingHttpServer(db, 0);
+             HttpClient client = HttpClient.newHttpClient()) {
+            server.start();
+            List<String> seats = new ArrayList<>();
+            for (Seat s : db.getSeats("F002")) seats.add(s.getSeatNumber());
+
+            List<Future<Integer>> results = new ArrayList<>();
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int agent = 0; agent < 4; agent++) {
+                    for (String seat : seats) {
+                        results.add(pool.submit(() -> call(client, server.getPort(), "PUT", "/flights/F002/seats/" + seat, JOHN).statusCode()));
+                    }
+                }
+            }
+            int booked = 0;
+            for (Future<Integer> f : results) {
+                int status = f.get();
+                assertTrue(status == 200 || status == 409, "status " + status);
+                if (status == 200) booked++;
+            }
+            assertEquals(seats.size(), booked);
+            assertEquals(seats.size(), db.bookedCount("F002"));
+        }
+    }
+
+    @Test
+    void parsesFlatJsonObjects() {
+        Map<String, String> m = BookingHttpServer.parseObject(" { \"a\" : \"x\\\"y\\u0041\", \"n\":12, \"b\":true, \"z\":null } ");
+        assertEquals("x\"yA", m.get("a"));
+        assertEquals("12", m.get("n"));
+        assertEquals("true", m.get("b"));
+        assertTrue(m.containsKey("z"));
+        assertNull(m.get("z"));
+        assertTrue(BookingHttpServer.parseObject("{}").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> BookingHttpServer.parseObject("{\"a\":[1]}"));
+        assertThrows(IllegalArgumentException.class, () -> BookingHttpServer.parseObject("{\"a\":1} x"));
+        assertEquals("\"a\\\"b\\n\"", BookingHttpServer.quote("a\"b\n"));
+    }
+}
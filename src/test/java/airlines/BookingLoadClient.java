@@ -0,0 +1,117 @@
+package airlines;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Manual load test for BookingHttpServer (not a unit test): many concurrent clients, p50/p99 latency.
+ *
+ * Run from the test classpath, e.g.:
+ *   java -cp target/classes:target/test-classes airlines.BookingLoadClient [clients] [requestsPerClient] [baseUrl]
+ * Defaults: 2000 clients, 50 requests each, against an embedded server on a temporary
+ * GROUP_COMMIT database. Each client is a virtual thread that loops over: read a flight's seats,
+ * book a random seat, release it (book answers 409 when another client has the seat, which
+ * counts as a normal reply). Clients start together, so all connections are open at once;
+ * raise the open-file limit (ulimit -n) for large client counts.
+ */
+public class BookingLoadClient {
+
+    private static final int FLIGHTS = 64;
+    private static final String PAX = "{\"firstName\":\"Load\",\"lastName\":\"Test\",\"dateOfBirth\":\"1990-01-01\"}";
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int perClient = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+        Path dir = null;
+        DatabaseService db = null;
+        BookingHttpServer server = null;
+        String base;
+        if (args.length > 2) {
+            base = args[2];
+        } else {
+            dir = Files.createTempDirectory("nua-load");
+            db = new DatabaseService(dir.resolve("db.txt").toString(), PersistenceMode.GROUP_COMMIT);
+            for (int i = 0; i < FLIGHTS; i++) db.addFlight(String.format("L%03d", i), "NU" + i, 1, 30, "ABCDEF".toCharArray());
+            server = new BookingHttpServer(db, 0);
+            server.start();
+            base = "http://localhost:" + server.getPort();
+        }
+
+        try (HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            run(client, base, Math.max(1, clients / 10), Math.min(perClient, 10)); // JIT warm-up, not reported
+            run(client, base, clients, perClient);
+        } finally {
+            if (server != null) server.close();
+            if (db != null) db.close();
+            if (dir != null) {
+                try (var files = Files.walk(dir)) {
+                    files.sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+                }
+            }
+        }
+    }
+
+    private static void run(HttpClient client, String base, int clients, int perClient) throws Exception {
+        long[][] latencies = new long[clients][];
+        LongAdder errors = new LongAdder();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> done = new ArrayList<>(clients);
+        long start;
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                int me = c;
+                done.add(pool.submit(() -> {
+                    SplittableRandom rnd = new SplittableRandom(me);
+                    long[] mine = new long[perClient];
+                    go.await();
+                    for (int i = 0; i < perClient; i++) {
+                        String flight = String.format("/flights/L%03d", rnd.nextInt(FLIGHTS));
+                        String seat = flight + "/seats/" + (1 + rnd.nextInt(30)) + "ABCDEF".charAt(rnd.nextInt(6));
+                        HttpRequest req = switch (i % 3) {
+                            case 0 -> HttpRequest.newBuilder(URI.create(base + flight + "/seats")).GET().build();
+                            case 1 -> HttpRequest.newBuilder(URI.create(base + seat)).PUT(HttpRequest.BodyPublishers.ofString(PAX)).build();
+                            default -> HttpRequest.newBuilder(URI.create(base + seat)).method("DELETE", HttpRequest.BodyPublishers.ofString(PAX)).build();
+                        };
+                        long t0 = System.nanoTime();
+                        try {
+                            int status = client.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status >= 500 || status == 404 || status == 400) errors.increment();
+                        } catch (java.io.IOException e) {
+                            errors.increment();
+                        }
+                        mine[i] = System.nanoTime() - t0;
+                    }
+                    latencies[me] = mine;
+                    return null;
+                }));
+            }
+            start = System.nanoTime();
+            go.countDown();
+        }
+        long elapsed = System.nanoTime() - start;
+        for (Future<?> f : done) f.get();
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("clients %d x %d requests: %.0f req/s, p50 %.2f ms, p99 %.2f ms, max %.2f ms, errors %d%n",
+                clients, perClient, all.length * 1e9 / elapsed,
+                percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, all[all.length - 1] / 1e6, errors.sum());
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
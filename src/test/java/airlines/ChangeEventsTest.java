@@ -0,0 +1,168 @@
+package airlines;
+
+import javax.swing.SwingUtilities;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ChangeEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Passenger PAX = new Passenger("John", "Doe", "1990-01-01");
+
+    /** Collects events; requests them one by one, or stalls after the first until resume(). */
+    private static final class Collector implements Flow.Subscriber<ChangeEvent> {
+        final List<ChangeEvent> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final boolean stall;
+        private Flow.Subscription subscription;
+
+        Collector(boolean stall) {
+            this.stall = stall;
+        }
+
+        @Override public void onSubscribe(Flow.Subscription s) {
+            subscription = s;
+            s.request(1);
+        }
+
+        @Override public void onNext(ChangeEvent e) {
+            events.add(e);
+            if (!stall) subscription.request(1);
+        }
+
+        @Override public void onError(Throwable t) {
+            fail(t);
+        }
+
+        @Override public void onComplete() {
+            completed.countDown();
+        }
+
+        void resume() {
+            subscription.request(Long.MAX_VALUE);
+        }
+    }
+
+    @Test
+    void everyKindOfChangeIsPublishedInOrder() throws Exception {
+        Collector c = new Collector(false);
+        try (DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString(), PersistenceMode.GROUP_COMMIT)) {
+            db.changes().subscribe(c);
+            assertTrue(db.bookSeat("F001", "1A", PAX));
+            assertTrue(db.tryRelease("F001", "1A", PAX));
+            assertTrue(db.bookSeats("F001", Map.of("2A", PAX, "2B", PAX)));
+            long hold = db.holdSeat("F001", "3A", 60_000);
+            assertTrue(db.releaseHold(hold));
+            assertTrue(db.addFlight("E1", "NU5", 1, 1, new char[]{'A'}));
+            assertTrue(db.deleteFlight("E1"));
+            db.load();
+        }
+        assertTrue(c.completed.await(5, TimeUnit.SECONDS)); // close() completes the stream
+
+        List<ChangeEvent> events = c.events;
+        assertEquals(9, events.size(), events.toString());
+        for (int i = 1; i < events.size(); i++) assertEquals(events.get(i - 1).sequence() + 1, events.get(i).sequence());
+
+        ChangeEvent booked = events.get(0);
+        assertEquals(ChangeEvent.Kind.SEAT, booked.kind());
+        assertEquals("F001", booked.flightId());
+        assertEquals("1A", booked.seatNumber());
+        assertEquals(SeatStatus.BOOKED, booked.status());
+        assertEquals(PAX, booked.passenger());
+        assertEquals(SeatStatus.AVAILABLE, events.get(1).status());
+        assertNull(events.get(1).passenger());
+        assertEquals(SeatStatus.HELD, events.get(4).status());
+        assertEquals(SeatStatus.AVAILABLE, events.get(5).status());
+        assertEquals(ChangeEvent.Kind.FLIGHT_ADDED, events.get(6).kind());
+        assertEquals("E1", events.get(6).flightId());
+        assertEquals(ChangeEvent.Kind.FLIGHT_DELETED, events.get(7).kind());
+        assertEquals(ChangeEvent.Kind.RELOADED, events.get(8).kind());
+    }
+
+    @Test
+    void slowSubscriberMissesEventsInsteadOfBlockingBookings() throws Exception {
+        Collector slow = new Collector(true);
+        int changes = DatabaseService.CHANGE_BUFFER + 200;
+        try (DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString(), PersistenceMode.GROUP_COMMIT)) {
+            db.changes().subscribe(slow);
+            for (int i = 0; i < DatabaseService.CHANGE_BUFFER + 200; i++) {
+                assertTrue(db.updateSeat("F001", "1A", i % 2 == 0 ? PAX : null));
+            }
+            slow.resume();
+            // The buffer drains asynchronously: change 1B until one of its events is not dropped
+            for (int i = 0; i < 500 && !"1B".equals(slow.events.get(slow.events.size() - 1).seatNumber()); i++) {
+                assertTrue(db.updateSeat("F001", "1B", i % 2 == 0 ? PAX : null));
+                changes++;
+                Thread.sleep(10);
+            }
+        }
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+
+        List<ChangeEvent> events = slow.events;
+        assertTrue(events.size() < changes, "some events were dropped");
+        boolean gap = false;
+        for (int i = 1; i < events.size(); i++) {
+            assertTrue(events.get(i).sequence() > events.get(i - 1).sequence());
+            gap |= events.get(i).sequence() != events.get(i - 1).sequence() + 1;
+        }
+        assertTrue(gap, "the loss shows as a sequence gap");
+        assertEquals("1B", events.get(events.size() - 1).seatNumber()); // newer events still arrive
+    }
+
+    @Test
+    void swingSubscriberOnlyRequestsWhatTheEventThreadHasApplied() throws Exception {
+        CountDownLatch edtBlocked = new CountDownLatch(1);
+        CountDownLatch unblockEdt = new CountDownLatch(1);
+        CountDownLatch resynced = new CountDownLatch(1);
+        List<ChangeEvent> applied = new CopyOnWriteArrayList<>();
+        try (DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString(), PersistenceMode.GROUP_COMMIT)) {
+            SwingChangeSubscriber sub = SwingChangeSubscriber.subscribe(db, applied::add, resynced::countDown);
+            SwingUtilities.invokeLater(() -> {
+                edtBlocked.countDown();
+                try {
+                    unblockEdt.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertTrue(edtBlocked.await(5, TimeUnit.SECONDS));
+            // Far more changes than the buffer holds while the event thread is busy: with demand
+            // tied to the event thread they are dropped (and resynced) instead of queued on it
+            for (int i = 0; i < DatabaseService.CHANGE_BUFFER * 3; i++) {
+                assertTrue(db.updateSeat("F001", "1A", i % 2 == 0 ? PAX : null));
+            }
+            unblockEdt.countDown();
+            // The gap shows with the first event after the drops
+            for (int i = 0; i < 500 && resynced.getCount() > 0; i++) {
+                assertTrue(db.updateSeat("F001", "1B", i % 2 == 0 ? PAX : null));
+                resynced.await(10, TimeUnit.MILLISECONDS);
+            }
+            assertEquals(0, resynced.getCount(), "lost events trigger a resync");
+            SwingUtilities.invokeAndWait(() -> { });
+            sub.cancel();
+        }
+        long burst = applied.stream().filter(e -> "1A".equals(e.seatNumber())).count();
+        assertTrue(burst <= DatabaseService.CHANGE_BUFFER + 1, burst + " of the burst reached the event thread");
+    }
+
+    @Test
+    void noSubscribersNoEvents() {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        assertTrue(db.bookSeat("F001", "1A", PAX)); // nothing to publish to; must not fail
+        Collector late = new Collector(false);
+        db.changes().subscribe(late);
+        db.close();
+        assertTrue(late.events.isEmpty());
+    }
+}
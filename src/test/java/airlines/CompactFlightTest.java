@@ -0,0 +1,123 @@
+package airlines;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CompactFlightTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Flight sample() {
+        Flight f = new Flight("F100", "NU777");
+        f.addSeat(new Seat("1A"));
+        f.addSeat(new Seat("1b", new Passenger("John", "Doe", "1990-01-01")));
+        f.addSeat(new Seat("12C"));
+        f.addSeat(new Seat("EXIT"));
+        f.addSeat(new Seat("01A"));           // leading zero: kept as a string
+        Seat bookedNoPax = new Seat("2A");
+        bookedNoPax.setStatus(SeatStatus.BOOKED);
+        f.addSeat(bookedNoPax);
+        return f;
+    }
+
+    @Test
+    void viewsMatchTheOriginalSeats() {
+        Flight plain = sample();
+        CompactFlight compact = CompactFlight.of(plain);
+
+        List<Seat> expected = plain.getSeats();
+        List<Seat> actual = compact.getSeats();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getSeatNumber(), actual.get(i).getSeatNumber());
+            assertEquals(expected.get(i).getStatus(), actual.get(i).getStatus());
+            assertEquals(expected.get(i).getPassenger(), actual.get(i).getPassenger());
+            assertEquals(expected.get(i).toString(), actual.get(i).toString());
+        }
+        assertEquals("Flight{id='F100', flightNumber='NU777', seats=6}", compact.toString());
+        assertThrows(UnsupportedOperationException.class, () -> actual.add(new Seat("9Z")));
+    }
+
+    @Test
+    void lookupIsCaseInsensitiveAndReturnsFirstDuplicate() {
+        CompactFlight f = CompactFlight.of(sample());
+        f.addSeat(new Seat("1B")); // duplicate number, AVAILABLE
+
+        assertTrue(f.getSeat("1B").isBooked());
+        assertEquals("1b", f.getSeat("1b").getSeatNumber());
+        assertEquals("EXIT", f.getSeat("exit").getSeatNumber());
+        assertNotNull(f.getSeat("01a"));
+        assertNull(f.getSeat("1a "));
+        assertNull(f.getSeat("99Z"));
+        assertNull(f.getSeat(null));
+
+        assertTrue(f.removeSeat(new Seat("1B")));
+        assertFalse(f.getSeat("1B").isBooked()); // the duplicate moved up
+        assertEquals("12C", f.getSeats().get(1).getSeatNumber());
+        assertTrue(f.getSeat("2A").isBooked());
+        assertFalse(f.removeSeat(new Seat("99Z")));
+    }
+
+    @Test
+    void viewSettersWriteThrough() {
+        CompactFlight f = CompactFlight.of(sample());
+        Passenger jane = new Passenger("Jane", "Doe", "1985-05-15");
+
+        f.getSeat("12C").setPassenger(jane);
+        assertEquals(jane, f.getSeat("12C").getPassenger());
+        assertEquals(SeatStatus.BOOKED, f.getSeats().get(2).getStatus());
+
+        f.getSeat("1B").clearPassenger();
+        assertFalse(f.getSeat("1B").isBooked());
+        assertNull(f.getSeat("1B").getPassenger());
+
+        f.getSeat("12C").setStatus(SeatStatus.AVAILABLE);
+        assertNull(f.getSeat("12C").getPassenger());
+    }
+
+    @Test
+    void copyIsIndependent() {
+        CompactFlight f = CompactFlight.of(sample());
+        CompactFlight c = f.copy();
+        f.getSeat("1A").setPassenger(new Passenger("A", "B", "2000-01-01"));
+        assertFalse(c.getSeat("1A").isBooked());
+        assertTrue(c.getSeat("1B").isBooked());
+    }
+
+    @Test
+    void growsAcrossManySeats() {
+        CompactFlight f = new CompactFlight("F1", "NU1");
+        for (int row = 1; row <= 500; row++) {
+            for (char c = 'A'; c <= 'J'; c++) f.addSeat(new Seat(row + String.valueOf(c)));
+        }
+        f.getSeat("250e").setPassenger(new Passenger("X", "Y", "1999-09-09"));
+        assertEquals(5000, f.getSeats().size());
+        assertTrue(f.getSeats().get(2494).isBooked());
+        assertEquals("500J", f.getSeats().get(4999).getSeatNumber());
+    }
+
+    @Test
+    void databaseServiceWithCompactFlightsPersists() {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        DatabaseService db = new DatabaseService(dbFile);
+        db.setCompactFlights(true);
+        assertInstanceOf(CompactFlight.class, db.getFlights().get(0));
+
+        assertTrue(db.bookSeat("f001", "2c", new Passenger("John", "Doe", "1990-01-01")));
+        assertTrue(db.addFlight("F003", "NU310", 1, 2, new char[]{'A', 'B'}));
+        assertInstanceOf(CompactFlight.class, db.getFlights().get(2));
+        db.load();
+        assertInstanceOf(CompactFlight.class, db.getFlights().get(0));
+        assertTrue(db.getSeat("F001", "2C").isBooked());
+
+        db.setCompactFlights(false);
+        assertFalse(db.getFlights().get(0) instanceof CompactFlight);
+        assertEquals("John", db.getSeat("F001", "2C").getPassenger().getFirstName());
+        assertEquals(4, new DatabaseService(dbFile).getSeats("F003").size());
+    }
+}
@@ -0,0 +1,252 @@
+package airlines;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ConcurrentBookingTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final int FLIGHTS = 8;
+    private static final char[] LETTERS = {'A', 'B', 'C', 'D', 'E', 'F'};
+
+    private static void addFlights(DatabaseService db) {
+        for (int i = 0; i < FLIGHTS; i++) {
+            assertTrue(db.addFlight("C" + i, "NU9" + i, 1, 10, LETTERS));
+        }
+    }
+
+    /** One booking thread per flight plus a thread saving in a loop; every booking must survive. */
+    private void bookEverySeatConcurrently(DatabaseService db) throws Exception {
+        bookEverySeatConcurrently(db, () -> assertTrue(db.save()));
+    }
+
+    /** Same with another background task run in a loop while the bookers work. */
+    private void bookEverySeatConcurrently(DatabaseService db, Runnable alongside) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(FLIGHTS + 1);
+        try {
+            List<Future<?>> bookers = new ArrayList<>();
+            for (int i = 0; i < FLIGHTS; i++) {
+                String id = "C" + i;
+                bookers.add(pool.submit(() -> {
+                    for (int row = 1; row <= 10; row++) {
+                        for (char c : LETTERS) {
+                            assertTrue(db.bookSeat(id, row + String.valueOf(c), new Passenger("Pax", id, "1990-01-01")));
+                        }
+                    }
+                }));
+            }
+            Future<?> saver = pool.submit(() -> {
+                while (bookers.stream().anyMatch(f -> !f.isDone())) alongside.run();
+            });
+            for (Future<?> f : bookers) f.get();
+            saver.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void assertAllBooked(DatabaseService db) {
+        for (int i = 0; i < FLIGHTS; i++) {
+            assertEquals(60, db.bookedCount("C" + i), "C" + i);
+            assertEquals("C" + i, db.getSeat("C" + i, "10F").getPassenger().getLastName());
+        }
+    }
+
+    @Test
+    void groupCommitKeepsEveryConcurrentBooking() throws Exception {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.GROUP_COMMIT)) {
+            addFlights(db);
+            bookEverySeatConcurrently(db);
+            assertAllBooked(db);
+            assertTrue(db.flush());
+        }
+        assertAllBooked(new DatabaseService(dbFile));
+    }
+
+    @Test
+    void journaledCompactionKeepsEveryConcurrentBooking() throws Exception {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.JOURNALED)) {
+            db.setJournalCompactionThreshold(512); // compact every few records, alongside the saves
+            addFlights(db);
+            bookEverySeatConcurrently(db);
+        }
+        assertAllBooked(new DatabaseService(dbFile));
+    }
+
+    @Test
+    void segmentDirectorySavesKeepEveryConcurrentBooking() throws Exception {
+        Path dir = tempDir.resolve("segments");
+        FileStorage.importToSegments(tempDir.resolve("seed.txt").toString(), dir.toString(), StorageFormat.V2_BINARY);
+        try (DatabaseService db = new DatabaseService(dir.toString(), PersistenceMode.GROUP_COMMIT)) {
+            addFlights(db);
+            bookEverySeatConcurrently(db);
+            assertTrue(db.flush());
+        }
+        assertAllBooked(new DatabaseService(dir.toString()));
+    }
+
+    @Test
+    void reloadsKeepBookingsMadeWhileTheFileIsRead() throws Exception {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.GROUP_COMMIT)) {
+            addFlights(db);
+            bookEverySeatConcurrently(db, db::load);
+            assertAllBooked(db);
+            assertTrue(db.flush());
+        }
+        assertAllBooked(new DatabaseService(dbFile));
+    }
+
+    @Test
+    void segmentReloadsKeepBookingsMadeWhileTheSegmentsAreRead() throws Exception {
+        Path dir = tempDir.resolve("segments");
+        FileStorage.importToSegments(tempDir.resolve("seed.txt").toString(), dir.toString(), StorageFormat.V2_BINARY);
+        try (DatabaseService db = new DatabaseService(dir.toString(), PersistenceMode.GROUP_COMMIT)) {
+            addFlights(db);
+            assertTrue(db.flush());
+            bookEverySeatConcurrently(db, db::load);
+            assertAllBooked(db);
+            assertTrue(db.flush());
+        }
+        assertAllBooked(new DatabaseService(dir.toString()));
+    }
+
+    @Test
+    void structuralChangesRunAlongsideBookings() throws Exception {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.GROUP_COMMIT)) {
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            try {
+                Future<?> churn = pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        assertTrue(db.addFlight("X" + i, "NU" + i, 1, 2, LETTERS));
+                        for (Flight f : db.getFlights()) assertNotNull(f.getId()); // iteration stays safe
+                        assertTrue(db.deleteFlight("X" + i));
+                    }
+                });
+                Future<?> booker = pool.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        assertTrue(db.updateSeat("F001", "1A", i % 2 == 0 ? new Passenger("A", "B", "2000-01-01") : null));
+                    }
+                });
+                churn.get();
+                booker.get();
+            } finally {
+                pool.shutdown();
+            }
+            assertEquals(2, db.getFlights().size());
+            assertFalse(db.getSeat("F001", "1A").isBooked());
+            assertTrue(db.flush());
+        }
+        assertEquals(2, new DatabaseService(dbFile).getFlights().size());
+    }
+
+    /** Many agents race tryBook for the same seats; each seat has exactly one winner. */
+    private void raceForSeats(DatabaseService db, String flightId) throws Exception {
+        int agents = 8;
+        List<String> seats = new ArrayList<>();
+        for (Seat s : db.getSeats(flightId)) seats.add(s.getSeatNumber());
+        AtomicInteger wins = new AtomicInteger();
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(agents);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int a = 0; a < agents; a++) {
+                Passenger me = new Passenger("Agent", "A" + a, "1990-01-01");
+                results.add(pool.submit(() -> {
+                    go.await();
+                    for (String seat : seats) {
+                        if (db.tryBook(flightId, seat, me)) {
+                            wins.incrementAndGet();
+                            assertEquals(me, db.getSeat(flightId, seat).getPassenger());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            go.countDown();
+            for (Future<?> f : results) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(seats.size(), wins.get());
+        assertEquals(seats.size(), db.bookedCount(flightId));
+        assertEquals(0, db.availableCount(flightId));
+        assertEquals(-1, db.nextAvailable(flightId, 0));
+    }
+
+    @Test
+    void tryBookHasExactlyOneWinnerPerSeat() throws Exception {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.JOURNALED)) {
+            raceForSeats(db, "F001");
+            db.setCompactFlights(true);
+            assertFalse(db.tryRelease("F002", "1A", new Passenger("X", "Y", "2000-01-01")));
+            raceForSeats(db, "F002");
+        }
+        DatabaseService reloaded = new DatabaseService(dbFile);
+        assertEquals(0, reloaded.availableCount("F001"));
+        assertEquals(0, reloaded.availableCount("F002"));
+    }
+
+    @Test
+    void tryReleaseOnlyFreesYourOwnBooking() {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        Passenger john = new Passenger("John", "Doe", "1990-01-01");
+        Passenger jane = new Passenger("Jane", "Doe", "1985-05-15");
+        assertTrue(db.tryBook("F001", "1A", john));
+        assertFalse(db.tryBook("F001", "1A", jane));
+        assertFalse(db.tryBook("F001", "9Z", jane));
+        assertFalse(db.tryBook("NOPE", "1A", jane));
+        assertFalse(db.tryBook("F001", "1B", null));
+
+        assertFalse(db.tryRelease("F001", "1A", jane));
+        assertTrue(db.tryRelease("f001", "1a", john));
+        assertFalse(db.tryRelease("F001", "1A", john));
+        assertTrue(db.tryBook("F001", "1A", jane));
+        assertEquals("Jane", new DatabaseService(tempDir.resolve("db.txt").toString())
+                .getSeat("F001", "1A").getPassenger().getFirstName());
+    }
+
+    @Test
+    void lockFreeBookAndReleaseKeepAvailabilityCounts() throws Exception {
+        try (DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString(), PersistenceMode.GROUP_COMMIT)) {
+            List<String> seats = new ArrayList<>();
+            for (Seat s : db.getSeats("F001")) seats.add(s.getSeatNumber());
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> results = new ArrayList<>();
+                for (int a = 0; a < 4; a++) {
+                    Passenger me = new Passenger("Agent", "A" + a, "1990-01-01");
+                    results.add(pool.submit(() -> {
+                        for (int i = 0; i < 5000; i++) {
+                            String seat = seats.get(i % seats.size());
+                            if (!db.tryBook("F001", seat, me)) db.tryRelease("F001", seat, me);
+                        }
+                    }));
+                }
+                for (Future<?> f : results) f.get();
+            } finally {
+                pool.shutdown();
+            }
+            int booked = 0;
+            for (Seat s : db.getSeats("F001")) if (s.isBooked()) booked++;
+            assertEquals(booked, db.bookedCount("F001"));
+            assertEquals(seats.size() - booked, db.availableSeats("F001").size());
+        }
+    }
+}
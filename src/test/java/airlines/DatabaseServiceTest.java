@@ -69,6 +69,22 @@ public class DatabaseServiceTest {
         assertTrue(seats.isEmpty());
     }
 
+    @Test
+    void getSeatLooksUpIgnoringCase() {
+        Seat seat = db.getSeat("f001", "2c");
+        assertNotNull(seat);
+        assertEquals("2C", seat.getSeatNumber());
+        assertSame(seat, db.getSeats("F001").get(8));
+        assertNull(db.getSeat("F001", "99Z"));
+        assertNull(db.getSeat("NONEXISTENT", "1A"));
+        assertNull(db.getSeat(null, null));
+
+        assertTrue(db.deleteFlight("f002"));
+        assertNull(db.getSeat("F002", "1A"));
+        assertTrue(db.addFlight("F002", "NU900", 1, 1, new char[]{'a'}));
+        assertEquals("1A", db.getSeat("F002", "1a").getSeatNumber());
+    }
+
     @Test
     void updateSeatBookingPassenger() {
         db.addFlight("T001", "NU999", 1, 1, new char[]{'A', 'B'});
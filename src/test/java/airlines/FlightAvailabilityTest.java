@@ -0,0 +1,127 @@
+package airlines;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FlightAvailabilityTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Passenger PAX = new Passenger("John", "Doe", "1990-01-01");
+
+    private static Flight build(Flight f, int rows) {
+        for (int row = 1; row <= rows; row++) {
+            for (char c = 'A'; c <= 'F'; c++) f.addSeat(new Seat(row + String.valueOf(c)));
+        }
+        return f;
+    }
+
+    /** Availability answers must match a plain scan over getSeats(). */
+    private static void assertConsistent(Flight f) {
+        List<Seat> seats = f.getSeats();
+        List<String> expectedFree = new ArrayList<>();
+        for (Seat s : seats) if (!s.isBooked()) expectedFree.add(s.getSeatNumber());
+
+        assertEquals(expectedFree.size(), f.availableCount());
+        assertEquals(seats.size() - expectedFree.size(), f.bookedCount());
+        List<String> free = new ArrayList<>();
+        for (Seat s : f.availableSeats()) free.add(s.getSeatNumber());
+        assertEquals(expectedFree, free);
+        for (int from = -1; from <= seats.size(); from++) {
+            int expected = -1;
+            for (int i = Math.max(0, from); i < seats.size(); i++) {
+                if (!seats.get(i).isBooked()) {
+                    expected = i;
+                    break;
+                }
+            }
+            assertEquals(expected, f.nextAvailable(from), "from " + from);
+        }
+    }
+
+    @Test
+    void seatSettersUpdateCounts() {
+        Flight f = build(new Flight("F1", "NU1"), 2);
+        assertEquals(12, f.availableCount());
+        assertEquals(0, f.nextAvailable(0));
+
+        f.getSeat("1A").setPassenger(PAX);
+        f.getSeat("1B").setStatus(SeatStatus.BOOKED);
+        f.getSeat("1B").setStatus(SeatStatus.BOOKED); // no double count
+        assertEquals(2, f.bookedCount());
+        assertEquals(2, f.nextAvailable(0));
+
+        f.getSeat("1A").clearPassenger();
+        assertEquals(11, f.availableCount());
+        assertEquals(0, f.nextAvailable(0));
+        assertEquals(-1, f.nextAvailable(12));
+        assertConsistent(f);
+    }
+
+    @Test
+    void removedAndReplacedSeatsNoLongerReport() {
+        Flight f = build(new Flight("F1", "NU1"), 20); // 120 seats, two bitmap words
+        Seat removed = f.getSeat("1A");
+        f.getSeat("11C").setPassenger(PAX);
+        assertTrue(f.removeSeat(removed));
+        assertConsistent(f);
+
+        removed.setPassenger(PAX); // detached: must not touch the flight
+        assertEquals(1, f.bookedCount());
+
+        Seat old = f.getSeat("2A");
+        f.replaceSeats(List.of(new Seat("9A", PAX), new Seat("9B")));
+        old.setPassenger(PAX);
+        assertEquals(1, f.bookedCount());
+        assertEquals(1, f.nextAvailable(0));
+        assertConsistent(f);
+    }
+
+    @Test
+    void randomBookingsMatchScanForBothFlightTypes() {
+        for (Flight f : new Flight[]{build(new Flight("F1", "NU1"), 50), build(new CompactFlight("F2", "NU2"), 50)}) {
+            Random rnd = new Random(7);
+            for (int step = 0; step < 2000; step++) {
+                List<Seat> seats = f.getSeats();
+                Seat s = seats.get(rnd.nextInt(seats.size()));
+                switch (rnd.nextInt(4)) {
+                    case 0 -> s.setPassenger(PAX);
+                    case 1 -> s.clearPassenger();
+                    case 2 -> s.setStatus(rnd.nextBoolean() ? SeatStatus.BOOKED : SeatStatus.AVAILABLE);
+                    default -> {
+                        if (rnd.nextInt(10) == 0) f.removeSeat(s);
+                    }
+                }
+            }
+            assertConsistent(f);
+            Flight copy = f.copy();
+            assertConsistent(copy);
+            assertEquals(f.bookedCount(), copy.bookedCount());
+        }
+    }
+
+    @Test
+    void databaseServiceExposesAvailability() {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        int total = db.getSeats("F001").size();
+        assertTrue(db.bookSeat("F001", "1A", PAX));
+        assertTrue(db.bookSeat("f001", "1b", PAX));
+
+        assertEquals(2, db.bookedCount("F001"));
+        assertEquals(total - 2, db.availableCount("F001"));
+        assertEquals(2, db.nextAvailable("F001", 0));
+        assertEquals("1C", db.availableSeats("F001").get(0).getSeatNumber());
+        assertEquals(total - 2, db.availableSeats("F001").size());
+
+        assertEquals(0, db.availableCount("NOPE"));
+        assertEquals(-1, db.nextAvailable("NOPE", 0));
+        assertTrue(db.availableSeats("NOPE").isEmpty());
+    }
+}
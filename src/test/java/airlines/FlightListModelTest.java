@@ -0,0 +1,127 @@
+package airlines;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class FlightListModelTest {
+
+    private static List<Flight> flights(int n) {
+        List<Flight> list = new ArrayList<>();
+        for (int i = 0; i < n; i++) list.add(new Flight(String.format("F%05d", i), "NU" + (1000 + i)));
+        return list;
+    }
+
+    private static List<ListDataEvent> record(FlightListModel model) {
+        List<ListDataEvent> fired = new ArrayList<>();
+        model.addListDataListener(new ListDataListener() {
+            @Override public void intervalAdded(ListDataEvent e) { fired.add(e); }
+            @Override public void intervalRemoved(ListDataEvent e) { fired.add(e); }
+            @Override public void contentsChanged(ListDataEvent e) { fired.add(e); }
+        });
+        return fired;
+    }
+
+    @Test
+    void setFlightsFiresOneEventForTheWholeDirectory() {
+        FlightListModel model = new FlightListModel();
+        List<ListDataEvent> fired = record(model);
+
+        model.setFlights(flights(10_000));
+        assertEquals(1, fired.size());
+        assertEquals(ListDataEvent.INTERVAL_ADDED, fired.get(0).getType());
+        assertEquals(9_999, fired.get(0).getIndex1());
+        assertEquals(10_000, model.getSize());
+        assertEquals("F00042", model.getElementAt(42).getId());
+
+        fired.clear();
+        model.setFlights(flights(3));
+        assertEquals(2, fired.size()); // old rows out, new rows in
+        assertEquals(3, model.getSize());
+    }
+
+    @Test
+    void filterMatchesIdOrNumberPrefixIgnoringCaseInDirectoryOrder() {
+        FlightListModel model = new FlightListModel();
+        List<Flight> list = new ArrayList<>();
+        list.add(new Flight("F002", "NU200"));
+        list.add(new Flight("X001", "f0zz"));   // number matches "f0"
+        list.add(new Flight("F001", "NU100"));
+        list.add(new Flight("Y001", "AB1"));
+        model.setFlights(list);
+
+        model.setFilter("f0");
+        assertEquals("F0", model.getFilter());
+        assertEquals(3, model.getSize());
+        assertEquals("F002", model.getElementAt(0).getId());
+        assertEquals("X001", model.getElementAt(1).getId());
+        assertEquals("F001", model.getElementAt(2).getId());
+
+        model.setFilter("nu1");
+        assertEquals(1, model.getSize());
+        assertEquals("F001", model.getElementAt(0).getId());
+
+        model.setFilter("zz");
+        assertEquals(0, model.getSize());
+        assertEquals(4, model.getFlightCount());
+
+        model.setFilter("  ");
+        assertEquals(4, model.getSize());
+    }
+
+    @Test
+    void addAndRemoveKeepTheFilterAndIndexesInStep() {
+        FlightListModel model = new FlightListModel();
+        model.setFlights(flights(5)); // F00000..F00004 / NU1000..NU1004
+        model.setFilter("F0000");
+        List<ListDataEvent> fired = record(model);
+
+        assertTrue(model.add(new Flight("F00009", "NU9")));
+        assertFalse(model.add(new Flight("F00009", "NU9")));
+        assertEquals(6, model.getSize());
+        assertEquals(1, fired.size());
+        assertEquals(5, fired.get(0).getIndex0());
+
+        fired.clear();
+        assertTrue(model.add(new Flight("G1", "NU2000")));
+        assertTrue(fired.isEmpty());        // filtered out, nothing shown changes
+        assertEquals(6, model.getSize());
+        assertEquals(7, model.getFlightCount());
+
+        assertTrue(model.remove("F00001"));
+        assertFalse(model.remove("F00001"));
+        assertEquals(5, model.getSize());
+        assertEquals(-1, model.indexOf("F00001"));
+        assertEquals(4, model.indexOf("f00009"));
+        assertEquals(-1, model.indexOf("G1"));
+
+        model.setFilter("");
+        assertEquals(5, model.indexOf("G1"));
+        model.setFilter("nu2");
+        assertEquals(1, model.getSize());
+        assertEquals("G1", model.getElementAt(0).getId());
+    }
+
+    @Test
+    void prefixSearchOverALargeDirectoryIsFast() {
+        FlightListModel model = new FlightListModel();
+        model.setFlights(flights(100_000));
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            model.setFilter("F0" + (i % 10));
+            model.setFilter("");
+        }
+        long perKeystrokeMs = (System.nanoTime() - start) / 200 / 1_000_000;
+        assertEquals(1_000, countAfter(model, "F01"));
+        assertTrue(perKeystrokeMs < 16, "filtering took " + perKeystrokeMs + " ms per keystroke");
+    }
+
+    private static int countAfter(FlightListModel model, String filter) {
+        model.setFilter(filter);
+        return model.getSize();
+    }
+}
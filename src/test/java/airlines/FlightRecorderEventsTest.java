@@ -0,0 +1,118 @@
+package airlines;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class FlightRecorderEventsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Passenger PAX = new Passenger("John", "Doe", "1990-01-01");
+
+    private static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    @Test
+    void eventsAreOffUnlessTheSettingsFileEnablesThem() throws Exception {
+        new FlightRecorderEvents.SeatUpdate().commit(); // registers the type
+        EventType type = EventType.getEventType(FlightRecorderEvents.SeatUpdate.class);
+        assertEquals("airlines.SeatUpdate", type.getName());
+        assertFalse(type.isEnabled());
+
+        Path settings = Path.of("airlines.jfc");
+        assertTrue(Files.isRegularFile(settings), "airlines.jfc is shipped in the project root");
+        Configuration config = Configuration.create(settings);
+        for (String name : List.of("airlines.FileLoad", "airlines.FileSave", "airlines.SeatUpdate", "airlines.UiReload")) {
+            assertEquals("true", config.getSettings().get(name + "#enabled"), name);
+        }
+    }
+
+    @Test
+    void recordingShowsLoadsSavesSeatUpdatesAndReloads() throws Exception {
+        if (!FlightRecorder.isAvailable()) return;
+        Path jfr = tempDir.resolve("nua.jfr");
+        try (Recording recording = new Recording(Configuration.create(Path.of("airlines.jfc")))) {
+            recording.start();
+            DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString()); // creates, saves
+            db.load();
+            assertTrue(db.bookSeat("F001", "1A", PAX));
+            assertFalse(db.bookSeat("F001", "99Z", PAX));
+            assertFalse(db.tryBook("F001", "1A", PAX));
+            assertTrue(db.tryRelease("F001", "1A", PAX));
+            new SeatTableModel(db, "F002").reload();
+            recording.stop();
+            recording.dump(jfr);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(jfr);
+
+        List<RecordedEvent> loads = named(events, "airlines.FileLoad");
+        assertEquals(2, loads.size());                          // missing file, then the real read
+        RecordedEvent load = loads.get(1);
+        assertEquals("V1_CSV", load.getString("format"));
+        assertEquals(2, load.getInt("flights"));
+        assertEquals(30 + 16, load.getLong("rowsParsed"));       // default flights: 5x6 + 4x4 seats
+        assertEquals(0, load.getLong("rowsSkipped"));
+        assertEquals(Files.size(tempDir.resolve("db.txt")), load.getLong("bytes"));
+
+        List<RecordedEvent> saves = named(events, "airlines.FileSave");
+        assertTrue(saves.size() >= 3);                           // default file + two seat changes
+        RecordedEvent save = saves.get(saves.size() - 1);
+        assertEquals(46, save.getLong("seats"));
+        assertTrue(save.getLong("bytes") > 0);
+        assertTrue(save.getDuration("syncTime").toNanos() >= 0);
+
+        List<String> outcomes = named(events, "airlines.SeatUpdate").stream()
+                .map(e -> e.getString("seatNumber") + ":" + e.getString("outcome")).collect(Collectors.toList());
+        assertEquals(List.of("1A:BOOKED", "99Z:NOT_FOUND", "1A:REJECTED", "1A:RELEASED"), outcomes);
+
+        List<RecordedEvent> reloads = named(events, "airlines.UiReload");
+        assertEquals(1, reloads.size());
+        assertEquals(16, reloads.get(0).getInt("rows"));
+    }
+
+    @Test
+    void segmentedSavesAndLazyLoadsAreRecorded() throws Exception {
+        if (!FlightRecorder.isAvailable()) return;
+        Path dir = tempDir.resolve("segments");
+        new DatabaseService(tempDir.resolve("seed.txt").toString()); // creates the default flights
+        FileStorage.importToSegments(tempDir.resolve("seed.txt").toString(), dir.toString(), StorageFormat.V1_CSV);
+        Path jfr = tempDir.resolve("nua.jfr");
+        try (Recording recording = new Recording(Configuration.create(Path.of("airlines.jfc")))) {
+            recording.start();
+            DatabaseService db = new DatabaseService(dir.toString(), PersistenceMode.WRITE_THROUGH, 1000);
+            assertTrue(db.bookSeat("F001", "1A", PAX));                  // opens F001, saves its segment
+            recording.stop();
+            recording.dump(jfr);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(jfr);
+
+        RecordedEvent load = named(events, "airlines.FileLoad").stream()
+                .filter(e -> e.getInt("flights") == 1).findFirst().orElseThrow();
+        assertEquals("SEGMENTS", load.getString("format"));
+        assertEquals(30, load.getLong("rowsParsed"));
+
+        List<RecordedEvent> saves = named(events, "airlines.FileSave");
+        assertEquals(1, saves.size());
+        RecordedEvent save = saves.get(0);
+        assertEquals("SEGMENTS", save.getString("format"));
+        assertEquals(dir.toString(), save.getString("path"));
+        assertEquals(1, save.getInt("flights"));
+        assertEquals(30, save.getLong("seats"));
+        assertTrue(save.getDuration("syncTime").toNanos() > 0);
+    }
+}
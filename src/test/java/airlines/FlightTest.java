@@ -183,4 +183,22 @@ public class FlightTest {
         Flight f2 = new Flight("F001", "NU200");
         assertEquals(f1.hashCode(), f2.hashCode());
     }
+
+    @Test
+    public void testGetSeatWithDuplicateNumbers() {
+        Flight flight = new Flight("F001", "NU100");
+        Seat first = new Seat("1A");
+        Seat second = new Seat("1a", new Passenger("John", "Doe", "1990-01-01"));
+        flight.addSeat(first);
+        flight.addSeat(second);
+        flight.addSeat(new Seat("1B"));
+
+        assertSame(first, flight.getSeat("1a"));
+        assertTrue(flight.removeSeat(first));
+        assertSame(second, flight.getSeat("1A"));
+        assertTrue(flight.removeSeat(new Seat("1A")));
+        assertNull(flight.getSeat("1A"));
+        assertNotNull(flight.getSeat("1b"));
+        assertFalse(flight.removeSeat(new Seat("9Z")));
+    }
 }
@@ -0,0 +1,127 @@
+package airlines;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GroupBookingTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static Map<String, Passenger> party(String... seats) {
+        Map<String, Passenger> m = new LinkedHashMap<>();
+        for (int i = 0; i < seats.length; i++) m.put(seats[i], new Passenger("Pax" + i, "Party", "1990-01-01"));
+        return m;
+    }
+
+    @Test
+    void booksAllSeatsOrNone() {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        DatabaseService db = new DatabaseService(dbFile);
+        assertTrue(db.bookSeat("F001", "2C", new Passenger("Someone", "Else", "1980-01-01")));
+
+        assertFalse(db.bookSeats("F001", party("1A", "1B", "2C")));   // 2C is taken
+        assertFalse(db.bookSeats("F001", party("1A", "1B", "99Z")));  // no such seat
+        assertFalse(db.bookSeats("F001", party("1A", "1a")));         // same seat twice
+        assertFalse(db.bookSeats("NOPE", party("1A")));
+        assertFalse(db.bookSeats("F001", Map.of()));
+        assertEquals(1, db.bookedCount("F001"));
+
+        assertTrue(db.bookSeats("f001", party("1a", "1B", "1C", "1D", "1E", "1F")));
+        assertEquals(7, db.bookedCount("F001"));
+        assertEquals("Pax0", db.getSeat("F001", "1A").getPassenger().getFirstName());
+        assertEquals("Pax5", new DatabaseService(dbFile).getSeat("F001", "1F").getPassenger().getFirstName());
+    }
+
+    @Test
+    void releasesListedSeatsOrNone() {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        DatabaseService db = new DatabaseService(dbFile);
+        assertTrue(db.bookSeats("F001", party("1A", "1B", "1C")));
+
+        assertFalse(db.releaseSeats("F001", List.of("1A", "99Z")));
+        assertEquals(3, db.bookedCount("F001"));
+        assertTrue(db.releaseSeats("F001", List.of("1A", "1B", "2A"))); // 2A was free already
+        assertEquals(1, db.bookedCount("F001"));
+
+        assertTrue(db.releaseAllSeats("F001"));
+        assertFalse(db.releaseAllSeats("NOPE"));
+        assertEquals(0, new DatabaseService(dbFile).bookedCount("F001"));
+    }
+
+    @Test
+    void journaledBatchIsOneAppendThatReplays() throws IOException {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.JOURNALED)) {
+            assertTrue(db.bookSeats("F002", party("1A", "1B", "1C", "1D")));
+            assertEquals(4, Files.readAllLines(SeatJournal.activePath(dbFile)).size());
+            assertTrue(db.releaseSeats("F002", List.of("1D")));
+        }
+        DatabaseService reloaded = new DatabaseService(dbFile);
+        assertEquals(3, reloaded.bookedCount("F002"));
+        assertFalse(reloaded.getSeat("F002", "1D").isBooked());
+    }
+
+    @Test
+    void compactFlightsRollBackToo() {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        db.setCompactFlights(true);
+        assertTrue(db.bookSeat("F001", "1C", new Passenger("Someone", "Else", "1980-01-01")));
+        assertFalse(db.bookSeats("F001", party("1A", "1B", "1C")));
+        assertFalse(db.getSeat("F001", "1A").isBooked());
+        assertTrue(db.bookSeats("F001", party("1A", "1B")));
+        assertEquals(3, db.bookedCount("F001"));
+    }
+
+    @Test
+    void aFailedBatchLeavesEverySeatAsItWas() throws Exception {
+        try (DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString(), PersistenceMode.GROUP_COMMIT)) {
+            db.setGroupCommitWindow(60_000);
+            Passenger single = new Passenger("Single", "Agent", "1980-01-01");
+            String[] letters = {"A", "B", "C", "D", "E", "F"};
+            for (int round = 0; round < 500; round++) {
+                assertTrue(db.releaseAllSeats("F001"));
+                String row = String.valueOf(1 + round % 5);
+                String contested = row + letters[round % letters.length];
+                CountDownLatch go = new CountDownLatch(1);
+                AtomicBoolean singleWon = new AtomicBoolean();
+                Thread agent = new Thread(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    singleWon.set(db.tryBook("F001", contested, single)); // lock-free, races the batch
+                });
+                agent.start();
+                go.countDown();
+                boolean groupWon = db.bookSeats("F001", party(row + "A", row + "B", row + "C", row + "D", row + "E", row + "F"));
+                agent.join();
+
+                assertNotEquals(groupWon, singleWon.get(), "exactly one of them gets " + contested);
+                for (String letter : letters) {
+                    Seat seat = db.getSeat("F001", row + letter);
+                    if (groupWon) {
+                        assertEquals("Party", seat.getPassenger().getLastName());
+                    } else if (seat.getSeatNumber().equals(contested)) {
+                        assertEquals(single, seat.getPassenger());
+                    } else {
+                        assertEquals(SeatStatus.AVAILABLE, seat.getStatus(), "rolled back " + seat);
+                        assertNull(seat.getPassenger());
+                    }
+                }
+                assertEquals(groupWon ? 6 : 1, db.bookedCount("F001"));
+            }
+        }
+    }
+}
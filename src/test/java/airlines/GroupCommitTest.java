@@ -0,0 +1,147 @@
+package airlines;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class GroupCommitTest {
+
+    @TempDir
+    Path tempDir;
+
+    private String dbFile;
+
+    @BeforeEach
+    void setUp() {
+        dbFile = tempDir.resolve("db.txt").toString();
+    }
+
+    @Test
+    void bookingsAreDeferredUntilFlush() throws IOException {
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.GROUP_COMMIT)) {
+            db.setGroupCommitWindow(60_000);
+            String before = Files.readString(Path.of(dbFile));
+
+            for (String seat : new String[]{"1A", "1B", "1C"}) {
+                assertTrue(db.bookSeat("F001", seat, new Passenger("John", "Doe", "1990-01-01")));
+            }
+            assertFalse(db.whenDurable().isDone());
+            assertEquals(before, Files.readString(Path.of(dbFile)));
+
+            assertTrue(db.flush());
+            assertTrue(db.whenDurable().isDone());
+            String after = Files.readString(Path.of(dbFile), StandardCharsets.UTF_8);
+            assertTrue(after.contains("F001,NU100,1C,BOOKED,John,Doe,1990-01-01"));
+        }
+    }
+
+    @Test
+    void maxPendingTriggersSaveWithoutWaitingForWindow() throws Exception {
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.GROUP_COMMIT)) {
+            db.setGroupCommitWindow(60_000);
+            db.setGroupCommitMaxPending(2);
+
+            db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01"));
+            CompletableFuture<Boolean> commit = db.whenDurable();
+            db.bookSeat("F001", "1B", new Passenger("Jane", "Doe", "1991-01-01"));
+
+            assertTrue(commit.get(5, TimeUnit.SECONDS));
+            assertTrue(new DatabaseService(dbFile).getSeats("F001").get(1).isBooked());
+        }
+    }
+
+    @Test
+    void windowElapsingSavesPendingChanges() throws Exception {
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.GROUP_COMMIT)) {
+            db.setGroupCommitWindow(20);
+            assertTrue(db.addFlight("T100", "NU100", 1, 1, new char[]{'A'}));
+            assertTrue(db.whenDurable().get(5, TimeUnit.SECONDS));
+            assertEquals(3, new DatabaseService(dbFile).getFlights().size());
+        }
+    }
+
+    @Test
+    void closeAndReloadDoNotLosePendingChanges() {
+        DatabaseService db = new DatabaseService(dbFile, PersistenceMode.GROUP_COMMIT);
+        db.setGroupCommitWindow(60_000);
+        db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01"));
+        db.load(); // Refresh must not drop the unsaved booking
+        assertTrue(db.getSeats("F001").get(0).isBooked());
+
+        db.releaseSeat("F001", "1A");
+        db.close();
+        assertFalse(new DatabaseService(dbFile).getSeats("F001").get(0).isBooked());
+    }
+
+    @Test
+    void failedBackgroundSaveIsReportedToListeners() throws Exception {
+        Path notADir = tempDir.resolve("plain-file");
+        Files.writeString(notADir, "x");
+        try (DatabaseService db = new DatabaseService(notADir.resolve("db.txt").toString(), PersistenceMode.GROUP_COMMIT)) {
+            CompletableFuture<IOException> reported = new CompletableFuture<>();
+            db.addSaveFailureListener(reported::complete);
+            db.setGroupCommitWindow(100);
+
+            assertTrue(db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01"))); // returns before the save
+            assertFalse(db.whenDurable().get(5, TimeUnit.SECONDS));
+            assertNotNull(reported.get(5, TimeUnit.SECONDS));
+            assertTrue(db.getSeat("F001", "1A").isBooked()); // still in memory
+        }
+    }
+
+    @Test
+    void changesOfAFailedSaveStayPendingUntilCloseSavesThem() throws Exception {
+        Path parent = tempDir.resolve("not-a-dir-yet");
+        Files.writeString(parent, "x");
+        String path = parent.resolve("db.txt").toString();
+        DatabaseService db = new DatabaseService(path, PersistenceMode.GROUP_COMMIT);
+        db.setGroupCommitWindow(60_000);
+
+        assertTrue(db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01")));
+        assertFalse(db.flush());                  // parent is a file
+        assertFalse(db.whenDurable().isDone());   // the booking is still waiting for a save
+        assertFalse(db.flush());                  // and each flush tries again
+
+        Files.delete(parent);
+        Files.createDirectory(parent);
+        CompletableFuture<Boolean> durable = db.whenDurable();
+        db.close();
+        assertTrue(durable.get(5, TimeUnit.SECONDS));
+        assertTrue(new DatabaseService(path).getSeat("F001", "1A").isBooked());
+    }
+
+    @Test
+    void closeGivesUpOnChangesThatCannotBeSaved() throws Exception {
+        Path parent = tempDir.resolve("plain-file");
+        Files.writeString(parent, "x");
+        DatabaseService db = new DatabaseService(parent.resolve("db.txt").toString(), PersistenceMode.GROUP_COMMIT);
+        db.setGroupCommitWindow(60_000);
+        assertTrue(db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01")));
+        CompletableFuture<Boolean> durable = db.whenDurable();
+        db.close();
+        assertFalse(durable.get(5, TimeUnit.SECONDS));
+        assertFalse(db.whenDurable().get(5, TimeUnit.SECONDS)); // nothing left waiting forever
+    }
+
+    @Test
+    void writeThroughWhenDurableReportsTheLatestSave() throws Exception {
+        Path parent = tempDir.resolve("plain-file");
+        Files.writeString(parent, "x");
+        DatabaseService db = new DatabaseService(parent.resolve("db.txt").toString(), PersistenceMode.WRITE_THROUGH);
+        assertTrue(db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01"))); // in memory only
+        assertFalse(db.whenDurable().get(5, TimeUnit.SECONDS));
+
+        Files.delete(parent);
+        Files.createDirectory(parent);
+        assertTrue(db.save());
+        assertTrue(db.whenDurable().get(5, TimeUnit.SECONDS));
+    }
+}
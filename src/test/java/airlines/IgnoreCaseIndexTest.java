@@ -0,0 +1,65 @@
+package airlines;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class IgnoreCaseIndexTest {
+
+    @Test
+    void lookupIgnoresCase() {
+        IgnoreCaseIndex<String> index = new IgnoreCaseIndex<>();
+        index.put("12a", "seat");
+        assertEquals("seat", index.get("12A"));
+        assertEquals("seat", index.get("12a"));
+        assertNull(index.get("12B"));
+        assertNull(index.get(null));
+
+        assertEquals("seat", index.putIfAbsent("12A", "other"));
+        assertEquals("seat", index.put("12A", "replaced"));
+        assertEquals(1, index.size());
+        assertEquals("replaced", index.remove("12a"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void hashAgreesWithEqualsIgnoreCase() {
+        String[][] pairs = {{"f001", "F001"}, {"ı", "I"}, {"K", "k"}, {"été", "ÉTÉ"}};
+        for (String[] p : pairs) {
+            assertTrue(p[0].equalsIgnoreCase(p[1]));
+            assertEquals(IgnoreCaseIndex.hash(p[0]), IgnoreCaseIndex.hash(p[1]), p[0] + " / " + p[1]);
+        }
+        assertEquals(new Seat("1a").hashCode(), new Seat("1A").hashCode());
+    }
+
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        IgnoreCaseIndex<Integer> index = new IgnoreCaseIndex<>();
+        Map<String, Integer> reference = new HashMap<>();
+        Random rnd = new Random(42);
+        List<String> keys = new ArrayList<>();
+        for (int row = 1; row <= 60; row++) {
+            for (char c = 'A'; c <= 'F'; c++) keys.add(row + String.valueOf(c));
+        }
+        for (int step = 0; step < 20_000; step++) {
+            String key = keys.get(rnd.nextInt(keys.size()));
+            if (rnd.nextBoolean()) key = key.toLowerCase(Locale.ROOT);
+            String norm = key.toUpperCase(Locale.ROOT);
+            if (rnd.nextInt(3) == 0) {
+                assertEquals(reference.remove(norm), index.remove(key));
+            } else {
+                assertEquals(reference.put(norm, step), index.put(key, step));
+            }
+            assertEquals(reference.size(), index.size());
+        }
+        for (String key : keys) {
+            assertEquals(reference.get(key), index.get(key.toLowerCase(Locale.ROOT)));
+        }
+    }
+}
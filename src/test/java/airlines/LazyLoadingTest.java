@@ -0,0 +1,89 @@
+package airlines;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LazyLoadingTest {
+
+    @TempDir
+    Path tempDir;
+
+    // Default dataset as segments: F001 has 30 seats, F002 has 16
+    private String segmentDir() throws IOException {
+        Path dir = tempDir.resolve("db");
+        FileStorage.importToSegments(tempDir.resolve("database.txt").toString(), dir.toString(), StorageFormat.V1_CSV);
+        return dir.toString();
+    }
+
+    @Test
+    void startupReadsOnlyTheFlightIndex() throws IOException {
+        String dir = segmentDir();
+        // A broken segment must not matter until that flight is opened
+        Files.writeString(Path.of(dir).resolve(SegmentStorage.readManifest(Path.of(dir)).get(1).file()), "garbage");
+
+        DatabaseService db = new DatabaseService(dir, PersistenceMode.WRITE_THROUGH, 1000);
+        assertEquals(2, db.getFlights().size());
+        assertEquals("NU245", db.getFlights().get(1).getFlightNumber());
+        assertEquals(0, db.residentSeatCount());
+        assertTrue(db.getFlights().get(0).getSeats().isEmpty());
+
+        assertEquals(30, db.getSeats("F001").size());
+        assertEquals(30, db.residentSeatCount());
+    }
+
+    @Test
+    void leastRecentlyUsedFlightIsEvictedOverBudget() throws IOException {
+        DatabaseService db = new DatabaseService(segmentDir(), PersistenceMode.WRITE_THROUGH, 40);
+        assertEquals(30, db.getSeats("F001").size());
+        assertEquals(16, db.getSeats("F002").size());
+        assertEquals(16, db.residentSeatCount());
+
+        assertTrue(db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01")));
+        assertEquals(30, db.residentSeatCount());
+        assertTrue(db.getSeats("F001").get(0).isBooked());
+    }
+
+    @Test
+    void unsavedFlightsStayResident() throws IOException {
+        DatabaseService db = new DatabaseService(segmentDir(), PersistenceMode.JOURNALED, 20);
+        assertTrue(db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01")));
+        db.getSeats("F002");
+        assertEquals(46, db.residentSeatCount()); // F001 is only in the journal so far
+
+        db.compactJournal();
+        assertEquals(16, db.residentSeatCount());
+        assertTrue(db.getSeats("F001").get(0).isBooked());
+        db.close();
+    }
+
+    @Test
+    void journalFromEarlierSessionIsAppliedOnLazyStartup() throws IOException {
+        String dir = segmentDir();
+        DatabaseService first = new DatabaseService(dir, PersistenceMode.JOURNALED);
+        assertTrue(first.bookSeat("F002", "4D", new Passenger("Jane", "Doe", "1985-05-15")));
+        first.close(); // journal is left uncompacted
+
+        DatabaseService db = new DatabaseService(dir, PersistenceMode.WRITE_THROUGH, 1000);
+        List<Seat> seats = db.getSeats("F002");
+        assertTrue(seats.get(seats.size() - 1).isBooked());
+
+        assertTrue(db.save()); // writes F002's segment and clears the journal
+        assertFalse(Files.exists(SeatJournal.activePath(dir)));
+        seats = new DatabaseService(dir, PersistenceMode.WRITE_THROUGH, 1000).getSeats("F002");
+        assertTrue(seats.get(seats.size() - 1).isBooked());
+    }
+
+    @Test
+    void singleFileDatabaseLoadsEagerly() {
+        String file = tempDir.resolve("database.txt").toString();
+        DatabaseService db = new DatabaseService(file, PersistenceMode.WRITE_THROUGH, 10);
+        assertEquals(30, db.getFlights().get(0).getSeats().size());
+        assertEquals(0, db.residentSeatCount());
+    }
+}
@@ -0,0 +1,148 @@
+package airlines;
+
+import java.lang.System.Logger.Level;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class LogTest {
+
+    private static final long FLUSH_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /** System.Logger that keeps what it is given; optionally blocks until released. */
+    static final class RecordingLogger implements System.Logger {
+        final List<String> messages = new CopyOnWriteArrayList<>();
+        final Level threshold;
+        final CountDownLatch entered = new CountDownLatch(1);
+        volatile CountDownLatch release;
+
+        RecordingLogger(Level threshold) {
+            this.threshold = threshold;
+        }
+
+        @Override public String getName() { return "test"; }
+
+        @Override public boolean isLoggable(Level level) {
+            return level.getSeverity() >= threshold.getSeverity();
+        }
+
+        @Override public void log(Level level, ResourceBundle bundle, String msg, Throwable thrown) {
+            record(level, msg + (thrown == null ? "" : " <" + thrown.getMessage() + ">"));
+        }
+
+        @Override public void log(Level level, ResourceBundle bundle, String format, Object... params) {
+            record(level, format);
+        }
+
+        private void record(Level level, String msg) {
+            entered.countDown();
+            CountDownLatch r = release;
+            if (r != null) {
+                try {
+                    r.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(level.getName() + " " + msg);
+        }
+    }
+
+    @Test
+    void disabledLevelNeverBuildsTheMessage() {
+        RecordingLogger target = new RecordingLogger(Level.WARNING);
+        Log.AsyncAppender appender = new Log.AsyncAppender(16, target);
+        Log log = new Log("Test", target, appender);
+        AtomicInteger built = new AtomicInteger();
+
+        log.debug(() -> "debug " + built.incrementAndGet());
+        log.info(() -> "info " + built.incrementAndGet());
+        log.warn(() -> "warn " + built.incrementAndGet());
+        appender.flush(FLUSH_NANOS);
+
+        assertEquals(1, built.get());
+        assertFalse(log.isEnabled(Level.INFO));
+        assertEquals(List.of("WARNING [Test] warn 1"), target.messages);
+    }
+
+    @Test
+    void messagesAreWrittenInOrderWithTheOwnerPrefix() {
+        RecordingLogger target = new RecordingLogger(Level.DEBUG);
+        Log.AsyncAppender appender = new Log.AsyncAppender(1024, target);
+        Log log = new Log("FileStorage", target, appender);
+
+        for (int i = 0; i < 1000; i++) log.info("row " + i);
+        log.error("Save failed", new java.io.IOException("disk full"));
+        appender.flush(FLUSH_NANOS);
+
+        assertEquals(1001, target.messages.size());
+        for (int i = 0; i < 1000; i++) assertEquals("INFO [FileStorage] row " + i, target.messages.get(i));
+        assertEquals("ERROR [FileStorage] Save failed <disk full>", target.messages.get(1000));
+    }
+
+    @Test
+    void limiterLogsTheFirstFewAndSummarizesTheRest() {
+        RecordingLogger target = new RecordingLogger(Level.DEBUG);
+        Log.AsyncAppender appender = new Log.AsyncAppender(64, target);
+        Log log = new Log("FileStorage", target, appender);
+        AtomicInteger built = new AtomicInteger();
+
+        try (Log.Limiter limiter = log.limit(Level.WARNING, 3, "malformed rows")) {
+            for (int i = 0; i < 10; i++) {
+                int row = i;
+                limiter.log(() -> "Skipping malformed row " + row + " #" + built.incrementAndGet());
+            }
+            assertEquals(7, limiter.suppressed());
+        }
+        appender.flush(FLUSH_NANOS);
+
+        assertEquals(3, built.get(), "suppressed messages are never built");
+        assertEquals(List.of(
+                "WARNING [FileStorage] Skipping malformed row 0 #1",
+                "WARNING [FileStorage] Skipping malformed row 1 #2",
+                "WARNING [FileStorage] Skipping malformed row 2 #3",
+                "WARNING [FileStorage] ... and 7 more malformed rows (10 in total)"), target.messages);
+    }
+
+    @Test
+    void limiterUnderItsLimitAddsNoSummary() {
+        RecordingLogger target = new RecordingLogger(Level.DEBUG);
+        Log.AsyncAppender appender = new Log.AsyncAppender(64, target);
+        Log log = new Log("Test", target, appender);
+
+        try (Log.Limiter limiter = log.limit(Level.WARNING, 5, "rows")) {
+            limiter.log(() -> "one");
+            limiter.log(() -> "two");
+        }
+        appender.flush(FLUSH_NANOS);
+
+        assertEquals(List.of("WARNING [Test] one", "WARNING [Test] two"), target.messages);
+    }
+
+    @Test
+    void fullBufferDropsInsteadOfBlockingAndReportsTheLoss() throws Exception {
+        RecordingLogger target = new RecordingLogger(Level.DEBUG);
+        target.release = new CountDownLatch(1);
+        Log.AsyncAppender appender = new Log.AsyncAppender(4, target);
+        Log log = new Log("Test", target, appender);
+
+        log.info("first");                                  // the writer takes it and blocks in the logger
+        assertTrue(target.entered.await(5, TimeUnit.SECONDS));
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) log.info("m" + i);      // 4 fit, 6 are dropped
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1), "logging blocked on a stuck writer");
+
+        target.release.countDown();
+        appender.flush(FLUSH_NANOS);
+
+        assertEquals(List.of(
+                "INFO [Test] first", "INFO [Test] m0", "INFO [Test] m1", "INFO [Test] m2", "INFO [Test] m3",
+                "WARNING [Log] 6 messages dropped, the log buffer was full"), target.messages);
+    }
+}
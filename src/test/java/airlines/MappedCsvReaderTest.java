@@ -0,0 +1,123 @@
+package airlines;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MappedCsvReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parsesRowsTrimsFieldsAndNormalizesStatus() throws IOException {
+        Path db = tempDir.resolve("db.txt");
+        Files.writeString(db,
+                "# NUA-DB v1 | flightId,flightNumber,seatNumber,status,firstName,lastName,dateOfBirth\n" +
+                " F100 , NU777 , 1A , available ,,,\n" +
+                "F100,NU777,1B,Booked, John , Doe ,1990-01-01\n", StandardCharsets.UTF_8);
+
+        MappedCsvReader.Chunk parsed = MappedCsvReader.read(db);
+        Flight f = parsed.flights.get("F100");
+        assertNotNull(f);
+        assertEquals("NU777", f.getFlightNumber());
+        assertEquals(2, parsed.rows);
+        assertFalse(f.getSeat("1A").isBooked());
+        Passenger p = f.getSeat("1B").getPassenger();
+        assertEquals("John", p.getFirstName());
+        assertEquals("Doe", p.getLastName());
+    }
+
+    @Test
+    void reportsMalformedRowsWithLineNumbers() throws IOException {
+        Path db = tempDir.resolve("mixed.txt");
+        Files.writeString(db,
+                "# any header\r\n" +
+                "F100,NU777\r\n" +
+                "\r\n" +
+                ",NU777,1A,AVAILABLE,,,\r\n" +
+                "F100,NU777,1B,INVALID,,,\r" +       // bare CR ends a line too
+                "F100,NU777,1C,AVAILABLE,,,,\r\n" +
+                "F100,NU777,1D,AVAILABLE,,,", StandardCharsets.UTF_8);
+
+        MappedCsvReader.Chunk parsed = MappedCsvReader.read(db);
+        assertEquals(1, parsed.rows);
+        assertEquals(4, parsed.skipped);
+        assertEquals(7, parsed.lines);
+        assertEquals(List.of(
+                "(wrong column count) at line 2: F100,NU777",
+                "(missing required fields) at line 4: ,NU777,1A,AVAILABLE,,,",
+                "(invalid status) at line 5: F100,NU777,1B,INVALID,,,",
+                "(wrong column count) at line 6: F100,NU777,1C,AVAILABLE,,,,"), parsed.problems.stream().map(Object::toString).toList());
+    }
+
+    @Test
+    void mappedLargeFileKeepsFlightAndSeatOrder() throws IOException {
+        Path db = tempDir.resolve("large.txt");
+        List<String> lines = new ArrayList<>();
+        lines.add("\uFEFF# flightId,flightNumber,seatNumber,status,firstName,lastName,dateOfBirth");
+        int rowsPerFlight = 20_000;
+        for (String id : new String[]{"F2", "F1", "F3"}) {
+            for (int i = 0; i < rowsPerFlight; i++) {
+                lines.add(id + ",NU1," + i + "A,AVAILABLE,,,");
+            }
+        }
+        Files.write(db, lines, StandardCharsets.UTF_8);
+        assertTrue(Files.size(db) >= MappedCsvReader.MAP_THRESHOLD, "test file must take the mapped path");
+
+        MappedCsvReader.Chunk parsed = MappedCsvReader.read(db);
+        assertEquals(List.of("F2", "F1", "F3"), new ArrayList<>(parsed.flights.keySet()));
+        List<Seat> seats = parsed.flights.get("F1").getSeats();
+        assertEquals(rowsPerFlight, seats.size());
+        assertEquals("0A", seats.get(0).getSeatNumber());
+        assertEquals((rowsPerFlight - 1) + "A", seats.get(rowsPerFlight - 1).getSeatNumber());
+    }
+
+    @Test
+    void parallelParseMatchesSequentialForAnySplit() throws IOException {
+        Path db = tempDir.resolve("split.txt");
+        StringBuilder sb = new StringBuilder("\uFEFF# NUA-DB v1 | header\r\n");
+        String[] endings = {"\n", "\r\n", "\r"};
+        for (int i = 0; i < 60; i++) {
+            String id = "F" + (i % 7 == 0 ? 9 : i / 20); // F9 rows interleave with F0..F2
+            if (i % 11 == 5) sb.append(id).append(",NU1,").append(i).append("A,WRONG,,,");
+            else if (i % 13 == 3) sb.append("  ");
+            else sb.append(id).append(",NU1,").append(i).append("A,BOOKED,Ann,Lee,1990-01-01");
+            sb.append(endings[i % 3]);
+        }
+        sb.append("F1,NU1,99Z,AVAILABLE,,,"); // no final line break
+        Files.writeString(db, sb.toString(), StandardCharsets.UTF_8);
+
+        MappedCsvReader.Chunk expected = MappedCsvReader.read(db);
+        for (long chunkBytes : new long[]{1, 7, 64, 333, 1 << 20}) {
+            MappedCsvReader.Chunk parsed = MappedCsvReader.readParallel(db, chunkBytes);
+            assertEquals(new ArrayList<>(expected.flights.keySet()), new ArrayList<>(parsed.flights.keySet()));
+            for (Flight f : expected.flights.values()) {
+                assertEquals(seatNumbers(f), seatNumbers(parsed.flights.get(f.getId())), "chunkBytes=" + chunkBytes);
+            }
+            assertEquals(expected.problems, parsed.problems, "chunkBytes=" + chunkBytes);
+            assertEquals(expected.lines, parsed.lines);
+            assertEquals(expected.rows, parsed.rows);
+            assertEquals(expected.skipped, parsed.skipped);
+        }
+        assertEquals(5, expected.problems.size()); // i = 5, 16, 27, 38, 49
+    }
+
+    private static List<String> seatNumbers(Flight f) {
+        return f.getSeats().stream().map(Seat::getSeatNumber).toList();
+    }
+
+    @Test
+    void emptyFileYieldsNoFlights() throws IOException {
+        Path db = tempDir.resolve("empty.txt");
+        Files.createFile(db);
+        assertTrue(MappedCsvReader.read(db).flights.isEmpty());
+    }
+}
@@ -0,0 +1,139 @@
+package airlines;
+
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class MetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Passenger PAX = new Passenger("John", "Doe", "1990-01-01");
+
+    @Test
+    void bucketsCoverTheWholeRangeWithinThreePercent() {
+        assertEquals(0, LatencyHistogram.bucket(0));
+        assertEquals(31, LatencyHistogram.bucket(31));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestIn(LatencyHistogram.BUCKETS - 1));
+        for (long v : new long[]{32, 33, 63, 64, 1000, 123_456, 9_999_999_999L, 1L << 50}) {
+            int b = LatencyHistogram.bucket(v);
+            long high = LatencyHistogram.highestIn(b);
+            assertTrue(high >= v, v + " above its bucket");
+            assertTrue(b == 0 || LatencyHistogram.highestIn(b - 1) < v, v + " below its bucket");
+            assertTrue(high - v <= v / 32, v + " reported as " + high);
+        }
+    }
+
+    @Test
+    void percentilesOfAKnownDistribution() {
+        LatencyHistogram h = new LatencyHistogram("test");
+        assertEquals(0, h.percentile(99));
+        for (int i = 1; i <= 1000; i++) h.record(i * 1_000L); // 1..1000 us
+        h.record(-5);                                          // clamped to 0
+
+        assertEquals(1001, h.getCount());
+        assertEquals(500, h.getP50Micros(), 500 * 0.035);
+        assertEquals(990, h.getP99Micros(), 990 * 0.035);
+        assertEquals(1000, h.getMaxMicros(), 0.001);
+        assertEquals(1000, h.percentile(100) / 1e3, 0.001);
+        assertEquals(0, h.percentile(0));
+        assertEquals(500.5 * 1000 / 1001, h.getMeanMicros(), 0.01);
+
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMaxMicros(), 0);
+    }
+
+    @Test
+    void recordingDoesNotAllocate() {
+        LatencyHistogram h = new LatencyHistogram("alloc");
+        Metrics.Counter c = Metrics.BOOKINGS;
+        for (int i = 0; i < 100_000; i++) { // warm up: JIT and adder cells
+            h.record(i);
+            c.increment();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long id = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 100_000; i++) {
+            h.recordSince(System.nanoTime() - i);
+            c.increment();
+        }
+        long allocated = threads.getThreadAllocatedBytes(id) - before;
+        assertTrue(allocated < 1024, allocated + " bytes allocated while recording");
+    }
+
+    @Test
+    void serviceOperationsAreCountedAndExportedOverJmx() throws Exception {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        Metrics.reset();
+
+        assertTrue(db.bookSeat("F001", "1A", PAX));
+        assertTrue(db.tryBook("F001", "1B", PAX));
+        assertTrue(db.releaseSeat("F001", "1A"));
+        assertFalse(db.bookSeat("F001", "99Z", PAX));
+        assertFalse(db.bookSeat("NOPE", "1A", PAX));
+        assertNull(db.getSeat("F001", "99Z"));
+        assertTrue(db.addFlight("F300", "NU300", 1, 2, "AB".toCharArray()));
+        assertTrue(db.deleteFlight("F300"));
+
+        assertEquals(2, Metrics.BOOKINGS.getCount());
+        assertEquals(1, Metrics.RELEASES.getCount());
+        assertEquals(3, Metrics.LOOKUP_MISSES.getCount());
+        assertEquals(4, Metrics.UPDATE_SEAT.getCount()); // bookSeat/releaseSeat go through updateSeat, tryBook does not
+        assertEquals(1, Metrics.ADD_FLIGHT.getCount());
+        assertEquals(1, Metrics.DELETE_FLIGHT.getCount());
+        assertTrue(Metrics.SAVE.getCount() >= 4);         // WRITE_THROUGH: a save per change
+
+        assertTrue(Metrics.registerMBeans());
+        assertTrue(Metrics.registerMBeans());
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertEquals(2L, server.getAttribute(Metrics.objectName("Counter", "bookings"), "Count"));
+        assertEquals(Metrics.SAVE.getCount(), server.getAttribute(Metrics.objectName("Latency", "save"), "Count"));
+        double p99 = (Double) server.getAttribute(Metrics.objectName("Latency", "save"), "P99Micros");
+        assertTrue(p99 > 0);
+    }
+
+    @Test
+    void readingTheRateDoesNotChangeIt() {
+        Metrics.Counter c = new Metrics.Counter("rate");
+        c.sample(0);
+        c.add(500);
+        c.sample(TimeUnit.SECONDS.toNanos(1));
+        c.add(100);
+        assertEquals(500, c.getRatePerSecond(), 1e-9);
+        assertEquals(500, c.getRatePerSecond(), 1e-9); // a second reader sees the same window
+        c.sample(TimeUnit.SECONDS.toNanos(3));
+        assertEquals(50, c.getRatePerSecond(), 1e-9);
+        assertEquals(600, c.getCount());
+    }
+
+    @Test
+    void aSegmentedSaveIsTimedOnce() throws Exception {
+        Path dir = tempDir.resolve("segments");
+        FileStorage.importToSegments(tempDir.resolve("seed.txt").toString(), dir.toString(), StorageFormat.V1_CSV);
+        List<Flight> flights = FileStorage.read(dir.toString());
+        assertTrue(flights.size() >= 2);
+
+        Metrics.reset();
+        FileStorage.write(dir.toString(), flights, StorageFormat.V1_CSV); // one segment per flight
+        assertEquals(1, Metrics.SAVE.getCount());
+
+        try (DatabaseService db = new DatabaseService(dir.toString(), PersistenceMode.GROUP_COMMIT)) {
+            db.setGroupCommitWindow(3_600_000);
+            assertTrue(db.bookSeat(flights.get(0).getId(), "1A", PAX));
+            assertTrue(db.bookSeat(flights.get(1).getId(), "1A", PAX));
+            Metrics.reset();
+            assertTrue(db.save());                                        // two dirty segments
+            assertEquals(1, Metrics.SAVE.getCount());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package airlines;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SeatHoldTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Passenger JOHN = new Passenger("John", "Doe", "1990-01-01");
+    private static final Passenger JANE = new Passenger("Jane", "Doe", "1985-05-15");
+
+    @Test
+    void heldSeatCanOnlyBeBookedThroughItsHold() {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.JOURNALED)) {
+            int free = db.availableCount("F001");
+            long hold = db.holdSeat("F001", "1A", 60_000);
+            assertTrue(hold > 0);
+            assertEquals(SeatStatus.HELD, db.getSeat("F001", "1A").getStatus());
+            assertEquals(free - 1, db.availableCount("F001"));
+            assertEquals(0, db.bookedCount("F001"));
+            assertEquals(1, db.heldCount("F001"));
+            assertEquals(1, db.nextAvailable("F001", 0));
+
+            assertFalse(db.tryBook("F001", "1A", JANE));
+            assertEquals(-1, db.holdSeat("f001", "1a", 60_000));
+            assertFalse(db.bookHeld(hold, null));
+            assertTrue(db.bookHeld(hold, JOHN));
+            assertFalse(db.bookHeld(hold, JANE));
+            assertFalse(db.releaseHold(hold));
+            assertEquals(0, db.holdCount());
+            assertEquals(1, db.bookedCount("F001"));
+        }
+        assertEquals(JOHN, new DatabaseService(dbFile).getSeat("F001", "1A").getPassenger());
+    }
+
+    @Test
+    void expiredAndReleasedHoldsMakeTheSeatAvailable() {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        long shortHold = db.holdSeat("F001", "1A", 5_000);
+        long longHold = db.holdSeat("F001", "1B", 10 * 60_000);
+        long released = db.holdSeat("F001", "1C", 5_000);
+        assertTrue(db.releaseHold(released));
+        assertEquals(SeatStatus.AVAILABLE, db.getSeat("F001", "1C").getStatus());
+
+        long now = DatabaseService.nowMillis();
+        assertEquals(0, db.expireHolds(now));
+        assertEquals(1, db.expireHolds(now + 5_200));
+        assertEquals(SeatStatus.AVAILABLE, db.getSeat("F001", "1A").getStatus());
+        assertEquals(SeatStatus.HELD, db.getSeat("F001", "1B").getStatus());
+        assertFalse(db.bookHeld(shortHold, JOHN));
+
+        assertTrue(db.tryBook("F001", "1A", JANE)); // free for anyone again
+        assertEquals(1, db.expireHolds(now + 10 * 60_000 + 200));
+        assertFalse(db.releaseHold(longHold));
+        assertEquals(0, db.holdCount());
+        assertEquals(0, db.heldCount("F001"));
+    }
+
+    @Test
+    void holdsAreNotPersisted() {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        DatabaseService db = new DatabaseService(dbFile);
+        assertTrue(db.holdSeat("F001", "2A", 60_000) > 0);
+        assertTrue(db.bookSeat("F001", "2B", JOHN)); // saves the whole file, hold included
+
+        DatabaseService reloaded = new DatabaseService(dbFile);
+        assertEquals(SeatStatus.AVAILABLE, reloaded.getSeat("F001", "2A").getStatus());
+        assertEquals(SeatStatus.BOOKED, reloaded.getSeat("F001", "2B").getStatus());
+
+        db.load();
+        assertEquals(0, db.holdCount());
+        assertEquals(SeatStatus.AVAILABLE, db.getSeat("F001", "2A").getStatus());
+    }
+
+    @Test
+    void compactFlightsHoldSeatsToo() {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        long kept = db.holdSeat("F002", "1A", 60_000);
+        db.setCompactFlights(true); // the hold survives the conversion
+        assertEquals(SeatStatus.HELD, db.getSeat("F002", "1A").getStatus());
+        long hold = db.holdSeat("F002", "1B", 60_000);
+        assertTrue(hold > 0);
+        assertEquals(2, db.heldCount("F002"));
+        assertEquals(2, db.nextAvailable("F002", 0));
+        assertFalse(db.tryBook("F002", "1B", JANE));
+
+        assertTrue(db.bookHeld(hold, JOHN));
+        assertTrue(db.releaseHold(kept));
+        assertEquals(SeatStatus.BOOKED, db.getSeat("F002", "1B").getStatus());
+        assertEquals(0, db.heldCount("F002"));
+        assertEquals(0, db.nextAvailable("F002", 0));
+    }
+}
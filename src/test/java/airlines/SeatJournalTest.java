@@ -0,0 +1,117 @@
+package airlines;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SeatJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void appendAndReplayRestoresSeatState() throws IOException {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        Flight flight = new Flight("F100", "NU777");
+        flight.addSeat(new Seat("1A"));
+        flight.addSeat(new Seat("1B", new Passenger("Old", "Guest", "1980-02-02")));
+
+        try (SeatJournal journal = new SeatJournal(dbFile)) {
+            Seat booked = new Seat("1A", new Passenger("John", "Doe", "1990-01-01"));
+            journal.append("F100", booked);
+            journal.append("F100", new Seat("1B"));
+        }
+
+        int applied = SeatJournal.replay(dbFile, List.of(flight));
+        assertEquals(2, applied);
+        assertEquals("John", flight.getSeat("1A").getPassenger().getFirstName());
+        assertFalse(flight.getSeat("1B").isBooked());
+    }
+
+    @Test
+    void replaySkipsTornAndUnknownRecords() throws IOException {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        Files.writeString(SeatJournal.activePath(dbFile),
+                "F999,1A,BOOKED,A,B,1990-01-01\n" +   // unknown flight
+                "F100,1A,BOOKED,John,Doe,1990-01-01\n" +
+                "F100,1A,AVAIL",                      // torn last record
+                StandardCharsets.UTF_8);
+        Flight flight = new Flight("F100", "NU777");
+        flight.addSeat(new Seat("1A"));
+
+        assertEquals(1, SeatJournal.replay(dbFile, List.of(flight)));
+        assertTrue(flight.getSeat("1A").isBooked());
+
+        // The next append must not be glued onto the torn line
+        try (SeatJournal journal = new SeatJournal(dbFile)) {
+            journal.append("F100", new Seat("1A"));
+        }
+        assertEquals(2, SeatJournal.replay(dbFile, List.of(flight)));
+        assertFalse(flight.getSeat("1A").isBooked());
+    }
+
+    @Test
+    void journaledBookingDoesNotRewriteSnapshot() throws IOException {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.JOURNALED)) {
+            String before = Files.readString(Path.of(dbFile));
+
+            assertTrue(db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01")));
+            assertTrue(db.releaseSeat("F002", "1B"));
+
+            assertEquals(before, Files.readString(Path.of(dbFile)));
+            assertEquals(2, Files.readAllLines(SeatJournal.activePath(dbFile)).size());
+        }
+
+        DatabaseService reopened = new DatabaseService(dbFile);
+        Seat seat = findFlight(reopened.getFlights(), "F001").getSeat("1A");
+        assertTrue(seat.isBooked());
+        assertEquals("Doe", seat.getPassenger().getLastName());
+    }
+
+    @Test
+    void fullSaveClearsJournal() {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.JOURNALED)) {
+            db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01"));
+            assertTrue(Files.exists(SeatJournal.activePath(dbFile)));
+
+            assertTrue(db.addFlight("T100", "NU100", 1, 1, new char[]{'A'}));
+            assertFalse(Files.exists(SeatJournal.activePath(dbFile)));
+        }
+        assertTrue(findFlight(new DatabaseService(dbFile).getFlights(), "F001").getSeat("1A").isBooked());
+    }
+
+    @Test
+    void journalIsCompactedOncePastThreshold() throws Exception {
+        String dbFile = tempDir.resolve("db.txt").toString();
+        try (DatabaseService db = new DatabaseService(dbFile, PersistenceMode.JOURNALED)) {
+            db.setJournalCompactionThreshold(64);
+            db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01"));
+            db.bookSeat("F001", "1B", new Passenger("Jane", "Doe", "1991-02-03"));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (Files.exists(SeatJournal.rolledPath(dbFile)) || Files.exists(SeatJournal.activePath(dbFile))) {
+                assertTrue(System.currentTimeMillis() < deadline, "compaction did not finish");
+                Thread.sleep(10);
+            }
+        }
+
+        List<String> lines = Files.readAllLines(Path.of(dbFile), StandardCharsets.UTF_8);
+        assertTrue(lines.get(0).startsWith("# NUA-DB v1 | "));
+        assertTrue(lines.contains("F001,NU100,1B,BOOKED,Jane,Doe,1991-02-03"));
+    }
+
+    private static Flight findFlight(List<Flight> flights, String id) {
+        for (Flight f : flights) {
+            if (f.getId().equals(id)) return f;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,109 @@
+package airlines;
+
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SeatMapPanelTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Passenger PAX = new Passenger("John", "Doe", "1990-01-01");
+
+    // Records the regions asked to repaint instead of queueing them.
+    private static final class RecordingMap extends SeatMapPanel {
+        List<Rectangle> repainted; // null while the superclass constructor runs
+
+        RecordingMap(SeatTableModel model, java.util.function.Consumer<String> onClick) {
+            super(model, onClick);
+            repainted = new ArrayList<>();
+        }
+
+        @Override
+        public void repaint(long tm, int x, int y, int width, int height) {
+            if (repainted != null) repainted.add(new Rectangle(x, y, width, height));
+        }
+    }
+
+    private static int pixel(SeatMapPanel map, Point p) {
+        BufferedImage out = new BufferedImage(map.getPreferredSize().width, map.getPreferredSize().height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        map.setSize(map.getPreferredSize());
+        map.paint(g);
+        g.dispose();
+        return out.getRGB(p.x, p.y);
+    }
+
+    @Test
+    void layoutFollowsRowsAndLetters() {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        SeatTableModel model = new SeatTableModel(db, "F001"); // rows 1-5, A-F
+        List<String> clicked = new ArrayList<>();
+        SeatMapPanel map = new SeatMapPanel(model, clicked::add);
+        model.reload();
+
+        Rectangle a1 = map.cellBounds(0);
+        Rectangle b1 = map.cellBounds(1);
+        Rectangle a2 = map.cellBounds(6);
+        assertEquals(a1.y, b1.y);
+        assertTrue(b1.x > a1.x);
+        assertEquals(a1.x, a2.x);
+        assertTrue(a2.y > a1.y);
+        // aisle between C and D
+        int cd = map.cellBounds(3).x - map.cellBounds(2).x;
+        int bc = map.cellBounds(2).x - map.cellBounds(1).x;
+        assertEquals(SeatMapPanel.AISLE, cd - bc);
+
+        Point inB1 = new Point(b1.x + 2, b1.y + 2);
+        assertEquals(1, map.rowAt(inB1));
+        assertEquals(-1, map.rowAt(new Point(1, 1)));
+        Rectangle f5 = map.cellBounds(model.getRowCount() - 1);
+        assertTrue(map.getPreferredSize().height >= f5.y + f5.height);
+        assertTrue(map.getPreferredSize().width >= f5.x + f5.width);
+    }
+
+    @Test
+    void seatChangeRepaintsOnlyItsCell() {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        SeatTableModel model = new SeatTableModel(db, "F001");
+        RecordingMap map = new RecordingMap(model, s -> { });
+        model.reload();
+
+        Rectangle b1 = map.cellBounds(1);
+        Point inside = new Point(b1.x + 2, b1.y + 2);
+        int before = pixel(map, inside);
+
+        map.repainted.clear();
+        assertTrue(db.bookSeat("F001", "1B", PAX));
+        assertTrue(model.seatChanged("1B"));
+        assertEquals(List.of(b1), map.repainted);
+        assertNotEquals(before, pixel(map, inside));
+        assertEquals(pixel(map, new Point(map.cellBounds(0).x + 2, b1.y + 2)), before); // 1A untouched
+    }
+
+    @Test
+    void reloadRebuildsForADifferentCabin() {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        char[] letters = "ABCDEFGHJK".toCharArray();
+        assertTrue(db.addFlight("F900", "NU900", 1, 200, letters));
+        SeatTableModel model = new SeatTableModel(db, "F900");
+        SeatMapPanel map = new SeatMapPanel(model, s -> { });
+        model.reload();
+
+        assertEquals(2000, model.getRowCount());
+        Rectangle last = map.cellBounds(1999);
+        assertEquals(199 * (SeatMapPanel.CELL_H + SeatMapPanel.GAP), last.y - map.cellBounds(0).y);
+        assertEquals(1999, map.rowAt(new Point(last.x + 1, last.y + 1)));
+        int unit = map.getScrollableUnitIncrement(new Rectangle(0, 0, 100, 100), javax.swing.SwingConstants.VERTICAL, 1);
+        assertEquals(SeatMapPanel.CELL_H + SeatMapPanel.GAP, unit);
+    }
+}
@@ -0,0 +1,65 @@
+package airlines;
+
+import javax.swing.event.TableModelEvent;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SeatTableModelTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final Passenger PAX = new Passenger("John", "Doe", "1990-01-01");
+
+    @Test
+    void cellsReadTheSeatsAndChangesRepaintOneRow() {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        SeatTableModel model = new SeatTableModel(db, "F001");
+        List<TableModelEvent> fired = new ArrayList<>();
+        model.addTableModelListener(fired::add);
+
+        model.reload();
+        int seats = db.getSeats("F001").size();
+        assertEquals(seats, model.getRowCount());
+        assertEquals(4, model.getColumnCount());
+        assertEquals("Passenger", model.getColumnName(2));
+        assertEquals("1B", model.getValueAt(1, 0));
+        assertEquals("AVAILABLE", model.getValueAt(1, 1));
+        assertEquals("", model.getValueAt(1, 2));
+
+        fired.clear();
+        assertTrue(db.bookSeat("F001", "1B", PAX));
+        assertTrue(model.seatChanged("1b"));
+        assertEquals(1, fired.size());
+        assertEquals(1, fired.get(0).getFirstRow());
+        assertEquals(1, fired.get(0).getLastRow());
+        assertEquals("BOOKED", model.getValueAt(1, 1));
+        assertEquals("John Doe", model.getValueAt(1, 2));
+        assertEquals("1990-01-01", model.getValueAt(1, 3));
+        assertEquals("1B", model.getSeatAt(1).getSeatNumber());
+
+        assertFalse(model.seatChanged("99Z"));
+        assertFalse(model.seatChanged(null));
+    }
+
+    @Test
+    void reloadFollowsReplacedSeats() {
+        DatabaseService db = new DatabaseService(tempDir.resolve("db.txt").toString());
+        SeatTableModel model = new SeatTableModel(db, "F002");
+        model.reload();
+        db.setCompactFlights(true); // new Seat views over packed arrays
+        assertTrue(db.bookSeat("F002", "1A", PAX));
+        assertTrue(model.seatChanged("1A"));
+        assertEquals("BOOKED", model.getValueAt(0, 1));
+
+        assertTrue(db.deleteFlight("F002"));
+        assertFalse(model.seatChanged("1A"));
+        model.reload();
+        assertEquals(0, model.getRowCount());
+    }
+}
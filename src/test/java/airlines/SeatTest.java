@@ -163,4 +163,53 @@ public class SeatTest {
         assertEquals(seat1.hashCode(), seat2.hashCode());
         assertEquals(seat1.hashCode(), seat3.hashCode()); // Case insensitive
     }
+    
+    @Test
+    public void testTryBookAndTryRelease() {
+        Seat seat = new Seat("12A");
+        Passenger john = new Passenger("John", "Doe", "1990-01-01");
+        Passenger jane = new Passenger("Jane", "Doe", "1985-05-15");
+
+        assertFalse(seat.tryBook(null));
+        assertTrue(seat.tryBook(john));
+        assertFalse(seat.tryBook(jane)); // taken: first booking is kept
+        assertEquals(john, seat.getPassenger());
+
+        assertFalse(seat.tryRelease(jane));
+        assertFalse(seat.tryRelease(null));
+        assertTrue(seat.tryRelease(new Passenger("John", "Doe", "1990-01-01"))); // equal passenger
+        assertEquals(SeatStatus.AVAILABLE, seat.getStatus());
+        assertNull(seat.getPassenger());
+        assertFalse(seat.tryRelease(john));
+    }
+
+    @Test
+    public void testStatusAndPassengerStayConsistentUnderRaces() throws Exception {
+        Passenger john = new Passenger("John", "Doe", "1990-01-01");
+        Passenger jane = new Passenger("Jane", "Doe", "1985-05-15");
+        for (int round = 0; round < 2_000; round++) {
+            Seat seat = new Seat("12A", john);
+            java.util.concurrent.CountDownLatch go = new java.util.concurrent.CountDownLatch(1);
+            boolean[] released = new boolean[1];
+            Thread releaser = new Thread(() -> {
+                try { go.await(); } catch (InterruptedException e) { return; }
+                released[0] = seat.tryRelease(john);
+            });
+            Thread booker = new Thread(() -> {
+                try { go.await(); } catch (InterruptedException e) { return; }
+                seat.setPassenger(jane);
+            });
+            releaser.start();
+            booker.start();
+            go.countDown();
+            releaser.join();
+            booker.join();
+
+            // Never AVAILABLE with a passenger or BOOKED without one
+            assertEquals(seat.getPassenger() != null, seat.isBooked(), seat.toString());
+            // setPassenger(jane) always succeeds, so tryRelease can only undo it if it came first
+            if (!released[0]) assertEquals(jane, seat.getPassenger());
+            if (seat.getPassenger() == null) assertTrue(released[0]);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+package airlines;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SegmentStorageTest {
+
+    private static final FileTime OLD = FileTime.fromMillis(0);
+
+    @TempDir
+    Path tempDir;
+
+    private Path importDefaults() throws IOException {
+        Path dir = tempDir.resolve("db");
+        FileStorage.importToSegments(tempDir.resolve("database.txt").toString(), dir.toString(), StorageFormat.V1_CSV);
+        return dir;
+    }
+
+    private Path segmentOf(Path dir, String flightId) throws IOException {
+        for (SegmentStorage.Entry e : SegmentStorage.readManifest(dir)) {
+            if (e.flightId().equals(flightId)) return dir.resolve(e.file());
+        }
+        return null;
+    }
+
+    @Test
+    void importSplitsSingleFileIntoSegments() throws IOException {
+        Path dir = importDefaults();
+
+        List<SegmentStorage.Entry> manifest = SegmentStorage.readManifest(dir);
+        assertEquals(2, manifest.size());
+        assertEquals("F001", manifest.get(0).flightId());
+        assertEquals("NU100", manifest.get(0).flightNumber());
+        assertTrue(Files.exists(dir.resolve(manifest.get(1).file())));
+
+        DatabaseService db = new DatabaseService(dir.toString());
+        assertEquals(2, db.getFlights().size());
+        assertEquals(30, db.getSeats("F001").size());
+        assertEquals(16, db.getSeats("F002").size());
+    }
+
+    @Test
+    void bookingRewritesOnlyThatFlightsSegment() throws IOException {
+        Path dir = importDefaults();
+        DatabaseService db = new DatabaseService(dir.toString());
+        Path f1 = segmentOf(dir, "F001");
+        Path f2 = segmentOf(dir, "F002");
+        Files.setLastModifiedTime(f1, OLD);
+        Files.setLastModifiedTime(f2, OLD);
+
+        assertTrue(db.bookSeat("F001", "1A", new Passenger("John", "Doe", "1990-01-01")));
+
+        assertNotEquals(OLD, Files.getLastModifiedTime(f1));
+        assertEquals(OLD, Files.getLastModifiedTime(f2));
+        assertTrue(new DatabaseService(dir.toString()).getSeats("F001").get(0).isBooked());
+    }
+
+    @Test
+    void deleteFlightDropsOneSegment() throws IOException {
+        Path dir = importDefaults();
+        DatabaseService db = new DatabaseService(dir.toString());
+        Path f1 = segmentOf(dir, "F001");
+        Path f2 = segmentOf(dir, "F002");
+        Files.setLastModifiedTime(f1, OLD);
+
+        assertTrue(db.deleteFlight("F002"));
+
+        assertFalse(Files.exists(f2));
+        assertEquals(OLD, Files.getLastModifiedTime(f1));
+        List<SegmentStorage.Entry> manifest = SegmentStorage.readManifest(dir);
+        assertEquals(1, manifest.size());
+        assertEquals("F001", manifest.get(0).flightId());
+    }
+
+    @Test
+    void addedFlightGetsItsOwnSegment() throws IOException {
+        Path dir = importDefaults();
+        DatabaseService db = new DatabaseService(dir.toString());
+        assertTrue(db.deleteFlight("F002"));
+        assertTrue(db.addFlight("F002", "NU999", 1, 2, new char[]{'A', 'B'}));
+        assertTrue(db.addFlight("F003", "NU310", 1, 1, new char[]{'A'}));
+
+        List<SegmentStorage.Entry> manifest = SegmentStorage.readManifest(dir);
+        assertEquals(3, manifest.size());
+        assertEquals(3, manifest.stream().map(SegmentStorage.Entry::file).distinct().count());
+
+        DatabaseService reopened = new DatabaseService(dir.toString());
+        assertEquals("NU999", reopened.getFlights().get(1).getFlightNumber());
+        assertEquals(4, reopened.getSeats("F002").size());
+        assertEquals(1, reopened.getSeats("F003").size());
+    }
+
+    @Test
+    void journaledChangesReachTheirSegmentOnCompaction() throws IOException {
+        Path dir = importDefaults();
+        DatabaseService db = new DatabaseService(dir.toString(), PersistenceMode.JOURNALED);
+        Path f2 = segmentOf(dir, "F002");
+        Files.setLastModifiedTime(f2, OLD);
+
+        assertTrue(db.bookSeat("F001", "2B", new Passenger("Jane", "Doe", "1985-05-15")));
+        db.compactJournal();
+        db.close();
+
+        assertEquals(OLD, Files.getLastModifiedTime(f2));
+        assertFalse(Files.exists(SeatJournal.rolledPath(dir.toString())));
+        List<Flight> flights = List.copyOf(SegmentStorage.readAll(dir).values());
+        assertTrue(flights.get(0).getSeat("2B").isBooked());
+    }
+}
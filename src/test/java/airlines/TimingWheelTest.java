@@ -0,0 +1,59 @@
+package airlines;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTest {
+
+    @Test
+    void firesAtTheDeadlineNotBefore() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 1000);
+        wheel.schedule("a", 1000, 250);  // due at 1250 -> tick 13
+        wheel.schedule("b", 1000, 300);  // due at 1300 -> tick 13
+        wheel.schedule("now", 1000, 0);
+
+        assertEquals(List.of("now"), wheel.advance(1000));
+        assertTrue(wheel.advance(1299).isEmpty());
+        List<String> due = wheel.advance(1300);
+        assertEquals(2, due.size());
+        assertTrue(due.containsAll(List.of("a", "b")));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void longTimeoutsTakeSeveralTurns() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 4, 0); // one turn = 40 ms
+        for (int delay = 10; delay <= 200; delay += 10) wheel.schedule(delay, 0, delay);
+
+        List<Integer> fired = new ArrayList<>();
+        for (long now = 0; now <= 200; now += 10) {
+            for (int delay : wheel.advance(now)) {
+                assertEquals(now, delay, "fired at " + now);
+                fired.add(delay);
+            }
+        }
+        assertEquals(20, fired.size());
+    }
+
+    @Test
+    void cancelledTimeoutsNeverFire() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+        TimingWheel.Timeout<String> a = wheel.schedule("a", 0, 500);
+        wheel.schedule("b", 0, 500);
+        TimingWheel.Timeout<String> c = wheel.schedule("c", 0, 500);
+
+        assertTrue(wheel.cancel(a));
+        assertFalse(wheel.cancel(a));
+        assertTrue(wheel.cancel(c));
+        assertEquals(List.of("b"), wheel.advance(10_000));
+        assertFalse(wheel.cancel(c));
+
+        // After idling, a new timeout counts from the time it was scheduled
+        wheel.schedule("d", 60_000, 100);
+        assertTrue(wheel.advance(60_099).isEmpty());
+        assertEquals(List.of("d"), wheel.advance(60_100));
+    }
+}